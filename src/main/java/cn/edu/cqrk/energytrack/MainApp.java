@@ -4,6 +4,7 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * EnergyTrack 项目主启动类
@@ -16,6 +17,7 @@ import org.springframework.cache.annotation.EnableCaching;
 @SpringBootApplication
 @MapperScan("cn.edu.cqrk.energytrack.mapper")
 @EnableCaching // 启用 Spring Cache
+@EnableScheduling // 启用定时任务
 public class MainApp {
     public static void main(String[] args) {
         // 启动 Spring Boot 应用
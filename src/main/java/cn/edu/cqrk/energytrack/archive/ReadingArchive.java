@@ -0,0 +1,462 @@
+package cn.edu.cqrk.energytrack.archive;
+
+import cn.edu.cqrk.energytrack.cache.ReadingSeriesCodec;
+import cn.edu.cqrk.energytrack.config.ArchiveProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 原始读数归档存储
+ * 每个电表每月一个不可变的段文件 {dir}/{meterId}/{yyyyMM}.seg：文件头记录条数和首末读数时间，
+ * 其后是与 Redis 缓存相同的列式编码（时间二阶差分、读数定点差分、变长整数），不再做 Deflate，
+ * 读取时内存映射文件直接在映射区上解码。
+ * 归档月份里仍可能有后补写入数据库的读数（下次归档时并入段文件），读取时按读数ID去重后与数据库中的读数合并
+ */
+@Component
+public class ReadingArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingArchive.class);
+
+    private static final int MAGIC = 0x45545347; // "ETSG"
+    private static final byte VERSION = 1;
+    // 魔数、版本、电表ID、月份、条数、首末时间、载荷长度
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 4 + 4 + 8 + 8 + 4;
+    private static final String SUFFIX = ".seg";
+    private static final Comparator<MeterReadingVo> BY_TIME = Comparator
+            .comparing(MeterReadingVo::getReadingTime)
+            .thenComparing(MeterReadingVo::getReadingId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ArchiveProperties properties;
+    private final MeterReadingMapper meterReadingMapper;
+    private final ReadingSeriesCodec codec = new ReadingSeriesCodec(0);
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ReadingArchive(ArchiveProperties properties, MeterReadingMapper meterReadingMapper) {
+        this.properties = properties;
+        this.meterReadingMapper = meterReadingMapper;
+    }
+
+    /**
+     * 判断 [from, to) 内是否有已归档的月份
+     * @param meterId 电表ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 是否有段文件
+     */
+    public boolean hasSegments(Integer meterId, Date from, Date to) {
+        return !archivedMonths(meterId, from, to).isEmpty();
+    }
+
+    /**
+     * 读取 [from, to) 内已归档的读数，按时间升序
+     * @param meterId 电表ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 归档读数，没有时为空列表
+     */
+    public List<MeterReadingVo> read(Integer meterId, Date from, Date to) {
+        List<MeterReadingVo> result = new ArrayList<>();
+        for (YearMonth month : archivedMonths(meterId, from, to)) {
+            for (MeterReadingVo reading : readSegment(meterId, month)) {
+                if (!reading.getReadingTime().before(from) && reading.getReadingTime().before(to)) {
+                    result.add(reading);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 合并已归档读数和数据库读数，读出指定电表在 [from, to) 内的读数
+     * @param meterId 电表ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @param dbRows 数据库中同一范围的读数
+     * @return 按读数ID去重（数据库优先）、按时间升序的读数
+     */
+    public List<MeterReadingVo> merge(Integer meterId, Date from, Date to, List<MeterReadingVo> dbRows) {
+        List<MeterReadingVo> archived = read(meterId, from, to);
+        if (archived.isEmpty()) {
+            return dbRows;
+        }
+        Map<Object, MeterReadingVo> byId = new LinkedHashMap<>(archived.size() + dbRows.size());
+        for (MeterReadingVo reading : archived) {
+            byId.put(reading.getReadingId(), reading);
+        }
+        for (MeterReadingVo reading : dbRows) {
+            byId.put(reading.getReadingId() != null ? reading.getReadingId() : reading, reading);
+        }
+        List<MeterReadingVo> merged = new ArrayList<>(byId.values());
+        merged.sort(BY_TIME);
+        return merged;
+    }
+
+    /**
+     * 按时间顺序逐条回调 [from, to) 内的读数，已归档的月份从段文件读取并合并该月仍在数据库中的读数，
+     * 其余时间段直接流式查询数据库
+     * @param meterId 电表ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @param consumer 回调
+     */
+    public void stream(Integer meterId, Date from, Date to, Consumer<MeterReading> consumer) {
+        streamWhile(meterId, from, to, reading -> {
+            consumer.accept(reading);
+            return true;
+        });
+    }
+
+    /**
+     * 与 {@link #stream} 相同，回调返回 false 时停止读取
+     * @param meterId 电表ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @param visitor 回调，返回 false 时停止
+     * @return 是否读完了整个范围
+     */
+    public boolean streamWhile(Integer meterId, Date from, Date to, Predicate<MeterReading> visitor) {
+        for (Period period : periods(meterId, from, to)) {
+            if (period.month != null) {
+                for (MeterReading reading : readMonth(meterId, period)) {
+                    if (!visitor.test(reading)) {
+                        return false;
+                    }
+                }
+                continue;
+            }
+            boolean[] stopped = new boolean[1];
+            meterReadingMapper.streamRange(meterId, period.from, period.to, context -> {
+                if (!visitor.test(context.getResultObject())) {
+                    stopped[0] = true;
+                    context.stop();
+                }
+            });
+            if (stopped[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按电表、时间顺序逐条回调 [from, to) 内的读数，用于导出
+     * meterId 为空时读取全部电表：有段文件的电表逐个按 {@link #stream} 读取，
+     * 相邻两个这样的电表之间的其余电表按电表ID区间一次流式查询；没有任何段文件时只执行一次查询
+     * @param meterId 电表ID，为空时读取全部电表
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @param consumer 回调
+     */
+    public void streamAll(Integer meterId, Date from, Date to, Consumer<MeterReading> consumer) {
+        if (meterId != null) {
+            stream(meterId, from, to, consumer);
+            return;
+        }
+        Integer after = null;
+        for (Integer archived : archivedMeters(from, to)) {
+            meterReadingMapper.streamMeterRange(after, archived, from, to, context -> consumer.accept(context.getResultObject()));
+            stream(archived, from, to, consumer);
+            after = archived;
+        }
+        meterReadingMapper.streamMeterRange(after, null, from, to, context -> consumer.accept(context.getResultObject()));
+    }
+
+    /**
+     * 打开 [from, to) 内读数的游标，按时间升序，读出的读数与 {@link #stream} 相同
+     * 未归档的时间段使用数据库游标，只能在事务内遍历，同一时刻只打开一个；已归档的月份一次解码一个月
+     * @param meterId 电表ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 游标，由调用方关闭
+     */
+    public ReadingCursor cursor(Integer meterId, Date from, Date to) {
+        return new ReadingCursor(meterId, periods(meterId, from, to));
+    }
+
+    /**
+     * 写入（或整体替换）某电表某月的段文件：先写临时文件并落盘，再原子替换
+     * @param meterId 电表ID
+     * @param month 月份
+     * @param readings 该月全部读数，按时间升序
+     * @return 是否写入；读数值小数位不一致等无法编码的情况返回 false
+     * @throws IOException 写文件失败时抛出
+     */
+    public boolean write(Integer meterId, YearMonth month, List<MeterReadingVo> readings) throws IOException {
+        byte[] payload = codec.encode(readings);
+        if (payload == null) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+                .put(VERSION)
+                .putInt(meterId)
+                .putInt(month.getYear() * 100 + month.getMonthValue())
+                .putInt(readings.size())
+                .putLong(readings.get(0).getReadingTime().getTime())
+                .putLong(readings.get(readings.size() - 1).getReadingTime().getTime())
+                .putInt(payload.length);
+        header.flip();
+
+        Path target = segmentPath(meterId, month);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(payload);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * 读取某电表某月的段文件
+     * @param meterId 电表ID
+     * @param month 月份
+     * @return 该月全部归档读数，段文件不存在时为空列表
+     */
+    public List<MeterReadingVo> readSegment(Integer meterId, YearMonth month) {
+        Path path = segmentPath(meterId, month);
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IllegalStateException("段文件格式不正确: " + path);
+            }
+            buffer.position(HEADER_SIZE - 4);
+            int payloadLength = buffer.getInt();
+            buffer.limit(HEADER_SIZE + payloadLength);
+            return codec.decode(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取段文件失败: " + path, e);
+        }
+    }
+
+    /**
+     * 在 [from, to) 内有段文件的电表，按电表ID升序
+     */
+    private TreeSet<Integer> archivedMeters(Date from, Date to) {
+        TreeSet<Integer> meterIds = new TreeSet<>();
+        Path dir = Paths.get(properties.getDir());
+        if (!Files.isDirectory(dir)) {
+            return meterIds;
+        }
+        try (Stream<Path> dirs = Files.list(dir)) {
+            dirs.map(path -> path.getFileName().toString())
+                    .filter(name -> !name.isEmpty() && name.chars().allMatch(Character::isDigit))
+                    .map(Integer::valueOf)
+                    .filter(meterId -> hasSegments(meterId, from, to))
+                    .forEach(meterIds::add);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("读取归档目录失败: {}", e.getMessage());
+        }
+        return meterIds;
+    }
+
+    /**
+     * 把 [from, to) 按已归档月份切分为依次读取的时间段
+     */
+    private List<Period> periods(Integer meterId, Date from, Date to) {
+        List<Period> periods = new ArrayList<>();
+        Date cursor = from;
+        for (YearMonth month : archivedMonths(meterId, from, to)) {
+            Date monthStart = max(toDate(month.atDay(1)), from);
+            Date monthEnd = min(toDate(month.plusMonths(1).atDay(1)), to);
+            if (cursor.before(monthStart)) {
+                periods.add(new Period(cursor, monthStart, null));
+            }
+            periods.add(new Period(monthStart, monthEnd, month));
+            cursor = monthEnd;
+        }
+        if (cursor.before(to)) {
+            periods.add(new Period(cursor, to, null));
+        }
+        return periods;
+    }
+
+    /**
+     * 读取一个已归档月份内的读数：段文件与该月仍在数据库中的读数合并
+     */
+    private List<MeterReading> readMonth(Integer meterId, Period period) {
+        List<MeterReadingVo> dbRows = new ArrayList<>();
+        meterReadingMapper.streamRange(meterId, period.from, period.to, context -> dbRows.add(toVo(context.getResultObject())));
+        List<MeterReadingVo> merged = merge(meterId, period.from, period.to, dbRows);
+        List<MeterReading> readings = new ArrayList<>(merged.size());
+        for (MeterReadingVo reading : merged) {
+            readings.add(toReading(reading));
+        }
+        return readings;
+    }
+
+    /**
+     * 某电表在 [from, to) 内有段文件的月份，按时间升序
+     */
+    private TreeSet<YearMonth> archivedMonths(Integer meterId, Date from, Date to) {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        Path meterDir = Paths.get(properties.getDir(), String.valueOf(meterId));
+        if (meterId == null || !from.before(to) || !Files.isDirectory(meterDir)) {
+            return months;
+        }
+        YearMonth first = YearMonth.from(from.toInstant().atZone(ZoneId.systemDefault()));
+        YearMonth last = YearMonth.from(new Date(to.getTime() - 1).toInstant().atZone(ZoneId.systemDefault()));
+        try (Stream<Path> files = Files.list(meterDir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.length() == 6 + SUFFIX.length() && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        int value = Integer.parseInt(name.substring(0, 6));
+                        YearMonth month = YearMonth.of(value / 100, value % 100);
+                        if (!month.isBefore(first) && !month.isAfter(last)) {
+                            months.add(month);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            logger.warn("读取电表 {} 的归档目录失败: {}", meterId, e.getMessage());
+        }
+        return months;
+    }
+
+    private Path segmentPath(Integer meterId, YearMonth month) {
+        return Paths.get(properties.getDir(), String.valueOf(meterId),
+                String.format("%04d%02d%s", month.getYear(), month.getMonthValue(), SUFFIX));
+    }
+
+    static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static Date max(Date a, Date b) {
+        return a.after(b) ? a : b;
+    }
+
+    private static Date min(Date a, Date b) {
+        return a.before(b) ? a : b;
+    }
+
+    private static MeterReadingVo toVo(MeterReading reading) {
+        MeterReadingVo vo = new MeterReadingVo();
+        BeanUtils.copyProperties(reading, vo);
+        return vo;
+    }
+
+    private static MeterReading toReading(MeterReadingVo vo) {
+        MeterReading reading = new MeterReading();
+        BeanUtils.copyProperties(vo, reading);
+        return reading;
+    }
+
+    /**
+     * 连续读取的一段时间，month 不为空表示该段属于已归档月份
+     */
+    private static final class Period {
+        private final Date from;
+        private final Date to;
+        private final YearMonth month;
+
+        Period(Date from, Date to, YearMonth month) {
+            this.from = from;
+            this.to = to;
+            this.month = month;
+        }
+    }
+
+    /**
+     * 按时间段依次读取的读数游标，切换时间段时关闭上一段的数据库游标
+     */
+    public final class ReadingCursor implements Iterator<MeterReading>, Closeable {
+        private final Integer meterId;
+        private final Iterator<Period> periods;
+        private Cursor<MeterReading> dbCursor;
+        private Iterator<MeterReading> current = Collections.emptyIterator();
+
+        private ReadingCursor(Integer meterId, List<Period> periods) {
+            this.meterId = meterId;
+            this.periods = periods.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                closeDbCursor();
+                if (!periods.hasNext()) {
+                    return false;
+                }
+                Period period = periods.next();
+                if (period.month != null) {
+                    current = readMonth(meterId, period).iterator();
+                } else {
+                    dbCursor = meterReadingMapper.cursorRange(meterId, period.from, period.to);
+                    current = dbCursor.iterator();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public MeterReading next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            closeDbCursor();
+        }
+
+        private void closeDbCursor() {
+            if (dbCursor == null) {
+                return;
+            }
+            try {
+                dbCursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                dbCursor = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package cn.edu.cqrk.energytrack.archive;
+
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.config.ArchiveProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 原始读数归档任务
+ * 定时把早于“当前月 - 归档月数”的整月读数写入段文件并从 meter_reading 删除：
+ * 先按原始读数重算该月汇总桶，再写段文件，最后按读数ID分批删除，任一步失败时该月读数仍留在数据库，下次重试
+ */
+@Component
+public class ReadingArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingArchiver.class);
+
+    // 每条 DELETE 语句包含的读数ID数
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final ArchiveProperties properties;
+    private final ReadingArchive archive;
+    private final MeterReadingMapper meterReadingMapper;
+    private final MeterReadingRollupService rollupService;
+    private final CacheGenerations cacheGenerations;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ReadingArchiver(ArchiveProperties properties, ReadingArchive archive, MeterReadingMapper meterReadingMapper,
+                           MeterReadingRollupService rollupService, CacheGenerations cacheGenerations) {
+        this.properties = properties;
+        this.archive = archive;
+        this.meterReadingMapper = meterReadingMapper;
+        this.rollupService = rollupService;
+        this.cacheGenerations = cacheGenerations;
+    }
+
+    /**
+     * 定时归档
+     */
+    @Scheduled(cron = "${energytrack.archive.cron:0 0 3 * * ?}")
+    public void scheduledArchive() {
+        if (properties.isEnabled()) {
+            archiveExpired();
+        }
+    }
+
+    /**
+     * 归档所有电表早于归档起点的整月读数，单个电表或月份失败时只记录日志，继续处理其余月份
+     * @return 归档的读数条数
+     */
+    public synchronized int archiveExpired() {
+        LocalDate cutoffDay = LocalDate.now().withDayOfMonth(1).minusMonths(properties.getArchiveAfterMonths());
+        Date cutoff = ReadingArchive.toDate(cutoffDay);
+        YearMonth cutoffMonth = YearMonth.from(cutoffDay);
+        int archived = 0;
+        for (Integer meterId : meterReadingMapper.selectMetersBefore(cutoff)) {
+            Date oldest = meterReadingMapper.selectOldestTimeBefore(meterId, cutoff);
+            if (oldest == null) {
+                continue;
+            }
+            YearMonth month = YearMonth.from(oldest.toInstant().atZone(ZoneId.systemDefault()));
+            for (; month.isBefore(cutoffMonth); month = month.plusMonths(1)) {
+                try {
+                    archived += archiveMonth(meterId, month);
+                } catch (Exception e) {
+                    logger.error("归档电表 {} {} 的读数失败: {}", meterId, month, e.getMessage(), e);
+                }
+            }
+        }
+        if (archived > 0) {
+            logger.info("已归档 {} 条早于 {} 的读数", archived, cutoffDay);
+        }
+        return archived;
+    }
+
+    /**
+     * 归档某电表某月仍在数据库中的读数，已有段文件时合并后整体重写
+     * @return 归档的读数条数
+     */
+    private int archiveMonth(Integer meterId, YearMonth month) throws IOException {
+        Date start = ReadingArchive.toDate(month.atDay(1));
+        Date end = ReadingArchive.toDate(month.plusMonths(1).atDay(1));
+        List<MeterReading> rows = meterReadingMapper.selectList(Wrappers.lambdaQuery(MeterReading.class)
+                .eq(MeterReading::getMeterId, meterId)
+                .ge(MeterReading::getReadingTime, start)
+                .lt(MeterReading::getReadingTime, end)
+                .orderByAsc(MeterReading::getReadingTime)
+                .orderByAsc(MeterReading::getReadingId));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, MeterReadingVo> byId = new LinkedHashMap<>();
+        for (MeterReadingVo reading : archive.readSegment(meterId, month)) {
+            byId.put(reading.getReadingId(), reading);
+        }
+        for (MeterReading row : rows) {
+            MeterReadingVo vo = new MeterReadingVo();
+            BeanUtils.copyProperties(row, vo);
+            byId.put(row.getReadingId(), vo);
+        }
+        List<MeterReadingVo> readings = new ArrayList<>(byId.values());
+        readings.sort((a, b) -> {
+            int byTime = a.getReadingTime().compareTo(b.getReadingTime());
+            return byTime != 0 ? byTime : Integer.compare(a.getReadingId(), b.getReadingId());
+        });
+        normalizeScale(readings);
+
+        // 汇总桶是归档后长范围查询的唯一来源，先于删除原始读数重算
+        rollupService.rebuild(meterId, start, new Date(end.getTime() - 1));
+        if (!archive.write(meterId, month, readings)) {
+            logger.warn("电表 {} {} 的读数无法编码为段文件，保留在数据库中", meterId, month);
+            return 0;
+        }
+        for (int from = 0; from < rows.size(); from += DELETE_CHUNK_SIZE) {
+            List<Integer> ids = new ArrayList<>(DELETE_CHUNK_SIZE);
+            for (MeterReading row : rows.subList(from, Math.min(from + DELETE_CHUNK_SIZE, rows.size()))) {
+                ids.add(row.getReadingId());
+            }
+            meterReadingMapper.deleteBatchIds(ids);
+        }
+        cacheGenerations.bump(CacheGenerations.METER_READINGS, meterId);
+        logger.debug("已归档电表 {} {} 的 {} 条读数", meterId, month, rows.size());
+        return rows.size();
+    }
+
+    /**
+     * 把读数值统一到最大小数位，补零不改变数值，保证列式编码可以无损还原
+     */
+    private static void normalizeScale(List<MeterReadingVo> readings) {
+        int scale = 0;
+        for (MeterReadingVo reading : readings) {
+            if (reading.getReadingValue() != null) {
+                scale = Math.max(scale, reading.getReadingValue().scale());
+            }
+        }
+        for (MeterReadingVo reading : readings) {
+            BigDecimal value = reading.getReadingValue();
+            if (value != null && value.scale() != scale) {
+                reading.setReadingValue(value.setScale(scale));
+            }
+        }
+    }
+}
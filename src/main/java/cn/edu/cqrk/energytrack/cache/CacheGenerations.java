@@ -0,0 +1,142 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.config.TwoLevelCacheProperties;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存代数（generation）计数器
+ * 缓存键中嵌入“命名空间纪元.作用域代数”标签，数据变更时只递增对应作用域（如某个电表）的代数，
+ * 旧键自然失效并在缓存 TTL 到期后被 Redis 回收，不再需要 allEntries 清空整个缓存（KEYS/SCAN + DEL）。
+ * 需要整体失效时递增命名空间纪元。计数器保存在 Redis 中，多节点共享；
+ * 启用本地缓存时标签在本地缓存一小段时间，递增时通过 {@link CacheInvalidationBus} 通知其他节点丢弃本地标签。
+ * 在 SpEL 中通过 {@code @cacheGenerations.tag('meterReadings', #meterId)} 引用
+ */
+@Component("cacheGenerations")
+public class CacheGenerations {
+
+    public static final String METER_READINGS = "meterReadings";
+    public static final String METERS = "meters";
+    public static final String ELECTRICITY_REPORTS = "electricityReports";
+    // 不区分电表的列表、分页、搜索结果使用的作用域
+    public static final String ALL = "all";
+
+    private static final String KEY_PREFIX = "cache:gen:";
+    // 本地标签数量上限，超出时整体清空（正常情况下约为电表数的几倍）
+    private static final int MAX_LOCAL_TAGS = 100000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TwoLevelCacheProperties properties;
+    private final CacheInvalidationBus bus;
+    private final ConcurrentMap<String, LocalTag> localTags = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public CacheGenerations(StringRedisTemplate redisTemplate, TwoLevelCacheProperties properties, CacheInvalidationBus bus) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.bus = bus;
+        bus.register(CacheInvalidationBus.TYPE_GENERATION, this::evictLocal);
+    }
+
+    /**
+     * 获取作用域当前的代数标签，用于拼接缓存键
+     * @param namespace 命名空间
+     * @param scope 作用域，如电表ID或 {@link #ALL}
+     * @return 形如 "纪元.代数" 的标签
+     */
+    public String tag(String namespace, Object scope) {
+        String localKey = namespace + ":" + scope;
+        long now = System.currentTimeMillis();
+        if (properties.isLocalEnabled()) {
+            LocalTag cached = localTags.get(localKey);
+            if (cached != null && cached.expiresAt > now) {
+                return cached.tag;
+            }
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(Arrays.asList(epochKey(namespace), scopeKey(namespace, scope)));
+        String epoch = values == null || values.get(0) == null ? "0" : values.get(0);
+        String generation = values == null || values.get(1) == null ? "0" : values.get(1);
+        String tag = epoch + "." + generation;
+        if (properties.isLocalEnabled()) {
+            if (localTags.size() >= MAX_LOCAL_TAGS) {
+                localTags.clear();
+            }
+            localTags.put(localKey, new LocalTag(tag, now + TimeUnit.SECONDS.toMillis(properties.getGenerationLocalTtlSeconds())));
+        }
+        return tag;
+    }
+
+    /**
+     * 递增作用域代数，使该作用域下已缓存的条目失效
+     * 在事务中调用时推迟到事务提交之后，避免并发读取在提交前把旧数据写入新代数的缓存
+     * @param namespace 命名空间
+     * @param scope 作用域
+     */
+    public void bump(String namespace, Object scope) {
+        runAfterCommit(() -> {
+            redisTemplate.opsForValue().increment(scopeKey(namespace, scope));
+            evictLocal(namespace, String.valueOf(scope));
+            bus.publish(CacheInvalidationBus.TYPE_GENERATION, namespace, String.valueOf(scope));
+        });
+    }
+
+    /**
+     * 递增命名空间纪元，使整个命名空间的缓存条目失效
+     * @param namespace 命名空间
+     */
+    public void bumpAll(String namespace) {
+        runAfterCommit(() -> {
+            redisTemplate.opsForValue().increment(epochKey(namespace));
+            evictLocal(namespace, CacheInvalidationBus.ALL_KEYS);
+            bus.publish(CacheInvalidationBus.TYPE_GENERATION, namespace, CacheInvalidationBus.ALL_KEYS);
+        });
+    }
+
+    private void evictLocal(String namespace, String scope) {
+        if (CacheInvalidationBus.ALL_KEYS.equals(scope)) {
+            String prefix = namespace + ":";
+            localTags.keySet().removeIf(key -> key.startsWith(prefix));
+        } else {
+            localTags.remove(namespace + ":" + scope);
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String epochKey(String namespace) {
+        return KEY_PREFIX + namespace + ":epoch";
+    }
+
+    private static String scopeKey(String namespace, Object scope) {
+        return KEY_PREFIX + namespace + ":" + scope;
+    }
+
+    private static class LocalTag {
+        private final String tag;
+        private final long expiresAt;
+
+        LocalTag(String tag, long expiresAt) {
+            this.tag = tag;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.config.TwoLevelCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * 本地缓存跨节点失效通知
+ * 通过 Redis 发布/订阅广播“类型 + 名称 + 键”，各节点收到后清除自己的本地副本，本节点发出的消息会被忽略
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String SEPARATOR = "\n";
+
+    // 通配键，表示清除该名称下的全部条目
+    public static final String ALL_KEYS = "*";
+    // 消息类型：缓存条目
+    public static final String TYPE_ENTRY = "entry";
+    // 消息类型：缓存代数标签
+    public static final String TYPE_GENERATION = "generation";
+    // 消息类型：字典表
+    public static final String TYPE_DICTIONARY = "dictionary";
+    // 消息类型：电表ID索引，键为 "+ID" 或 "-ID"
+    public static final String TYPE_METER_ID = "meterId";
+    // 消息类型：近期读数内存序列，键为电表ID
+    public static final String TYPE_HOT_SERIES = "hotSeries";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final TwoLevelCacheProperties properties;
+    private final Map<String, BiConsumer<String, String>> handlers = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, TwoLevelCacheProperties properties,
+                                RedisMessageListenerContainer container) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        container.addMessageListener((message, pattern) -> onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(properties.getChannel()));
+    }
+
+    /**
+     * 注册某类消息的处理器
+     * @param type 消息类型
+     * @param handler 处理器，参数为名称和键
+     */
+    public void register(String type, BiConsumer<String, String> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * 广播失效通知，失败时只记录日志，其他节点的本地条目最迟在本地 TTL 到期后失效
+     * @param type 消息类型
+     * @param name 缓存名或命名空间
+     * @param key 键，{@link #ALL_KEYS} 表示全部
+     */
+    public void publish(String type, String name, String key) {
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), nodeId + SEPARATOR + type + SEPARATOR + name + SEPARATOR + key);
+        } catch (Exception e) {
+            logger.warn("广播缓存失效通知失败 {} {} {}: {}", type, name, key, e.getMessage());
+        }
+    }
+
+    private void onMessage(String body) {
+        String[] parts = body.split(SEPARATOR, 4);
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        BiConsumer<String, String> handler = handlers.get(parts[1]);
+        if (handler != null) {
+            handler.accept(parts[2], parts[3]);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cn.edu.cqrk.energytrack.cache;
+
+/**
+ * 缓存值编解码器
+ * 由 {@link CompactCacheSerializer} 按顺序询问，第一个声明支持的编解码器负责该值，不支持的类型交给后备序列化器
+ */
+public interface CacheValueCodec {
+
+    /**
+     * @return 编解码器标识，写在序列化结果的第一个字节，取值 1~127 且不能重复
+     */
+    byte id();
+
+    /**
+     * @param value 待缓存的值
+     * @return 是否由该编解码器处理
+     */
+    boolean supports(Object value);
+
+    /**
+     * 编码
+     * @param value 已确认支持的值
+     * @return 编码结果，无法编码（如数据超出表示范围）时返回 null，交给后备序列化器
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码
+     * @param bytes 完整的序列化结果
+     * @param offset 编码内容的起始位置（跳过标识字节）
+     * @return 解码后的值
+     */
+    Object decode(byte[] bytes, int offset);
+}
@@ -0,0 +1,80 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+
+/**
+ * 缓存值序列化器：先交给注册的紧凑编解码器，不支持的类型交给后备序列化器
+ * 序列化结果的第一个字节标识编码方式：编解码器 ID（1~127）或 0 表示后备格式；
+ * 以 JDK 序列化魔数（0xAC）开头的数据是启用本序列化器之前写入的旧条目，整体交给后备序列化器读取
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    private static final byte FALLBACK = 0;
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private final List<CacheValueCodec> codecs;
+    private final CacheValueCodec[] codecsById = new CacheValueCodec[128];
+    private final RedisSerializer<Object> fallback;
+
+    public CompactCacheSerializer(List<CacheValueCodec> codecs, RedisSerializer<Object> fallback) {
+        for (CacheValueCodec codec : codecs) {
+            if (codec.id() <= 0 || codecsById[codec.id()] != null) {
+                throw new IllegalArgumentException("缓存编解码器 ID 无效或重复: " + codec.id());
+            }
+            codecsById[codec.id()] = codec;
+        }
+        this.codecs = codecs;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        for (CacheValueCodec codec : codecs) {
+            if (codec.supports(value)) {
+                byte[] encoded = codec.encode(value);
+                if (encoded != null) {
+                    byte[] result = new byte[encoded.length + 1];
+                    result[0] = codec.id();
+                    System.arraycopy(encoded, 0, result, 1, encoded.length);
+                    return result;
+                }
+            }
+        }
+        byte[] serialized = fallback.serialize(value);
+        byte[] result = new byte[serialized.length + 1];
+        result[0] = FALLBACK;
+        System.arraycopy(serialized, 0, result, 1, serialized.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte id = bytes[0];
+        if (id == JDK_STREAM_MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (id == FALLBACK) {
+            byte[] serialized = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, serialized, 0, serialized.length);
+            return fallback.deserialize(serialized);
+        }
+        CacheValueCodec codec = id > 0 ? codecsById[id] : null;
+        if (codec == null) {
+            throw new SerializationException("未知的缓存编码: " + id);
+        }
+        try {
+            return codec.decode(bytes, 1);
+        } catch (RuntimeException e) {
+            throw new SerializationException("缓存值解码失败: " + e.getMessage(), e);
+        }
+    }
+}
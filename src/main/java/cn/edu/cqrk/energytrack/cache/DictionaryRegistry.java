@@ -0,0 +1,201 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.entity.pojo.DictMeterStatus;
+import cn.edu.cqrk.energytrack.entity.pojo.DictMeterType;
+import cn.edu.cqrk.energytrack.entity.pojo.DictUserRole;
+import cn.edu.cqrk.energytrack.entity.pojo.DictUserStatus;
+import cn.edu.cqrk.energytrack.mapper.DictMeterStatusMapper;
+import cn.edu.cqrk.energytrack.mapper.DictMeterTypeMapper;
+import cn.edu.cqrk.energytrack.mapper.DictUserRoleMapper;
+import cn.edu.cqrk.energytrack.mapper.DictUserStatusMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 字典表内存注册表
+ * 电表类型/状态、用户角色/状态四张字典表很小且几乎不变，启动时整体加载为不可变映射，
+ * 校验时直接查内存，不再每次写入都查询数据库。定时刷新；本节点修改字典后调用 {@link #refresh()}，
+ * 并通过 {@link CacheInvalidationBus} 通知其他节点立即重新加载
+ */
+@Component
+@DependsOn("schemaMigrator")
+public class DictionaryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryRegistry.class);
+
+    private final DictMeterTypeMapper dictMeterTypeMapper;
+    private final DictMeterStatusMapper dictMeterStatusMapper;
+    private final DictUserRoleMapper dictUserRoleMapper;
+    private final DictUserStatusMapper dictUserStatusMapper;
+    private final CacheInvalidationBus bus;
+
+    private volatile Snapshot snapshot;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public DictionaryRegistry(DictMeterTypeMapper dictMeterTypeMapper, DictMeterStatusMapper dictMeterStatusMapper,
+                              DictUserRoleMapper dictUserRoleMapper, DictUserStatusMapper dictUserStatusMapper,
+                              CacheInvalidationBus bus) {
+        this.dictMeterTypeMapper = dictMeterTypeMapper;
+        this.dictMeterStatusMapper = dictMeterStatusMapper;
+        this.dictUserRoleMapper = dictUserRoleMapper;
+        this.dictUserStatusMapper = dictUserStatusMapper;
+        this.bus = bus;
+        bus.register(CacheInvalidationBus.TYPE_DICTIONARY, (name, key) -> reload());
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 定时重新加载，兜底字典被直接修改或失效通知丢失的情况
+     */
+    @Scheduled(fixedDelayString = "${energytrack.dict.refresh-interval:PT5M}",
+            initialDelayString = "${energytrack.dict.refresh-interval:PT5M}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * 字典表被修改后调用：立即重新加载并通知其他节点
+     */
+    public void refresh() {
+        reload();
+        bus.publish(CacheInvalidationBus.TYPE_DICTIONARY, "dict", CacheInvalidationBus.ALL_KEYS);
+    }
+
+    /**
+     * @param typeCode 电表类型编码
+     * @return 是否为已启用的电表类型
+     */
+    public boolean isValidMeterType(String typeCode) {
+        return typeCode != null && current().meterTypes.containsKey(typeCode);
+    }
+
+    /**
+     * @param statusCode 电表状态编码
+     * @return 是否为已启用的电表状态
+     */
+    public boolean isValidMeterStatus(String statusCode) {
+        return statusCode != null && current().meterStatuses.containsKey(statusCode);
+    }
+
+    /**
+     * @param roleCode 用户角色编码
+     * @return 是否为已启用的用户角色
+     */
+    public boolean isValidUserRole(String roleCode) {
+        return roleCode != null && current().userRoles.containsKey(roleCode);
+    }
+
+    /**
+     * @param statusCode 用户状态编码
+     * @return 是否为已启用的用户状态
+     */
+    public boolean isValidUserStatus(String statusCode) {
+        return statusCode != null && current().userStatuses.containsKey(statusCode);
+    }
+
+    /**
+     * @return 已启用的电表类型，编码 -> 字典项
+     */
+    public Map<String, DictMeterType> getMeterTypes() {
+        return current().meterTypes;
+    }
+
+    /**
+     * @return 已启用的电表状态，编码 -> 字典项
+     */
+    public Map<String, DictMeterStatus> getMeterStatuses() {
+        return current().meterStatuses;
+    }
+
+    /**
+     * @return 已启用的用户角色，编码 -> 字典项
+     */
+    public Map<String, DictUserRole> getUserRoles() {
+        return current().userRoles;
+    }
+
+    /**
+     * @return 已启用的用户状态，编码 -> 字典项
+     */
+    public Map<String, DictUserStatus> getUserStatuses() {
+        return current().userStatuses;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // 启动时加载失败（如数据库尚未就绪），在第一次使用时再同步加载一次，失败则向上抛出
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 重新加载全部字典，失败时保留上一次的结果
+     */
+    private void reload() {
+        try {
+            snapshot = load();
+            logger.debug("字典已加载: 电表类型 {}，电表状态 {}，用户角色 {}，用户状态 {}",
+                    snapshot.meterTypes.size(), snapshot.meterStatuses.size(),
+                    snapshot.userRoles.size(), snapshot.userStatuses.size());
+        } catch (Exception e) {
+            logger.warn("加载字典失败，继续使用上一次的结果: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot load() {
+        return new Snapshot(
+                index(dictMeterTypeMapper.selectList(null), DictMeterType::getTypeCode, DictMeterType::getIsEnabled),
+                index(dictMeterStatusMapper.selectList(null), DictMeterStatus::getStatusCode, DictMeterStatus::getIsEnabled),
+                index(dictUserRoleMapper.selectList(null), DictUserRole::getRoleCode, DictUserRole::getIsEnabled),
+                index(dictUserStatusMapper.selectList(null), DictUserStatus::getStatusCode, DictUserStatus::getIsEnabled));
+    }
+
+    /**
+     * 按编码建立不可变索引，is_enabled 明确为 false 的字典项不收录
+     */
+    private static <T> Map<String, T> index(List<T> rows, Function<T, String> code, Function<T, Boolean> enabled) {
+        Map<String, T> map = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            if (!Boolean.FALSE.equals(enabled.apply(row))) {
+                map.put(code.apply(row), row);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static class Snapshot {
+        private final Map<String, DictMeterType> meterTypes;
+        private final Map<String, DictMeterStatus> meterStatuses;
+        private final Map<String, DictUserRole> userRoles;
+        private final Map<String, DictUserStatus> userStatuses;
+
+        Snapshot(Map<String, DictMeterType> meterTypes, Map<String, DictMeterStatus> meterStatuses,
+                 Map<String, DictUserRole> userRoles, Map<String, DictUserStatus> userStatuses) {
+            this.meterTypes = meterTypes;
+            this.meterStatuses = meterStatuses;
+            this.userRoles = userRoles;
+            this.userStatuses = userStatuses;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 按权重限制容量、带 TTL 的本地 LRU 缓存，作为两级缓存的 L1
+ * 权重超过上限时按最久未访问的顺序淘汰；条目在读取时检查是否过期
+ */
+class LocalLruCache {
+
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalWeight;
+
+    LocalLruCache(long maxWeight, long ttlMillis) {
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+    }
+
+    synchronized ValueWrapper get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    synchronized void put(String key, ValueWrapper value, int weight) {
+        if (weight > maxWeight) {
+            remove(key);
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(value, weight, System.currentTimeMillis() + ttlMillis));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            totalWeight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    synchronized void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return totalWeight;
+    }
+
+    private static class Entry {
+        private final ValueWrapper value;
+        private final int weight;
+        private final long expiresAt;
+
+        Entry(ValueWrapper value, int weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
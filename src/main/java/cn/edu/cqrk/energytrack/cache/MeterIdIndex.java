@@ -0,0 +1,239 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.mapper.MeterMapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 电表ID存在性索引
+ * 电表ID是自增整数，启动时从 meter 表加载到位图中（每个ID一个比特），超出位图范围的ID放在一个精确集合里，
+ * 校验电表是否存在时不再每次 selectCount。本节点新增/删除电表时同步更新，并通过 {@link CacheInvalidationBus}
+ * 通知其他节点；索引中没有的ID会回查数据库，查到则补进索引，因此其他节点新建的电表不会被误判为不存在。
+ * 另外定时整体重建，兜底直接改表或通知丢失的情况
+ */
+@Component
+@DependsOn("schemaMigrator")
+public class MeterIdIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterIdIndex.class);
+    // 位图覆盖的最大ID（不含），16M 个ID 约 2MB
+    private static final int MAX_BITMAP_ID = 1 << 24;
+    // 重建时在当前最大ID之上预留的位图空间，新增电表无需扩容
+    private static final int BITMAP_HEADROOM = 1 << 16;
+    private static final String NAME = "meterIds";
+
+    private final MeterMapper meterMapper;
+    private final CacheInvalidationBus bus;
+
+    private volatile Index index = new Index(0);
+    // 重建期间发生的删除：重建读到的可能是删除前的快照，发布新索引前从中去掉这些ID
+    private final Object removalLock = new Object();
+    private final Set<Integer> removalsDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public MeterIdIndex(MeterMapper meterMapper, CacheInvalidationBus bus) {
+        this.meterMapper = meterMapper;
+        this.bus = bus;
+        bus.register(CacheInvalidationBus.TYPE_METER_ID, this::onRemoteChange);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 从 meter 表整体重建索引，失败时保留原索引
+     * 查询和发布新索引之间的删除会记录下来，发布前应用到新索引上；同一时间的新增不需要记录，未命中时会回查数据库
+     */
+    @Scheduled(fixedDelayString = "${energytrack.meter-index.rebuild-interval:PT10M}",
+            initialDelayString = "${energytrack.meter-index.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        synchronized (removalLock) {
+            rebuilding = true;
+            removalsDuringRebuild.clear();
+        }
+        try {
+            List<Object> ids = meterMapper.selectObjs(Wrappers.lambdaQuery(Meter.class).select(Meter::getMeterId));
+            int maxId = 0;
+            for (Object id : ids) {
+                maxId = Math.max(maxId, ((Number) id).intValue());
+            }
+            Index rebuilt = new Index((int) Math.min((long) maxId + BITMAP_HEADROOM, MAX_BITMAP_ID));
+            for (Object id : ids) {
+                rebuilt.add(((Number) id).intValue());
+            }
+            synchronized (removalLock) {
+                for (Integer meterId : removalsDuringRebuild) {
+                    rebuilt.remove(meterId);
+                }
+                index = rebuilt;
+            }
+            logger.debug("电表ID索引已重建，共 {} 个电表，最大ID {}", ids.size(), maxId);
+        } catch (Exception e) {
+            logger.warn("重建电表ID索引失败，继续使用原索引: {}", e.getMessage());
+        } finally {
+            synchronized (removalLock) {
+                rebuilding = false;
+                removalsDuringRebuild.clear();
+            }
+        }
+    }
+
+    /**
+     * 判断电表是否存在，索引未命中时回查数据库
+     * @param meterId 电表ID
+     * @return 是否存在
+     */
+    public boolean contains(Integer meterId) {
+        if (meterId == null) {
+            return false;
+        }
+        if (index.contains(meterId)) {
+            return true;
+        }
+        boolean exists = meterMapper.selectCount(Wrappers.lambdaQuery(Meter.class).eq(Meter::getMeterId, meterId)) > 0;
+        if (exists) {
+            index.add(meterId);
+        }
+        return exists;
+    }
+
+    /**
+     * 批量判断电表是否存在，索引未命中的ID用一次 IN 查询回查
+     * @param meterIds 电表ID集合
+     * @return 其中存在的电表ID
+     */
+    public Set<Integer> filterExisting(Collection<Integer> meterIds) {
+        Set<Integer> existing = new HashSet<>();
+        List<Integer> missing = new ArrayList<>();
+        Index current = index;
+        for (Integer meterId : meterIds) {
+            if (meterId == null) {
+                continue;
+            }
+            if (current.contains(meterId)) {
+                existing.add(meterId);
+            } else {
+                missing.add(meterId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Object> found = meterMapper.selectObjs(Wrappers.lambdaQuery(Meter.class)
+                    .select(Meter::getMeterId)
+                    .in(Meter::getMeterId, missing));
+            for (Object id : found) {
+                int meterId = ((Number) id).intValue();
+                current.add(meterId);
+                existing.add(meterId);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * 新增电表后调用
+     * @param meterId 电表ID
+     */
+    public void add(Integer meterId) {
+        if (meterId != null) {
+            index.add(meterId);
+            bus.publish(CacheInvalidationBus.TYPE_METER_ID, NAME, "+" + meterId);
+        }
+    }
+
+    /**
+     * 删除电表后调用
+     * @param meterId 电表ID
+     */
+    public void remove(Integer meterId) {
+        if (meterId != null) {
+            removeLocal(meterId);
+            bus.publish(CacheInvalidationBus.TYPE_METER_ID, NAME, "-" + meterId);
+        }
+    }
+
+    private void removeLocal(int meterId) {
+        synchronized (removalLock) {
+            index.remove(meterId);
+            if (rebuilding) {
+                removalsDuringRebuild.add(meterId);
+            }
+        }
+    }
+
+    private void onRemoteChange(String name, String key) {
+        try {
+            int meterId = Integer.parseInt(key.substring(1));
+            if (key.charAt(0) == '+') {
+                index.add(meterId);
+            } else {
+                removeLocal(meterId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("无法解析电表ID索引通知: {}", key);
+        }
+    }
+
+    /**
+     * 位图 + 溢出集合，位图按 64 位字存放，CAS 更新
+     */
+    private static class Index {
+        private final AtomicLongArray words;
+        private final int capacity;
+        private final Set<Integer> overflow = ConcurrentHashMap.newKeySet();
+
+        Index(int capacity) {
+            this.capacity = capacity;
+            this.words = new AtomicLongArray((capacity + 63) >>> 6);
+        }
+
+        boolean contains(int id) {
+            if (id >= 0 && id < capacity) {
+                return (words.get(id >>> 6) & (1L << id)) != 0;
+            }
+            return overflow.contains(id);
+        }
+
+        void add(int id) {
+            if (id >= 0 && id < capacity) {
+                int word = id >>> 6;
+                long bit = 1L << id;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & bit) == 0 && !words.compareAndSet(word, current, current | bit));
+            } else {
+                overflow.add(id);
+            }
+        }
+
+        void remove(int id) {
+            if (id >= 0 && id < capacity) {
+                int word = id >>> 6;
+                long bit = 1L << id;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & bit) != 0 && !words.compareAndSet(word, current, current & ~bit));
+            } else {
+                overflow.remove(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import cn.edu.cqrk.energytrack.series.GorillaDecoder;
+import cn.edu.cqrk.energytrack.series.GorillaEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 读数序列的列式二进制编码，用于缓存 {@code List<MeterReadingVo>}
+ * 每个字段单独成列：读数时间和读数值（按统一小数位转成长整数）都非空时合成一列，用 {@link GorillaEncoder} 位级编码，
+ * 否则读数时间用二阶差分、读数值用差分；其余整数和时间列做一阶差分，差分值经 ZigZag 后写成变长整数。
+ * 规整的分钟级读数每条只占几个字节。
+ * 编码结果超过阈值时再用 Deflate 压缩。读数值小数位不一致或超出 long 范围时放弃编码，交给后备序列化器
+ */
+public class ReadingSeriesCodec implements CacheValueCodec {
+
+    private static final byte ID = 1;
+    private static final int FLAG_COMPRESSED = 1;
+    // 读数时间和读数值为 Gorilla 编码的一列；没有该标志的旧数据仍按两列差分解码
+    private static final int FLAG_GORILLA = 2;
+
+    private final int compressThreshold;
+
+    /**
+     * @param compressThreshold 编码结果超过该字节数时压缩，小于等于 0 表示不压缩
+     */
+    public ReadingSeriesCodec(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+            return false;
+        }
+        for (Object element : (List<?>) value) {
+            if (element == null || element.getClass() != MeterReadingVo.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Object value) {
+        List<MeterReadingVo> readings = (List<MeterReadingVo>) value;
+        int count = readings.size();
+
+        // 读数值统一小数位后转为长整数，小数位不一致时无法无损还原
+        int scale = -1;
+        for (MeterReadingVo reading : readings) {
+            BigDecimal readingValue = reading.getReadingValue();
+            if (readingValue == null) {
+                continue;
+            }
+            if (scale == -1) {
+                scale = readingValue.scale();
+            } else if (scale != readingValue.scale()) {
+                return null;
+            }
+            if (readingValue.unscaledValue().bitLength() > 62) {
+                return null;
+            }
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(count * 8 + 16);
+        writeVarLong(body, count);
+        writeVarLong(body, Math.max(scale, 0));
+
+        long[] column = new long[count];
+        boolean[] present = new boolean[count];
+
+        for (int i = 0; i < count; i++) {
+            Integer readingId = readings.get(i).getReadingId();
+            present[i] = readingId != null;
+            column[i] = readingId == null ? 0 : readingId;
+        }
+        writeDeltaColumn(body, column, present);
+
+        for (int i = 0; i < count; i++) {
+            Integer meterId = readings.get(i).getMeterId();
+            present[i] = meterId != null;
+            column[i] = meterId == null ? 0 : meterId;
+        }
+        writeDeltaColumn(body, column, present);
+
+        int flags = 0;
+        if (valuesAndTimesPresent(readings)) {
+            flags |= FLAG_GORILLA;
+            GorillaEncoder encoder = new GorillaEncoder(count);
+            for (MeterReadingVo reading : readings) {
+                encoder.append(reading.getReadingTime().getTime(), reading.getReadingValue().unscaledValue().longValue());
+            }
+            writeVarLong(body, encoder.byteLength());
+            byte[] series = encoder.toByteArray();
+            body.write(series, 0, series.length);
+        } else {
+            for (int i = 0; i < count; i++) {
+                BigDecimal readingValue = readings.get(i).getReadingValue();
+                present[i] = readingValue != null;
+                column[i] = readingValue == null ? 0 : readingValue.unscaledValue().longValue();
+            }
+            writeDeltaColumn(body, column, present);
+
+            for (int i = 0; i < count; i++) {
+                Date readingTime = readings.get(i).getReadingTime();
+                present[i] = readingTime != null;
+                column[i] = readingTime == null ? 0 : readingTime.getTime();
+            }
+            writeDeltaOfDeltaColumn(body, column, present);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Date createTime = readings.get(i).getCreateTime();
+            present[i] = createTime != null;
+            column[i] = createTime == null ? 0 : createTime.getTime();
+        }
+        writeDeltaColumn(body, column, present);
+
+        for (int i = 0; i < count; i++) {
+            Date updateTime = readings.get(i).getUpdateTime();
+            present[i] = updateTime != null;
+            column[i] = updateTime == null ? 0 : updateTime.getTime();
+        }
+        writeDeltaColumn(body, column, present);
+
+        byte[] raw = body.toByteArray();
+        if (compressThreshold > 0 && raw.length > compressThreshold) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length + 8);
+                out.write(flags | FLAG_COMPRESSED);
+                writeVarLong(out, raw.length);
+                out.write(compressed, 0, compressed.length);
+                return out.toByteArray();
+            }
+        }
+        byte[] result = new byte[raw.length + 1];
+        result[0] = (byte) flags;
+        System.arraycopy(raw, 0, result, 1, raw.length);
+        return result;
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset) {
+        return decode(ByteBuffer.wrap(bytes, offset, bytes.length - offset));
+    }
+
+    /**
+     * 从缓冲区当前位置解码，未压缩的数据直接在缓冲区上读取（可以是内存映射文件），不复制
+     * @param buffer 编码内容，从标志字节开始
+     * @return 解码后的读数列表
+     */
+    public List<MeterReadingVo> decode(ByteBuffer buffer) {
+        Reader reader;
+        int flags = buffer.get() & 0xFF;
+        if ((flags & FLAG_COMPRESSED) != 0) {
+            Reader header = new Reader(buffer);
+            int rawLength = (int) header.readVarLong();
+            byte[] compressed = new byte[buffer.remaining()];
+            buffer.get(compressed);
+            reader = new Reader(ByteBuffer.wrap(inflate(compressed, rawLength)));
+        } else {
+            reader = new Reader(buffer);
+        }
+
+        int count = (int) reader.readVarLong();
+        int scale = (int) reader.readVarLong();
+        long[] column = new long[count];
+        boolean[] present = new boolean[count];
+        List<MeterReadingVo> readings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            readings.add(new MeterReadingVo());
+        }
+
+        readDeltaColumn(reader, column, present);
+        for (int i = 0; i < count; i++) {
+            readings.get(i).setReadingId(present[i] ? (int) column[i] : null);
+        }
+        readDeltaColumn(reader, column, present);
+        for (int i = 0; i < count; i++) {
+            readings.get(i).setMeterId(present[i] ? (int) column[i] : null);
+        }
+        if ((flags & FLAG_GORILLA) != 0) {
+            int length = (int) reader.readVarLong();
+            GorillaDecoder decoder = new GorillaDecoder(reader.buffer, count);
+            for (int i = 0; decoder.next(); i++) {
+                readings.get(i).setReadingTime(new Date(decoder.time()));
+                readings.get(i).setReadingValue(BigDecimal.valueOf(decoder.value(), scale));
+            }
+            reader.buffer.position(reader.buffer.position() + length);
+        } else {
+            readDeltaColumn(reader, column, present);
+            for (int i = 0; i < count; i++) {
+                readings.get(i).setReadingValue(present[i] ? new BigDecimal(BigInteger.valueOf(column[i]), scale) : null);
+            }
+            readDeltaOfDeltaColumn(reader, column, present);
+            for (int i = 0; i < count; i++) {
+                readings.get(i).setReadingTime(present[i] ? new Date(column[i]) : null);
+            }
+        }
+        readDeltaColumn(reader, column, present);
+        for (int i = 0; i < count; i++) {
+            readings.get(i).setCreateTime(present[i] ? new Date(column[i]) : null);
+        }
+        readDeltaColumn(reader, column, present);
+        for (int i = 0; i < count; i++) {
+            readings.get(i).setUpdateTime(present[i] ? new Date(column[i]) : null);
+        }
+        return readings;
+    }
+
+    private static boolean valuesAndTimesPresent(List<MeterReadingVo> readings) {
+        for (MeterReadingVo reading : readings) {
+            if (reading.getReadingValue() == null || reading.getReadingTime() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 写出可空列的空值位图：首字节 0 表示全部非空，1 表示后面跟一个位图
+     */
+    private static void writePresence(ByteArrayOutputStream out, boolean[] present) {
+        boolean allPresent = true;
+        for (boolean p : present) {
+            if (!p) {
+                allPresent = false;
+                break;
+            }
+        }
+        if (allPresent) {
+            out.write(0);
+            return;
+        }
+        out.write(1);
+        for (int i = 0; i < present.length; i += 8) {
+            int bits = 0;
+            for (int j = 0; j < 8 && i + j < present.length; j++) {
+                if (present[i + j]) {
+                    bits |= 1 << j;
+                }
+            }
+            out.write(bits);
+        }
+    }
+
+    private static void readPresence(Reader reader, boolean[] present) {
+        if (reader.readByte() == 0) {
+            Arrays.fill(present, true);
+            return;
+        }
+        for (int i = 0; i < present.length; i += 8) {
+            int bits = reader.readByte();
+            for (int j = 0; j < 8 && i + j < present.length; j++) {
+                present[i + j] = (bits & (1 << j)) != 0;
+            }
+        }
+    }
+
+    private static void writeDeltaColumn(ByteArrayOutputStream out, long[] values, boolean[] present) {
+        writePresence(out, present);
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (present[i]) {
+                writeVarLong(out, zigZag(values[i] - previous));
+                previous = values[i];
+            }
+        }
+    }
+
+    private static void readDeltaColumn(Reader reader, long[] values, boolean[] present) {
+        readPresence(reader, present);
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (present[i]) {
+                previous += unZigZag(reader.readVarLong());
+                values[i] = previous;
+            }
+        }
+    }
+
+    private static void writeDeltaOfDeltaColumn(ByteArrayOutputStream out, long[] values, boolean[] present) {
+        writePresence(out, present);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (present[i]) {
+                long delta = values[i] - previous;
+                writeVarLong(out, zigZag(delta - previousDelta));
+                previous = values[i];
+                previousDelta = delta;
+            }
+        }
+    }
+
+    private static void readDeltaOfDeltaColumn(Reader reader, long[] values, boolean[] present) {
+        readPresence(reader, present);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (present[i]) {
+                previousDelta += unZigZag(reader.readVarLong());
+                previous += previousDelta;
+                values[i] = previous;
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            byte[] raw = new byte[rawLength];
+            int position = 0;
+            while (position < rawLength && !inflater.finished()) {
+                int length = inflater.inflate(raw, position, rawLength - position);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                position += length;
+            }
+            if (position != rawLength) {
+                throw new IllegalStateException("读数序列解压后长度不符: " + position + "/" + rawLength);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("读数序列解压失败: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer.get() & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                int b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+    }
+}
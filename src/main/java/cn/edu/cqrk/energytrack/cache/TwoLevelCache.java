@@ -0,0 +1,159 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 两级缓存：本地 L1 命中时直接返回内存中的对象，不经过网络和反序列化；未命中时读取 Redis L2 并回填 L1。
+ * 写入和删除同时作用于两级；删除和清空通过 {@link CacheInvalidationBus} 通知其他节点清除各自的 L1 副本。
+ * 写入不广播：写入只发生在缓存未命中回填时，键中带有 {@link CacheGenerations} 的代数标签，
+ * 数据变化后新键与其他节点上的旧副本不同，广播只会让其他节点的 L1 无谓失效。
+ * L1 中的对象在请求间共享，调用方不应修改缓存返回的对象
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final Cache remote;
+    private final LocalLruCache local;
+    private final CacheInvalidationBus bus;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong remoteHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    TwoLevelCache(String name, Cache remote, LocalLruCache local, CacheInvalidationBus bus) {
+        this.name = name;
+        this.remote = remote;
+        this.local = local;
+        this.bus = bus;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = String.valueOf(key);
+        ValueWrapper value = local.get(localKey);
+        if (value != null) {
+            localHits.incrementAndGet();
+            return value;
+        }
+        value = remote.get(key);
+        if (value != null) {
+            remoteHits.incrementAndGet();
+            local.put(localKey, value, weigh(value.get()));
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("缓存值类型不匹配: " + stored.getClass().getName() + "，期望: " + type.getName());
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = local.get(String.valueOf(key));
+        if (value != null) {
+            localHits.incrementAndGet();
+            return (T) value.get();
+        }
+        T loaded = remote.get(key, valueLoader);
+        local.put(String.valueOf(key), new SimpleValueWrapper(loaded), weigh(loaded));
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(String.valueOf(key), new SimpleValueWrapper(value), weigh(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.remove(String.valueOf(key));
+        bus.publish(CacheInvalidationBus.TYPE_ENTRY, name, String.valueOf(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        bus.publish(CacheInvalidationBus.TYPE_ENTRY, name, CacheInvalidationBus.ALL_KEYS);
+    }
+
+    /**
+     * 处理其他节点发来的失效通知，只清除本地副本
+     * @param key 键，{@link CacheInvalidationBus#ALL_KEYS} 表示全部
+     */
+    void evictLocal(String key) {
+        if (CacheInvalidationBus.ALL_KEYS.equals(key)) {
+            local.clear();
+        } else {
+            local.remove(key);
+        }
+    }
+
+    long getLocalHits() {
+        return localHits.get();
+    }
+
+    long getRemoteHits() {
+        return remoteHits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    int getLocalSize() {
+        return local.size();
+    }
+
+    long getLocalWeight() {
+        return local.weight();
+    }
+
+    /**
+     * 估算缓存值的权重：集合、分页结果按记录条数计，其他对象计 1
+     */
+    static int weigh(Object value) {
+        if (value instanceof Collection) {
+            return 1 + ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return 1 + ((Map<?, ?>) value).size();
+        }
+        if (value instanceof IPage) {
+            return 1 + ((IPage<?>) value).getRecords().size();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,76 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.config.TwoLevelCacheProperties;
+import cn.edu.cqrk.energytrack.entity.vo.CacheStatsVo;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级缓存管理器，为 Redis 缓存管理器创建的每个缓存套上本地 L1
+ * 每个缓存的本地 TTL 和最大权重可在 energytrack.cache.caches.{缓存名} 下单独配置
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final TwoLevelCacheProperties properties;
+    private final CacheInvalidationBus bus;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, TwoLevelCacheProperties properties, CacheInvalidationBus bus) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.properties = properties;
+        this.bus = bus;
+        bus.register(CacheInvalidationBus.TYPE_ENTRY, (name, key) -> {
+            TwoLevelCache cache = caches.get(name);
+            if (cache != null) {
+                cache.evictLocal(key);
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(n, remote, createLocal(n), bus));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * @return 各缓存的本地/远程命中情况
+     */
+    public List<CacheStatsVo> stats() {
+        List<CacheStatsVo> stats = new ArrayList<>();
+        for (TwoLevelCache cache : caches.values()) {
+            long localHits = cache.getLocalHits();
+            long total = localHits + cache.getRemoteHits() + cache.getMisses();
+            stats.add(new CacheStatsVo(cache.getName(), localHits, cache.getRemoteHits(), cache.getMisses(),
+                    total == 0 ? 0D : (double) localHits / total, cache.getLocalSize(), cache.getLocalWeight()));
+        }
+        return stats;
+    }
+
+    private LocalLruCache createLocal(String name) {
+        TwoLevelCacheProperties.CacheSpec spec = properties.getCaches().get(name);
+        long ttlSeconds = spec != null && spec.getLocalTtlSeconds() != null ? spec.getLocalTtlSeconds() : properties.getLocalTtlSeconds();
+        long maxWeight = spec != null && spec.getLocalMaxWeight() != null ? spec.getLocalMaxWeight() : properties.getLocalMaxWeight();
+        return new LocalLruCache(maxWeight, TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+}
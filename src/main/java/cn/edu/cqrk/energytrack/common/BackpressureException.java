@@ -0,0 +1,19 @@
+package cn.edu.cqrk.energytrack.common;
+
+/**
+ * 背压异常
+ * 当写入缓冲区已满时抛出，由全局异常处理转换为 HTTP 429 响应，提示客户端稍后重试
+ */
+public class BackpressureException extends BizException {
+
+    private final long retryAfterSeconds; // 建议客户端重试的等待秒数
+
+    public BackpressureException(BizExceptionCode code, long retryAfterSeconds) {
+        super(code);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -41,6 +41,15 @@ public enum BizExceptionCode {
     INVALID_USER_ID(5019, "无效的用户ID"),
     INVALID_PARAM(5020,"时间范围不能为空"),
     OLD_PASSWORD_ERROR(5021,"旧密码错误"),
+    BATCH_EMPTY(5022, "批量数据不能为空"),
+    BATCH_TOO_LARGE(5023, "批量数据条数超出上限"),
+    INGEST_QUEUE_FULL(5024, "写入队列已满，请稍后重试"),
+    INVALID_DOWNSAMPLE_PARAM(5025, "无效的降采样参数"),
+    REPORT_JOB_NOT_FOUND(5026, "报表任务不存在或已过期"),
+    REPORT_JOB_NOT_READY(5027, "报表尚未生成完成"),
+    REPORT_QUEUE_FULL(5028, "报表任务过多，请稍后重试"),
+    INVALID_CURSOR(5029, "无效的分页游标"),
+    TOO_MANY_METERS(5030, "参与汇总的电表数量超过上限"),
 
     /* 系统错误 */
     SYSTEM_ERROR(9999, "系统繁忙，请稍后再试");
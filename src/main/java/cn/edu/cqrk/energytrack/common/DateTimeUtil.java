@@ -0,0 +1,41 @@
+package cn.edu.cqrk.energytrack.common;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * 时间字符串解析与格式化工具，统一使用 yyyy-MM-dd HH:mm:ss 和服务器本地时区
+ */
+public final class DateTimeUtil {
+
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DateTimeUtil() {
+    }
+
+    /**
+     * 解析时间字符串，支持 yyyy-MM-dd 和 yyyy-MM-dd HH:mm:ss
+     * @throws BizException 格式错误时抛出
+     */
+    public static Date parse(String time) {
+        String value = time.trim();
+        if (value.length() == 10) {
+            value = value + " 00:00:00";
+        }
+        try {
+            return Date.from(LocalDateTime.parse(value, FORMATTER).atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new BizException(BizExceptionCode.INVALID_READING_TIME, "时间格式错误: " + time);
+        }
+    }
+
+    /**
+     * 格式化为 yyyy-MM-dd HH:mm:ss
+     */
+    public static String format(Date time) {
+        return LocalDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault()).format(FORMATTER);
+    }
+}
@@ -0,0 +1,30 @@
+package cn.edu.cqrk.energytrack.common;
+
+/**
+ * 数据导出格式
+ */
+public enum ExportFormat {
+
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson"),
+    // 按电表分块的 Gorilla 编码二进制格式，见 GorillaBlockWriter
+    GORILLA("application/octet-stream", "ets"),
+    // Excel 工作簿，SXSSF 流式写出，见 XlsxStreamWriter
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
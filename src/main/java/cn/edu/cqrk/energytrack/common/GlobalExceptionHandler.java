@@ -5,6 +5,9 @@ import cn.edu.cqrk.energytrack.common.BizExceptionCode;
 import cn.edu.cqrk.energytrack.common.R;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.connector.ClientAbortException; // 导入 ClientAbortException
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.BindException;
@@ -25,6 +28,15 @@ import java.util.Objects;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // 写入队列已满，返回 429 并通过 Retry-After 提示客户端退避
+    @ExceptionHandler(BackpressureException.class)
+    public ResponseEntity<R<String>> handleBackpressureException(BackpressureException e, HttpServletRequest request) {
+        log.warn("写入背压 => URI: {} | 消息: {}", request.getRequestURI(), e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(R.fail(e));
+    }
+
     // 业务异常处理
     @ExceptionHandler(BizException.class)
     public R<String> handleBizException(BizException e, HttpServletRequest request) {
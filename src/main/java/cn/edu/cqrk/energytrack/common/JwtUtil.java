@@ -18,14 +18,21 @@ public class JwtUtil {
 
     private final JwtProperties jwtProperties; // 注入 JWT 相关配置属性
     private final SecretKey signingKey; // 用于签名 JWT 的密钥
+    private final JwtParser parser; // 预先构建的解析器，线程安全，所有请求共用
+    private final LinkedHashMap<String, VerifiedToken> verifiedTokens; // 最近验证通过的令牌 -> Claims，按访问顺序淘汰
 
     public JwtUtil(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
         this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes()); // 使用配置中的密钥生成 SecretKey 对象
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build(); // 密钥和解析器只构建一次
+        this.verifiedTokens = new LinkedHashMap<String, VerifiedToken>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > jwtProperties.getVerifiedCacheSize(); // 超出容量时淘汰最久未使用的令牌
+            }
+        };
     }
 
-    @Value("${jwt.secret}") // 从配置文件中读取 jwt.secret 属性
-    private String secret;
     @Value("${jwt.expiration}") // 从配置文件中读取 jwt.expiration 属性
     private Long expiration;
 
@@ -52,15 +59,45 @@ public class JwtUtil {
                 .compact(); // 将 JWT 构建成紧凑的字符串
     }
 
+    /**
+     * 解析并验证 JWT
+     * 最近验证通过的令牌会缓存其 Claims 直到令牌过期，同一令牌重复请求时跳过签名校验和 JSON 解码。
+     * 缓存以完整令牌字符串为键，只有与已验证令牌逐字节相同的令牌才会命中。返回的 Claims 在请求间共享，调用方不应修改
+     * @param token JWT 字符串
+     * @return 令牌中的声明信息
+     * @throws JwtException 令牌签名无效、格式错误或已过期时抛出
+     */
     public Claims parseToken(String token) {
-        return Jwts.parserBuilder() // 开始构建 JWT 解析器
-                .setSigningKey(getSigningKey()) // 设置用于验证签名的密钥
-                .build() // 构建解析器
-                .parseClaimsJws(token) // 解析 JWT 字符串
-                .getBody(); // 获取 JWT 的载荷 (Claims)
+        long now = System.currentTimeMillis();
+        synchronized (verifiedTokens) {
+            VerifiedToken cached = verifiedTokens.get(token);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    return cached.claims; // 命中缓存且未过期，直接返回
+                }
+                verifiedTokens.remove(token); // 已过期的令牌交给解析器抛出 ExpiredJwtException
+            }
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody(); // 使用共享解析器验证签名并解析载荷 (Claims)
+        if (claims.getExpiration() != null && jwtProperties.getVerifiedCacheSize() > 0) { // 只缓存带过期时间的令牌
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(token, new VerifiedToken(claims, claims.getExpiration().getTime()));
+            }
+        }
+        return claims;
     }
 
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes()); // 根据 secret 字符串生成 SecretKey 对象，用于签名和验证
+        return signingKey; // 返回构造时生成的密钥，避免每次签名都重新计算
+    }
+
+    private static class VerifiedToken {
+        private final Claims claims; // 验证通过的声明信息
+        private final long expiresAt; // 令牌过期时间戳（毫秒）
+
+        VerifiedToken(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
 }
\ No newline at end of file
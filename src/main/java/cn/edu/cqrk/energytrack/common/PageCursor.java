@@ -0,0 +1,91 @@
+package cn.edu.cqrk.energytrack.common;
+
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标（keyset）分页工具
+ * 游标是上一页最后一条记录排序键的 Base64 编码，下一页用 WHERE 排序键 &gt; 游标 走索引定位，
+ * 不再 OFFSET 跳过前面的行，也不需要每页 COUNT(*)，第一万页和第一页代价相同
+ */
+public final class PageCursor {
+
+    // 单页最大条数
+    public static final int MAX_LIMIT = 500;
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = ":";
+
+    private PageCursor() {
+    }
+
+    /**
+     * 编码游标
+     * @param keys 排序键，依次为各排序列的值
+     * @return 不透明的游标字符串
+     */
+    public static String encode(long... keys) {
+        StringBuilder builder = new StringBuilder(VERSION);
+        for (long key : keys) {
+            builder.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @param cursor 游标字符串，为空表示第一页
+     * @param keyCount 排序键个数
+     * @return 排序键，第一页返回 null
+     * @throws BizException 游标格式不正确时抛出
+     */
+    public static long[] decode(String cursor, int keyCount) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length != keyCount + 1 || !VERSION.equals(parts[0])) {
+                throw new BizException(BizExceptionCode.INVALID_CURSOR);
+            }
+            long[] keys = new long[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = Long.parseLong(parts[i + 1]);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new BizException(BizExceptionCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * 将每页条数限制在 [1, {@link #MAX_LIMIT}]
+     */
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * 组装分页结果，rows 应按 limit + 1 条查询，多出的一条只用于判断是否还有下一页
+     * @param rows 查询结果
+     * @param limit 每页条数
+     * @param cursorOf 由记录生成游标
+     * @param convert 记录转换为视图对象
+     * @return 分页结果（不含总条数）
+     */
+    public static <E, V> CursorPageVo<V> page(List<E> rows, int limit, Function<E, String> cursorOf, Function<E, V> convert) {
+        boolean hasMore = rows.size() > limit;
+        int size = hasMore ? limit : rows.size();
+        List<V> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(convert.apply(rows.get(i)));
+        }
+        String nextCursor = hasMore ? cursorOf.apply(rows.get(size - 1)) : null;
+        return new CursorPageVo<>(records, nextCursor, hasMore, null, null);
+    }
+}
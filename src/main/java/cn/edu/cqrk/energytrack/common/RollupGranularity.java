@@ -0,0 +1,42 @@
+package cn.edu.cqrk.energytrack.common;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * 读数汇总粒度
+ * 桶边界按服务器本地时区对齐
+ */
+public enum RollupGranularity {
+
+    HOUR,
+    DAY;
+
+    /**
+     * 向下取整到桶起始时间
+     */
+    public Date floor(Date time) {
+        LocalDateTime ldt = LocalDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault());
+        LocalDateTime start = this == HOUR ? ldt.truncatedTo(ChronoUnit.HOURS) : ldt.truncatedTo(ChronoUnit.DAYS);
+        return Date.from(start.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 向上取整到桶起始时间（已对齐时返回自身）
+     */
+    public Date ceil(Date time) {
+        Date floor = floor(time);
+        return floor.equals(time) ? floor : next(floor);
+    }
+
+    /**
+     * 下一个桶的起始时间
+     */
+    public Date next(Date bucketStart) {
+        LocalDateTime ldt = LocalDateTime.ofInstant(bucketStart.toInstant(), ZoneId.systemDefault());
+        LocalDateTime next = this == HOUR ? ldt.plusHours(1) : ldt.plusDays(1);
+        return Date.from(next.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
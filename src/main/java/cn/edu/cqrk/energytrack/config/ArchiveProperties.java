@@ -0,0 +1,18 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 原始读数归档相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.archive")
+public class ArchiveProperties {
+    private boolean enabled = false; // 是否定时将过期的原始读数从 meter_reading 归档到本地段文件
+    private String dir = "data/archive"; // 段文件目录，多节点部署时需为共享存储
+    private int archiveAfterMonths = 6; // 早于“当前月 - 该月数”的整月读数会被归档
+    private String cron = "0 0 3 * * ?"; // 归档任务的 cron 表达式
+}
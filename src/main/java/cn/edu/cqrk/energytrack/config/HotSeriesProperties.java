@@ -0,0 +1,18 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 近期读数内存序列相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.hot-series")
+public class HotSeriesProperties {
+    private boolean enabled = true; // 是否在内存中保留近期读数，近期范围的查询直接读取内存
+    private int days = 7; // 保留最近多少天的读数
+    private boolean warmOnStartup = true; // 启动后在后台线程中一次性加载全部电表的近期读数
+    private String trimInterval = "PT10M"; // 淘汰超出保留天数的读数块的间隔
+}
@@ -0,0 +1,24 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 读数写入相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.ingest")
+public class IngestProperties {
+    private boolean asyncEnabled = false; // 是否启用异步写入（写入缓冲区后即返回）
+    private int queueCapacity = 65536; // 缓冲区容量
+    private int batchSize = 500; // 单次组提交的最大行数
+    private long flushIntervalMs = 200; // 未攒满一批时的最长等待时间（毫秒）
+    private long retryAfterSeconds = 1; // 缓冲区已满时建议客户端重试的等待秒数
+    private int commitRetries = 5; // 组提交失败后的最大重试次数，用尽后写入死信文件
+    private long retryBackoffMs = 200; // 首次重试前的等待时间（毫秒），之后每次翻倍
+    private long retryBackoffMaxMs = 5000; // 重试等待时间上限（毫秒）
+    private String deadLetterDir = "data/ingest-dead-letter"; // 死信文件目录，保存重试用尽的读数，定时重放
+    private long deadLetterReplayIntervalMs = 60000; // 死信文件重放间隔（毫秒）
+}
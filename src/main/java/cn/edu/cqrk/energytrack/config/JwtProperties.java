@@ -10,4 +10,5 @@ import org.springframework.stereotype.Component;
 public class JwtProperties {
     private String secret;
     private long expiration;
+    private int verifiedCacheSize = 1024; // 缓存最近验证通过的令牌数量，0 表示不缓存
 }
\ No newline at end of file
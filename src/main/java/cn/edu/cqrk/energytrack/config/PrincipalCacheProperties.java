@@ -0,0 +1,19 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 认证用户（principal）缓存相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.auth.principal-cache")
+public class PrincipalCacheProperties {
+    private boolean enabled = true; // 是否缓存 JWT 认证时查询到的用户，关闭后每个请求都查询数据库
+    private int maxSize = 10000; // 最多缓存的条目数，超出后淘汰最久未使用的条目
+    private long ttlSeconds = 60; // 条目有效期（秒），多节点未开启 Redis 同步时即为用户变更后的最大延迟
+    private boolean redisSync = false; // 是否通过 Redis 发布/订阅把失效通知广播到其他节点
+    private String channel = "energytrack:principal:invalidate"; // 失效通知使用的 Redis 频道
+}
@@ -0,0 +1,25 @@
+package cn.edu.cqrk.energytrack.config;
+
+import cn.edu.cqrk.energytrack.filter.PrincipalCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 多节点部署时订阅认证用户缓存的失效通知
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "energytrack.auth.principal-cache", name = "redis-sync", havingValue = "true")
+public class PrincipalCacheRedisConfig {
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public PrincipalCacheRedisConfig(RedisMessageListenerContainer container, PrincipalCache principalCache,
+                                     PrincipalCacheProperties properties) {
+        container.addMessageListener(
+                (message, pattern) -> principalCache.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(properties.getChannel()));
+    }
+}
@@ -1,15 +1,26 @@
 package cn.edu.cqrk.energytrack.config;
 
+import cn.edu.cqrk.energytrack.cache.CacheInvalidationBus;
+import cn.edu.cqrk.energytrack.cache.CompactCacheSerializer;
+import cn.edu.cqrk.energytrack.cache.ReadingSeriesCodec;
+import cn.edu.cqrk.energytrack.cache.TwoLevelCacheManager;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class RedisConfig {
@@ -32,10 +43,48 @@ public class RedisConfig {
         return template;
     }
 
-//    @Bean
-//    public RedisCacheConfiguration cacheConfiguration() {
-//        return RedisCacheConfiguration.defaultCacheConfig()
-//                .entryTtl(Duration.ofMinutes(30)) // 缓存 30 分钟过期
-//                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
-//    }
-}
\ No newline at end of file
+    /**
+     * 共享的 Redis 发布/订阅监听容器，各类失效通知都注册在这一个连接上
+     */
+    @Bean
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+
+    /**
+     * 缓存管理器：Redis 作为 L2，按缓存名配置 TTL；启用本地缓存时在前面套一层本地 L1
+     * 读数序列在 Redis 中使用紧凑的列式编码，其余类型仍使用 JDK 序列化
+     */
+    @Bean
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public CacheManager cacheManager(RedisConnectionFactory factory, TwoLevelCacheProperties properties,
+                                     CacheInvalidationBus bus) {
+        RedisCacheConfiguration base = RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader())
+                .entryTtl(Duration.ofSeconds(properties.getTtlSeconds()));
+        if (properties.isCompactCodec()) {
+            JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer(getClass().getClassLoader());
+            CompactCacheSerializer valueSerializer = new CompactCacheSerializer(
+                    Collections.singletonList(new ReadingSeriesCodec(properties.getCompressThreshold())), jdkSerializer);
+            base = base.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+        }
+        RedisCacheConfiguration defaults = base;
+        Map<String, RedisCacheConfiguration> perCache = new HashMap<>();
+        properties.getCaches().forEach((name, spec) -> {
+            if (spec.getTtlSeconds() != null) {
+                perCache.put(name, defaults.entryTtl(Duration.ofSeconds(spec.getTtlSeconds())));
+            }
+        });
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory)
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(perCache)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        if (!properties.isLocalEnabled()) {
+            return redisCacheManager;
+        }
+        return new TwoLevelCacheManager(redisCacheManager, properties, bus);
+    }
+}
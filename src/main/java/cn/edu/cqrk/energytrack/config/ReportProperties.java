@@ -0,0 +1,30 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 报表模板相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.report")
+public class ReportProperties {
+    private boolean hotReload = false; // 模板文件修改后是否自动重新编译（仅对文件系统中的模板生效，用于开发环境）
+    private List<String> preload = new ArrayList<>(); // 启动时预编译的模板名称（不含扩展名）
+    private int jobWorkers = 2; // 异步报表任务的工作线程数
+    private int jobQueueCapacity = 20; // 等待执行的报表任务上限，超出时返回 429
+    private String spoolDir = System.getProperty("java.io.tmpdir") + "/energytrack-reports"; // 报表结果落盘目录
+    private long resultTtlMinutes = 60; // 报表结果保留时间（分钟），过期后删除文件
+    private int virtualizerMaxPages = 50; // 大报表模式下内存中保留的最大页数，其余页面换出到交换文件
+    private int aggregateMaxMeters = 5000; // 多电表用电量汇总一次最多包含的电表数
+    private int aggregateParallelism = 4; // 多电表汇总中需要逐个电表计算（含已归档读数）时的并行线程数
+    private int bulkMaxMeters = 2000; // 批量读数报表一次最多包含的电表数
+    private int bulkParallelism = 4; // 批量读数报表并行填充的线程数，不超过数据库连接池大小
+    private int bulkMaxConcurrent = 2; // 本节点同时生成的批量读数报表请求数上限，超出时返回 429
+    private String swapDir = System.getProperty("java.io.tmpdir") + "/energytrack-swap"; // 大报表模式的交换文件目录
+}
@@ -0,0 +1,15 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 读数汇总相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.rollup")
+public class RollupProperties {
+    private boolean queryEnabled = false; // 用电量等查询是否从汇总表读取，已有历史数据时须先调用重建接口回填后再开启
+}
@@ -0,0 +1,20 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 数据库结构迁移与读数表分区相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.schema")
+public class SchemaProperties {
+    private boolean migrateEnabled = true; // 启动时是否执行 classpath:db/migration 下未执行的迁移脚本
+    private boolean partitioningEnabled = false; // 是否将 meter_reading 按月分区（同时执行 classpath:db/partition 下的脚本）
+    private int partitionMonthsAhead = 3; // 提前创建的未来月份分区数
+    private int retentionMonths = 0; // 读数保留月数，超期的分区整体删除，0 表示不删除
+    private String partitionCron = "0 30 2 * * ?"; // 分区维护（新建未来分区、删除超期分区）的 cron 表达式
+    private boolean verifyPlans = false; // 启动后是否对热点查询执行 EXPLAIN，未走预期索引时告警（会额外执行几条 EXPLAIN，默认关闭）
+}
@@ -0,0 +1,23 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用电突增检测相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.surge")
+public class SurgeProperties {
+    private long windowMinutes = 60; // 比较窗口（分钟），只与窗口内更早的读数比较
+    private double ratio = 3.0; // 区间用电速率超过窗口内基准速率的倍数即判定为突增
+    private int scanParallelism = 4; // 全量扫描的并行线程数，不应超过数据库连接池大小
+    private int partitionSize = 200; // 每个分区包含的电表数，每个分区只执行一次范围查询
+    private String scanCron = "-"; // 定时全量扫描的 cron 表达式，"-" 表示不启用
+    private int scanLookbackHours = 24; // 定时扫描回看的小时数
+    private int maxSurgeTimes = 20; // 每个电表最多返回的突增时间点数量
+    private boolean liveEnabled = true; // 是否在读数写入时实时检测突增
+    private int recentEvents = 100; // 内存中保留的最近实时突增事件数
+}
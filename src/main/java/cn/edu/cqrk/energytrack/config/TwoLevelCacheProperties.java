@@ -0,0 +1,33 @@
+package cn.edu.cqrk.energytrack.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 两级缓存（本地 L1 + Redis L2）相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "energytrack.cache")
+public class TwoLevelCacheProperties {
+    private boolean localEnabled = true; // 是否在 Redis 前启用本地缓存，关闭后直接使用 Redis
+    private String channel = "energytrack:cache:invalidate"; // 跨节点失效通知使用的 Redis 频道
+    private long ttlSeconds = 1800; // Redis 中条目的默认有效期（秒）
+    private long localTtlSeconds = 60; // 本地条目的默认有效期（秒），失效通知丢失时的最大延迟
+    private long localMaxWeight = 10000; // 每个缓存本地条目的默认最大权重（约等于缓存的记录条数）
+    private long generationLocalTtlSeconds = 5; // 本地缓存代数标签的有效期（秒）
+    private boolean compactCodec = true; // Redis 中的读数序列是否使用紧凑二进制编码，关闭后全部使用 JDK 序列化
+    private int compressThreshold = 4096; // 紧凑编码结果超过该字节数时再做 Deflate 压缩，0 表示不压缩
+    private Map<String, CacheSpec> caches = new HashMap<>(); // 按缓存名覆盖以上默认值
+
+    @Data
+    public static class CacheSpec {
+        private Long ttlSeconds; // Redis 有效期（秒）
+        private Long localTtlSeconds; // 本地有效期（秒）
+        private Long localMaxWeight; // 本地最大权重
+    }
+}
@@ -4,16 +4,26 @@ import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.common.R;
 import cn.edu.cqrk.energytrack.entity.dto.*;
 import cn.edu.cqrk.energytrack.entity.pojo.ElectricityReport;
+import cn.edu.cqrk.energytrack.entity.vo.ConsumptionAggregateVo;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.vo.ElectricityReportVo;
+import cn.edu.cqrk.energytrack.entity.vo.ReportJobVo;
+import cn.edu.cqrk.energytrack.entity.vo.SurgeEventVo;
+import cn.edu.cqrk.energytrack.entity.vo.SurgeScanVo;
 import cn.edu.cqrk.energytrack.service.ElectricityReportService;
 import cn.edu.cqrk.energytrack.service.MeterReadingService;
 import cn.edu.cqrk.energytrack.service.MeterService;
+import cn.edu.cqrk.energytrack.service.ReportJobService;
+import cn.edu.cqrk.energytrack.service.SurgeScanService;
+import cn.edu.cqrk.energytrack.surge.SurgeMonitor;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import net.sf.jasperreports.engine.JRException;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,6 +32,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.net.URLEncoder;
 import java.util.HashMap;
@@ -37,6 +50,18 @@ public class ElectricityReportController {
     @Autowired
     private ElectricityReportService electricityReportService;
 
+    // 异步报表任务服务
+    @Autowired
+    private ReportJobService reportJobService;
+
+    // 全量突增扫描服务
+    @Autowired
+    private SurgeScanService surgeScanService;
+
+    // 写入时实时突增检测
+    @Autowired
+    private SurgeMonitor surgeMonitor;
+
     // 使用构造函数注入 MeterReadingService，用于生成读表报告
     private final MeterReadingService meterReadingService;
     public ElectricityReportController(MeterReadingService meterReadingService) {
@@ -87,6 +112,29 @@ public class ElectricityReportController {
         return R.success(voList);
     }
 
+    /**
+     * 按搜索条件导出报表为 Excel（xlsx）
+     * 报表逐行从数据库流式写入工作表，适合大量报表的导出，替代逐页调用分页查询
+     * @param dto 搜索条件，与报表搜索相同
+     * @param response HTTP 响应
+     * @throws IOException 写出响应失败时抛出
+     */
+    @GetMapping("/export")
+    public void exportReports(@Validated ElectricityReportSearchDto dto, HttpServletResponse response) throws IOException {
+        electricityReportService.exportReports(dto, response);
+    }
+
+    /**
+     * 汇总多个电表在时间段内的用电量（楼栋、园区合计）
+     * 电表可按ID列表（meterIds=1,2,3）、安装位置前缀、电表类型筛选，结束时间包含在内
+     * @param dto 筛选条件和时间范围
+     * @return 各电表用电量及合计
+     */
+    @GetMapping("/consumption/aggregate")
+    public R<ConsumptionAggregateVo> aggregateConsumption(@Validated ConsumptionAggregateDto dto) {
+        return R.success(electricityReportService.aggregateConsumption(dto));
+    }
+
     /**
      * 分页获取所有电量报表（带缓存）
      * @param page 页码
@@ -94,7 +142,7 @@ public class ElectricityReportController {
      * @return 分页后的报表列表
      */
     @GetMapping("/findAllReports")
-    @Cacheable(value = "electricityReports", key = "'page:' + #page + ':limit:' + #limit")
+    @Cacheable(value = "electricityReports", key = "'page:' + @cacheGenerations.tag('electricityReports', 'all') + ':' + #page + ':limit:' + #limit")
     public R<IPage<ElectricityReportVo>> findAllReports(@RequestParam(defaultValue = "1") int page,
                                                         @RequestParam(defaultValue = "10") int limit) {
         IPage<ElectricityReport> reportPage = new Page<>(page, limit);
@@ -115,6 +163,20 @@ public class ElectricityReportController {
         return R.success(voPage);
     }
 
+    /**
+     * 游标分页查询报表，按报表编号升序
+     * @param cursor 上一页返回的 nextCursor，第一页不传
+     * @param limit 每页条数，最多 500
+     * @param withTotal 是否返回总条数
+     * @return 分页结果，nextCursor 为空表示没有更多数据
+     */
+    @GetMapping("/list")
+    public R<CursorPageVo<ElectricityReportVo>> listReports(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "10") int limit,
+                                                           @RequestParam(defaultValue = "false") boolean withTotal) {
+        return R.success(electricityReportService.listReports(cursor, limit, withTotal));
+    }
+
     /**
      * 下载指定时间范围内某个电表的读表 PDF 报告（仅管理员可访问）
      * @param meterId 电表ID
@@ -152,6 +214,82 @@ public class ElectricityReportController {
         }
     }
 
+    /**
+     * 大报表模式下载读表 PDF 报告
+     * 读数通过数据库游标填充、已填充页面换出到交换文件，PDF 直接写入响应流，适合跨度很长的时间范围
+     * @param meterId 电表ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param response HTTP 响应
+     * @throws JRException 生成报表失败时抛出
+     * @throws IOException 写出响应失败时抛出
+     */
+    @GetMapping("/report/stream")
+    public void streamReadingReport(@RequestParam("meterId") Integer meterId,
+                                    @RequestParam("startTime") String startTime,
+                                    @RequestParam("endTime") String endTime,
+                                    HttpServletResponse response) throws JRException, IOException {
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=" + URLEncoder.encode("meter_reading_report.pdf", StandardCharsets.UTF_8.name()));
+        meterReadingService.writeReadingReport(meterId, startTime, endTime, response.getOutputStream());
+    }
+
+    /**
+     * 批量下载一组电表的读表 PDF 报告，打包为 ZIP
+     * 电表可按ID列表（meterIds=1,2,3）、安装位置前缀、电表类型筛选，结束时间包含在内；
+     * 各电表报表并行生成、完成一个写出一个，生成失败的电表列在 ZIP 中的 errors.txt
+     * @param dto 筛选条件和时间范围
+     * @param response HTTP 响应
+     * @throws IOException 写出响应失败时抛出
+     */
+    @GetMapping("/report/bulk")
+    public void downloadBulkReadingReports(@Validated ReadingReportBulkDto dto, HttpServletResponse response) throws IOException {
+        meterReadingService.writeBulkReadingReports(dto, response);
+    }
+
+    /**
+     * 提交异步报表生成任务，立即返回任务编号
+     * 相同电表和时间范围的重复提交会返回同一个未完成的任务
+     * @param meterId 电表ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 任务信息
+     */
+    @PostMapping("/report/jobs")
+    public R<ReportJobVo> submitReportJob(@RequestParam("meterId") Integer meterId,
+                                          @RequestParam("startTime") String startTime,
+                                          @RequestParam("endTime") String endTime) {
+        return R.success(reportJobService.submit(meterId, startTime, endTime));
+    }
+
+    /**
+     * 查询异步报表任务状态
+     * @param jobId 任务编号
+     * @return 任务信息
+     */
+    @GetMapping("/report/jobs/{jobId}")
+    public R<ReportJobVo> getReportJob(@PathVariable("jobId") String jobId) {
+        return R.success(reportJobService.getJob(jobId));
+    }
+
+    /**
+     * 下载已完成的异步报表，文件直接从磁盘流式输出
+     * @param jobId 任务编号
+     * @return PDF 文件
+     * @throws java.io.UnsupportedEncodingException 文件名编码失败时抛出
+     */
+    @GetMapping("/report/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadReportJob(@PathVariable("jobId") String jobId)
+            throws java.io.UnsupportedEncodingException {
+        File file = reportJobService.getResultFile(jobId);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment",
+                URLEncoder.encode("meter_reading_report.pdf", StandardCharsets.UTF_8.name()));
+        return new ResponseEntity<>(new FileSystemResource(file), headers, HttpStatus.OK);
+    }
+
     /**
      * 检测指定电表在时间段内是否存在用电突增
      * @param meterId 电表ID
@@ -168,6 +306,36 @@ public class ElectricityReportController {
         return R.success(surgeDetected);
     }
 
+    /**
+     * 并行扫描全部电表在时间段内的用电突增
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 存在突增的电表列表（按突增次数、最大幅度排序）及扫描耗时
+     */
+    @GetMapping("/surge-detection/fleet")
+    public R<SurgeScanVo> scanFleetSurge(@RequestParam("startTime") String startTime,
+                                         @RequestParam("endTime") String endTime) {
+        return R.success(surgeScanService.scan(startTime, endTime));
+    }
+
+    /**
+     * 获取最近一次定时全量突增扫描的结果
+     * @return 扫描结果，尚未执行过定时扫描时为空
+     */
+    @GetMapping("/surge-detection/fleet/latest")
+    public R<SurgeScanVo> latestFleetSurge() {
+        return R.success(surgeScanService.getLatest());
+    }
+
+    /**
+     * 获取读数写入时实时检测到的最近突增事件
+     * @return 突增事件列表，最新的在前
+     */
+    @GetMapping("/surge-detection/live")
+    public R<List<SurgeEventVo>> liveSurgeEvents() {
+        return R.success(surgeMonitor.recentEvents());
+    }
+
     // 定义内部类用于统一错误返回结构
     private static class ErrorResponse {
         private String message;
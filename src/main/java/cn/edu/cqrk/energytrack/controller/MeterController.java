@@ -5,6 +5,7 @@ import cn.edu.cqrk.energytrack.common.BizExceptionCode;
 import cn.edu.cqrk.energytrack.common.R;
 import cn.edu.cqrk.energytrack.entity.dto.*;
 import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.vo.MeterVo;
 import cn.edu.cqrk.energytrack.service.MeterService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -80,7 +81,7 @@ public class MeterController {
      * @return 分页后的电表VO列表
      */
     @GetMapping("/findAll")
-    @Cacheable(value = "meters", key = "'page:' + #page + ':limit:' + #limit")
+    @Cacheable(value = "meters", key = "'page:' + @cacheGenerations.tag('meters', 'all') + ':' + #page + ':limit:' + #limit")
     public R<IPage<MeterVo>> findAllMeters(@RequestParam(defaultValue = "1") long page,
                                            @RequestParam(defaultValue = "10") long limit) {
         IPage<Meter> meterPage = new Page<>(page, limit);
@@ -96,6 +97,20 @@ public class MeterController {
         return R.success(voPage);
     }
 
+    /**
+     * 游标分页查询电表，按电表ID升序
+     * @param cursor 上一页返回的 nextCursor，第一页不传
+     * @param limit 每页条数，最多 500
+     * @param withTotal 是否返回总条数
+     * @return 分页结果，nextCursor 为空表示没有更多数据
+     */
+    @GetMapping("/list")
+    public R<CursorPageVo<MeterVo>> listMeters(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "10") int limit,
+                                               @RequestParam(defaultValue = "false") boolean withTotal) {
+        return R.success(meterService.listMeters(cursor, limit, withTotal));
+    }
+
     /**
      * 校验指定ID的电表是否存在
      * 可用于前端校验或业务逻辑判断
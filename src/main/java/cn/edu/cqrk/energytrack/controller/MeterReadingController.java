@@ -1,10 +1,23 @@
 package cn.edu.cqrk.energytrack.controller;
 
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.cache.DictionaryRegistry;
+import cn.edu.cqrk.energytrack.cache.MeterIdIndex;
 import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.ExportFormat;
+import cn.edu.cqrk.energytrack.common.RollupGranularity;
 import cn.edu.cqrk.energytrack.common.R;
+import cn.edu.cqrk.energytrack.entity.dto.MeterReadingBatchDto;
 import cn.edu.cqrk.energytrack.entity.dto.MeterReadingDto;
 import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
+import cn.edu.cqrk.energytrack.entity.vo.IngestStatsVo;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingBatchVo;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingRollupVo;
 import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import cn.edu.cqrk.energytrack.ingest.MeterReadingWriteBuffer;
+import cn.edu.cqrk.energytrack.series.HotSeriesStore;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
 import cn.edu.cqrk.energytrack.service.MeterReadingService;
 import cn.edu.cqrk.energytrack.service.MeterService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -12,9 +25,8 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import net.sf.jasperreports.engine.JRException;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -23,21 +35,34 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/meter/reading")
 public class MeterReadingController {
 
+    // 匹配 meter 表本身（不含 meter_reading 等）
+    private static final Pattern METER_TABLE = Pattern.compile("\\bMETER\\b");
+
     @Autowired
     private MeterReadingService meterReadingService;
 
+    @Autowired
+    private MeterReadingWriteBuffer writeBuffer;
+
+    @Autowired
+    private MeterReadingRollupService rollupService;
+
     /**
      * 添加电表读数
      * @param dto 读数提交数据
@@ -49,22 +74,106 @@ public class MeterReadingController {
         return R.success(vo);
     }
 
+    /**
+     * 批量添加电表读数
+     * 校验失败的行不会写入，并在返回结果中逐行说明原因
+     * @param dto 批量读数提交数据
+     * @return 批量写入结果
+     */
+    @PostMapping("/batch")
+    public R<MeterReadingBatchVo> addBatch(@RequestBody @Validated MeterReadingBatchDto dto) {
+        MeterReadingBatchVo vo = meterReadingService.addBatch(dto);
+        return R.success(vo);
+    }
+
+    /**
+     * 查询异步写入缓冲区的运行指标（队列深度、组提交耗时等）
+     * @return 写入缓冲区统计信息
+     */
+    @GetMapping("/ingest/stats")
+    public R<IngestStatsVo> ingestStats() {
+        return R.success(writeBuffer.stats());
+    }
+
     /**
      * 查询指定电表在某个时间段内的读数列表
+     * 传入 maxPoints 或 bucket 时在服务端降采样，返回点数有上限，适合长时间范围的图表
      * @param meterId 电表ID
      * @param startTime 起始时间（格式：yyyy-MM-dd 或 yyyy-MM-dd HH:mm:ss）
      * @param endTime 结束时间
+     * @param maxPoints 最多返回的点数（LTTB 选点），可选
+     * @param bucket 按时间间隔求平均值，如 5m、1h、1d，可选
      * @return 满足条件的读数VO列表
      */
     @GetMapping("/readings")
     public R<List<MeterReadingVo>> getReadingsByMeterId(
             @RequestParam Integer meterId,
             @RequestParam String startTime,
-            @RequestParam String endTime) {
+            @RequestParam String endTime,
+            @RequestParam(required = false) Integer maxPoints,
+            @RequestParam(required = false) String bucket) {
+        if (maxPoints != null || (bucket != null && !bucket.isEmpty())) {
+            return R.success(meterReadingService.getDownsampledReadings(meterId, startTime, endTime, maxPoints, bucket));
+        }
         List<MeterReadingVo> voList = meterReadingService.getReadingsByMeterId(meterId, startTime, endTime);
         return R.success(voList);
     }
 
+    /**
+     * 查询指定电表按小时或按天汇总的读数（首末值、极值、条数、增量），用于长时间范围的图表展示
+     * @param meterId 电表ID
+     * @param startTime 起始时间（yyyy-MM-dd HH:mm:ss）
+     * @param endTime 结束时间（yyyy-MM-dd HH:mm:ss）
+     * @param granularity 汇总粒度 HOUR/DAY，默认 HOUR
+     * @return 汇总桶列表
+     */
+    @GetMapping("/rollups")
+    public R<List<MeterReadingRollupVo>> getRollups(
+            @RequestParam Integer meterId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") Date startTime,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") Date endTime,
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity) {
+        return R.success(rollupService.listBuckets(meterId, granularity, startTime, endTime));
+    }
+
+    /**
+     * 按原始读数重建指定电表在时间范围内的汇总桶
+     * 用于历史数据回填，或通过 executeSql 直接修改读数之后的修正
+     * @param meterId 电表ID
+     * @param startTime 起始时间（yyyy-MM-dd HH:mm:ss）
+     * @param endTime 结束时间（yyyy-MM-dd HH:mm:ss）
+     * @return 执行结果
+     */
+    @PostMapping("/rollups/rebuild")
+    public R<String> rebuildRollups(
+            @RequestParam Integer meterId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") Date startTime,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") Date endTime) {
+        rollupService.rebuild(meterId, startTime, endTime);
+        return R.success("重建成功");
+    }
+
+    /**
+     * 流式导出电表读数（CSV、NDJSON、XLSX 或 GORILLA 二进制分块，可选 gzip 压缩）
+     * 数据逐行从数据库游标写入响应，适合百万级读数的对账导出
+     * @param meterId 电表ID，不传时导出全部电表
+     * @param startTime 起始时间（格式：yyyy-MM-dd 或 yyyy-MM-dd HH:mm:ss）
+     * @param endTime 结束时间
+     * @param format 导出格式 CSV/NDJSON/XLSX/GORILLA，默认 CSV
+     * @param gzip 是否输出 gzip 压缩文件（XLSX 忽略）
+     * @param response HTTP 响应
+     * @throws IOException 写出响应失败时抛出
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(required = false) Integer meterId,
+                       @RequestParam String startTime,
+                       @RequestParam String endTime,
+                       @RequestParam(defaultValue = "CSV") ExportFormat format,
+                       @RequestParam(defaultValue = "false") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        meterReadingService.exportReadings(meterId, startTime, endTime, format, gzip, response);
+    }
+
     /**
      * 更新电表读数
      * @param dto 读数信息 DTO
@@ -110,6 +219,21 @@ public class MeterReadingController {
         return R.success(voPage);
     }
 
+    /**
+     * 游标分页查询读数记录，按读数时间倒序
+     * 按上一页最后一条的位置定位下一页，翻到多深代价都相同，深分页请使用本接口代替 /findAll
+     * @param cursor 上一页返回的 nextCursor，第一页不传
+     * @param limit 每页条数，最多 500
+     * @param withTotal 是否返回总条数（估算值）
+     * @return 分页结果，nextCursor 为空表示没有更多数据
+     */
+    @GetMapping("/list")
+    public R<CursorPageVo<MeterReadingVo>> listReadings(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "10") int limit,
+                                                        @RequestParam(defaultValue = "false") boolean withTotal) {
+        return R.success(meterReadingService.listReadings(cursor, limit, withTotal));
+    }
+
     // ========================== SQL 执行相关（仅供管理员或测试用） ===========================
 
     @Autowired
@@ -117,8 +241,16 @@ public class MeterReadingController {
     private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
-    private CacheManager cacheManager;
+    private CacheGenerations cacheGenerations;
+
+    @Autowired
+    private DictionaryRegistry dictionaryRegistry;
+
+    @Autowired
+    private MeterIdIndex meterIdIndex;
+
+    @Autowired
+    private HotSeriesStore hotSeriesStore;
 
     /**
      * 执行SQL语句（仅支持 INSERT/UPDATE/DELETE）
@@ -132,10 +264,18 @@ public class MeterReadingController {
         try {
             jdbcTemplate.batchUpdate(sql.split("\n"));
 
-            // 清理缓存（暂为全量清理，可优化为按key清理）
-            Cache cache = cacheManager.getCache("meterReadings");
-            if (cache != null && shouldClearCache(sql)) {
-                cache.clear();
+            // 任意 SQL 无法确定影响了哪些电表，递增命名空间纪元使全部读数缓存失效，并丢弃近期读数内存序列
+            if (shouldClearCache(sql)) {
+                cacheGenerations.bumpAll(CacheGenerations.METER_READINGS);
+                hotSeriesStore.invalidateAll();
+            }
+            // 字典表很少修改，涉及时直接重新加载
+            if (sql.contains("DICT_")) {
+                dictionaryRegistry.refresh();
+            }
+            // 直接增删电表后重建电表ID索引
+            if (METER_TABLE.matcher(sql).find()) {
+                meterIdIndex.rebuild();
             }
             return R.success("执行成功");
         } catch (Exception e) {
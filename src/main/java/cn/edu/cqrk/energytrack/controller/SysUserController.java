@@ -1,23 +1,30 @@
 package cn.edu.cqrk.energytrack.controller;
 
+import cn.edu.cqrk.energytrack.cache.TwoLevelCacheManager;
 import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.common.BizExceptionCode;
 import cn.edu.cqrk.energytrack.common.JwtUtil;
 import cn.edu.cqrk.energytrack.common.R;
 import cn.edu.cqrk.energytrack.entity.dto.*;
 import cn.edu.cqrk.energytrack.entity.pojo.SysUser;
+import cn.edu.cqrk.energytrack.entity.vo.CacheStatsVo;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
+import cn.edu.cqrk.energytrack.entity.vo.PrincipalCacheStatsVo;
 import cn.edu.cqrk.energytrack.entity.vo.SysUserVo;
+import cn.edu.cqrk.energytrack.filter.PrincipalCache;
 import cn.edu.cqrk.energytrack.service.SysUserService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +43,12 @@ public class SysUserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     /**
      * 用户注册
      * @param dto 注册数据
@@ -136,6 +149,44 @@ public class SysUserController {
         return R.success(voPage);
     }
 
+    /**
+     * 游标分页查询用户，按用户ID升序（管理员权限）
+     * @param cursor 上一页返回的 nextCursor，第一页不传
+     * @param limit 每页条数，最多 500
+     * @param withTotal 是否返回总条数
+     * @return 分页结果，nextCursor 为空表示没有更多数据
+     */
+    @GetMapping("/list")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public R<CursorPageVo<SysUserVo>> listUsers(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "10") int limit,
+                                                @RequestParam(defaultValue = "false") boolean withTotal) {
+        return R.success(sysUserService.listUsers(cursor, limit, withTotal));
+    }
+
+    /**
+     * 查询认证用户缓存的命中率等指标（仅管理员可访问）
+     * @return 缓存统计信息
+     */
+    @GetMapping("/principal-cache/stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public R<PrincipalCacheStatsVo> principalCacheStats() {
+        return R.success(principalCache.stats());
+    }
+
+    /**
+     * 查询两级缓存各缓存的本地/Redis 命中情况（仅管理员可访问）
+     * @return 缓存统计信息，未启用本地缓存时为空列表
+     */
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public R<List<CacheStatsVo>> cacheStats() {
+        if (cacheManager instanceof TwoLevelCacheManager) {
+            return R.success(((TwoLevelCacheManager) cacheManager).stats());
+        }
+        return R.success(new ArrayList<>());
+    }
+
     /**
      * 获取当前登录用户信息
      * @return 当前用户的 VO 信息
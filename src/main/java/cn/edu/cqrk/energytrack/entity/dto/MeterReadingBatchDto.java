@@ -0,0 +1,13 @@
+package cn.edu.cqrk.energytrack.entity.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class MeterReadingBatchDto implements Serializable {
+    @NotEmpty(message = "读数列表不能为空")
+    private List<MeterReadingDto> readings; // 批量读数，逐条校验，不在此处做级联校验以便返回逐行错误
+}
@@ -0,0 +1,15 @@
+package cn.edu.cqrk.energytrack.entity.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class ReadingReportBulkDto implements Serializable {
+    private List<Integer> meterIds; // 电表ID列表
+    private String locationPrefix; // 安装位置前缀，如楼栋编号
+    private String meterType; // 电表类型
+    private String startTime; // 开始时间(yyyy-MM-dd HH:mm:ss)
+    private String endTime; // 结束时间(yyyy-MM-dd HH:mm:ss)，包含在内
+}
@@ -0,0 +1,55 @@
+package cn.edu.cqrk.energytrack.entity.pojo;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Data
+@TableName("meter_reading_rollup")
+public class MeterReadingRollup implements Serializable {
+
+    @TableId(value = "rollup_id", type = IdType.AUTO)
+    private Long rollupId; // 汇总编号
+
+    @TableField("meter_id")
+    private Integer meterId; // 电表编号
+
+    @TableField("bucket_type")
+    private String bucketType; // 汇总粒度（HOUR/DAY）
+
+    @TableField("bucket_start")
+    private Date bucketStart; // 桶起始时间
+
+    @TableField("first_time")
+    private Date firstTime; // 桶内首条读数时间
+
+    @TableField("first_value")
+    private BigDecimal firstValue; // 桶内首条读数
+
+    @TableField("last_time")
+    private Date lastTime; // 桶内末条读数时间
+
+    @TableField("last_value")
+    private BigDecimal lastValue; // 桶内末条读数
+
+    @TableField("min_value")
+    private BigDecimal minValue; // 桶内最小读数
+
+    @TableField("max_value")
+    private BigDecimal maxValue; // 桶内最大读数
+
+    @TableField("reading_count")
+    private Integer readingCount; // 桶内读数条数
+
+    @TableField("delta_value")
+    private BigDecimal deltaValue; // 桶内增量（末条 - 首条）
+
+    @TableField("update_time")
+    private Date updateTime; // 更新时间
+}
@@ -0,0 +1,20 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsVo implements Serializable {
+    private String name; // 缓存名
+    private Long localHits; // 本地命中次数
+    private Long remoteHits; // Redis 命中次数
+    private Long misses; // 两级均未命中次数
+    private Double localHitRate; // 本地命中率
+    private Integer localSize; // 本地条目数
+    private Long localWeight; // 本地条目总权重
+}
@@ -0,0 +1,23 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionAggregateVo implements Serializable {
+    private Date startTime; // 开始时间
+    private Date endTime; // 结束时间
+    private Integer meterCount; // 匹配的电表数
+    private Integer measuredCount; // 读数足够、计入合计的电表数
+    private BigDecimal totalConsumption; // 合计用电量
+    private Long elapsedMs; // 计算耗时（毫秒）
+    private List<MeterConsumptionVo> meters; // 各电表用电量，按电表ID升序
+}
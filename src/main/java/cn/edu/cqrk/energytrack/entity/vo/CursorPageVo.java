@@ -0,0 +1,19 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageVo<T> implements Serializable {
+    private List<T> records; // 本页记录
+    private String nextCursor; // 下一页游标，没有更多数据时为空
+    private Boolean hasMore; // 是否还有下一页
+    private Long total; // 总条数，仅在请求时返回
+    private Boolean totalEstimated; // 总条数是否为估算值
+}
@@ -0,0 +1,27 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestStatsVo implements Serializable {
+    private Boolean asyncEnabled; // 是否启用异步写入
+    private Integer queueDepth; // 当前排队条数
+    private Integer queueCapacity; // 缓冲区容量
+    private Long acceptedCount; // 累计接收条数
+    private Long rejectedCount; // 因缓冲区已满被拒绝的条数
+    private Long committedCount; // 累计写入数据库条数
+    private Long failedCount; // 写入失败且未能保存到死信文件的条数
+    private Long retriedBatches; // 组提交失败后重试的次数
+    private Long deadLetterCount; // 死信文件中等待重放的条数
+    private Long quarantinedCount; // 因数据错误无法写入、隔离到 .failed 文件的条数
+    private Long commitBatches; // 组提交次数
+    private Long lastCommitLatencyMs; // 最近一次组提交耗时（毫秒）
+    private Long maxCommitLatencyMs; // 组提交最大耗时（毫秒）
+    private Double avgCommitLatencyMs; // 组提交平均耗时（毫秒）
+}
@@ -0,0 +1,22 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeterConsumptionVo implements Serializable {
+    private Integer meterId; // 电表编号
+    private String meterLocation; // 安装位置
+    private Date firstTime; // 范围内第一条读数时间
+    private BigDecimal firstValue; // 范围内第一条读数
+    private Date lastTime; // 范围内最后一条读数时间
+    private BigDecimal lastValue; // 范围内最后一条读数
+    private BigDecimal consumption; // 用电量（最后读数 - 第一条读数），读数不足两条时为空
+}
@@ -0,0 +1,32 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeterReadingBatchVo implements Serializable {
+    private Integer total; // 提交条数
+    private Integer successCount; // 成功写入条数
+    private Integer failCount; // 校验失败条数
+    private List<RowError> errors = new ArrayList<>(); // 逐行错误信息
+
+    /**
+     * 单行校验失败信息
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError implements Serializable {
+        private Integer index; // 在请求列表中的下标（从0开始）
+        private Integer meterId; // 电表编号
+        private Integer code; // 错误码
+        private String message; // 错误描述
+    }
+}
@@ -0,0 +1,26 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeterReadingRollupVo implements Serializable {
+    private Integer meterId; // 电表编号
+    private String bucketType; // 汇总粒度（HOUR/DAY）
+    private Date bucketStart; // 桶起始时间
+    private Date firstTime; // 桶内首条读数时间
+    private BigDecimal firstValue; // 桶内首条读数
+    private Date lastTime; // 桶内末条读数时间
+    private BigDecimal lastValue; // 桶内末条读数
+    private BigDecimal minValue; // 桶内最小读数
+    private BigDecimal maxValue; // 桶内最大读数
+    private Integer readingCount; // 桶内读数条数
+    private BigDecimal deltaValue; // 桶内增量（末条 - 首条）
+}
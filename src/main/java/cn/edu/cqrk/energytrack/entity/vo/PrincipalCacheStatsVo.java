@@ -0,0 +1,21 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrincipalCacheStatsVo implements Serializable {
+    private Boolean enabled; // 是否启用缓存
+    private Integer size; // 当前缓存条目数
+    private Integer maxSize; // 最大条目数
+    private Long hitCount; // 命中次数
+    private Long missCount; // 未命中次数（含过期）
+    private Double hitRate; // 命中率
+    private Long evictionCount; // 因容量淘汰的条目数
+    private Long invalidationCount; // 因用户变更失效的次数
+}
@@ -0,0 +1,23 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobVo implements Serializable {
+    private String jobId; // 任务编号
+    private Integer meterId; // 电表编号
+    private String startTime; // 报表起始时间
+    private String endTime; // 报表结束时间
+    private String status; // 任务状态（PENDING/RUNNING/SUCCESS/FAILED）
+    private String errorMessage; // 失败原因
+    private Long fileSize; // 结果文件大小（字节）
+    private Date createTime; // 提交时间
+    private Date finishTime; // 完成时间
+}
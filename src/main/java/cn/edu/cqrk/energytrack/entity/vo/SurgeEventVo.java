@@ -0,0 +1,18 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurgeEventVo implements Serializable {
+    private Integer meterId; // 电表编号
+    private Date readingTime; // 触发突增的读数时间
+    private Double rate; // 突增区间用电速率（每小时）
+    private Double baseline; // 窗口内基准用电速率（每小时）
+}
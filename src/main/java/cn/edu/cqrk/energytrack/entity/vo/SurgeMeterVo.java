@@ -0,0 +1,21 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurgeMeterVo implements Serializable {
+    private Integer meterId; // 电表编号
+    private Integer surgeCount; // 突增次数
+    private Double peakIncrease; // 最大突增幅度（区间用电速率相对窗口内基准速率的增量，每小时）
+    private Date peakTime; // 最大突增发生时间
+    private List<Date> surgeTimes = new ArrayList<>(); // 突增发生时间（最多返回配置的条数）
+}
@@ -0,0 +1,23 @@
+package cn.edu.cqrk.energytrack.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurgeScanVo implements Serializable {
+    private Date startTime; // 扫描起始时间
+    private Date endTime; // 扫描结束时间
+    private Integer meterCount; // 参与扫描的电表数
+    private Long readingCount; // 扫描的读数条数
+    private Integer partitionCount; // 分区数
+    private Long elapsedMs; // 扫描耗时（毫秒）
+    private Date scanTime; // 扫描完成时间
+    private List<SurgeMeterVo> meters; // 存在突增的电表，按突增次数、最大幅度降序
+}
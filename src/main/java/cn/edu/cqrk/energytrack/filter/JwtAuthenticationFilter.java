@@ -31,12 +31,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter { // 继承 On
     private final JwtUtil jwtUtil; // 注入 JWT 工具类，用于 JWT 的生成和解析
     private final ObjectMapper objectMapper; // 注入 Jackson 的 ObjectMapper，用于将错误信息序列化为 JSON 响应
     private final SysUserMapper sysUserMapper; // 注入 SysUserMapper，用于从数据库中查询用户信息
+    private final PrincipalCache principalCache; // 注入认证用户缓存，减少每个请求的数据库查询
 
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection") // 抑制 Spring 在构造器注入时可能出现的警告
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, ObjectMapper objectMapper, SysUserMapper sysUserMapper) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, ObjectMapper objectMapper, SysUserMapper sysUserMapper,
+                                   PrincipalCache principalCache) {
         this.jwtUtil = jwtUtil;
         this.objectMapper = objectMapper;
         this.sysUserMapper = sysUserMapper;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -53,10 +56,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter { // 继承 On
                 logger.debug("解析后的 Claims: {}", claims); // 记录解析后的 JWT 声明信息
 
                 String username = claims.getSubject(); // 从 JWT 的声明信息中获取主题 (subject)，通常存储的是用户名
-                SysUser user = sysUserMapper.selectByUsername(username); // 使用 SysUserMapper 根据用户名从数据库中查询用户信息
+                long issuedAt = claims.getIssuedAt() == null ? 0L : claims.getIssuedAt().getTime(); // 令牌签发时间，与用户名一起作为缓存键
+                SysUser user = principalCache.get(username, issuedAt); // 优先从认证用户缓存中获取，避免每个请求都查询数据库
+                if (user == null) {
+                    user = sysUserMapper.selectByUsername(username); // 缓存未命中时使用 SysUserMapper 根据用户名从数据库中查询用户信息
+                    if (user != null) {
+                        principalCache.put(username, issuedAt, user); // 将查询结果放入缓存
+                    }
+                }
 
                 if (user != null) { // 如果根据用户名找到了对应的用户
-                    logger.debug("从数据库查询到的用户 {} 的密码：{}", username, user.getPassword()); // 记录从数据库查询到的用户密码（通常不建议在生产环境记录密码）
+                    logger.debug("查询到的用户 {} 的密码：{}", username, user.getPassword()); // 记录查询到的用户密码（通常不建议在生产环境记录密码）
                     String role = claims.get("roles", String.class); // 从 JWT 的声明信息中获取 "roles" 属性，通常存储的是用户角色
                     logger.debug("提取到的角色: {}", role); // 记录提取到的用户角色
                     UsernamePasswordAuthenticationToken authentication = // 创建 Spring Security 的认证 Token
@@ -0,0 +1,167 @@
+package cn.edu.cqrk.energytrack.filter;
+
+import cn.edu.cqrk.energytrack.config.PrincipalCacheProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.SysUser;
+import cn.edu.cqrk.energytrack.entity.vo.PrincipalCacheStatsVo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JWT 认证用户缓存
+ * 以“用户名 + 令牌签发时间(iat)”为键缓存数据库中的用户，容量有限（LRU 淘汰）且条目有短 TTL。
+ * 用户被修改、删除或改密码时按用户名失效；开启 Redis 同步后失效通知会广播到所有节点。
+ * 缓存中保存的是副本，取出时再复制一份，请求中对 principal 的修改不会污染缓存
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final PrincipalCacheProperties properties;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final LinkedHashMap<String, CachedPrincipal> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public PrincipalCache(PrincipalCacheProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.entries = new LinkedHashMap<String, CachedPrincipal>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                if (size() > properties.getMaxSize()) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 查询缓存的用户
+     * @param username 用户名
+     * @param issuedAt 令牌签发时间戳（毫秒），令牌中没有 iat 时传 0
+     * @return 用户副本，未命中或已过期时返回 null
+     */
+    public SysUser get(String username, long issuedAt) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        CachedPrincipal entry;
+        synchronized (entries) {
+            String key = key(username, issuedAt);
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return copy(entry.user);
+    }
+
+    /**
+     * 缓存从数据库查询到的用户
+     * @param username 用户名
+     * @param issuedAt 令牌签发时间戳（毫秒）
+     * @param user 用户
+     */
+    public void put(String username, long issuedAt, SysUser user) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        CachedPrincipal entry = new CachedPrincipal(copy(user),
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(properties.getTtlSeconds()));
+        synchronized (entries) {
+            entries.put(key(username, issuedAt), entry);
+        }
+    }
+
+    /**
+     * 使某个用户的所有缓存条目失效，开启 Redis 同步时同时通知其他节点
+     * @param username 用户名
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        evictLocal(username);
+        if (properties.isRedisSync()) {
+            StringRedisTemplate template = redisTemplate.getIfAvailable();
+            if (template == null) {
+                return;
+            }
+            try {
+                template.convertAndSend(properties.getChannel(), username);
+            } catch (Exception e) {
+                // 广播失败时其他节点上的条目最迟在 TTL 到期后失效
+                logger.warn("广播用户 {} 的缓存失效通知失败: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 只清除本节点上某个用户的缓存条目，供 Redis 失效通知调用
+     * @param username 用户名
+     */
+    public void evictLocal(String username) {
+        String prefix = username + "|";
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * @return 缓存命中率等运行指标
+     */
+    public PrincipalCacheStatsVo stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        double hitRate = hits + misses == 0 ? 0D : (double) hits / (hits + misses);
+        return new PrincipalCacheStatsVo(properties.isEnabled(), size, properties.getMaxSize(),
+                hits, misses, hitRate, evictionCount.get(), invalidationCount.get());
+    }
+
+    private static String key(String username, long issuedAt) {
+        return username + "|" + issuedAt;
+    }
+
+    private static SysUser copy(SysUser user) {
+        SysUser copy = new SysUser();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+
+    private static class CachedPrincipal {
+        private final SysUser user;
+        private final long expiresAt;
+
+        CachedPrincipal(SysUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
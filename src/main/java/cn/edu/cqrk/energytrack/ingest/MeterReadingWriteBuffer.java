@@ -0,0 +1,613 @@
+package cn.edu.cqrk.energytrack.ingest;
+
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.common.BackpressureException;
+import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.config.IngestProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.IngestStatsVo;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import cn.edu.cqrk.energytrack.series.HotSeriesStore;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
+import cn.edu.cqrk.energytrack.surge.SurgeMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 读数写入缓冲区（write-behind）
+ * 读数进入有界队列后即视为受理，由单独的写线程按条数或时间间隔组提交到 meter_reading 表；
+ * 队列已满时抛出 {@link BackpressureException}，由调用方返回 429 让客户端退避。
+ * 组提交失败时按指数退避重试，重试用尽后未写入的读数写入死信文件，由定时任务重放，已受理的读数不会被丢弃；
+ * 因数据错误无法写入的读数逐条隔离到 .failed 文件，不影响同批的其他读数。
+ * 重试和重放前按电表、读数时间、读数值去掉已写入的读数，上次写入结果不确定时也不会重复写入。
+ * 应用关闭时会停止受理并将队列中剩余的读数全部写入数据库。
+ */
+@Component
+public class MeterReadingWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterReadingWriteBuffer.class);
+    private static final String DEAD_LETTER_SUFFIX = ".dlq";
+    // 正在重放的死信文件，进程在写入和删除之间退出时保留该后缀，下次重放时先去重
+    private static final String REPLAYING_SUFFIX = ".replaying";
+    // 因数据错误无法写入的读数，不再重放，留待人工处理
+    private static final String FAILED_SUFFIX = ".failed";
+
+    private final IngestProperties properties;
+    private final MeterReadingMapper meterReadingMapper;
+    private final CacheGenerations cacheGenerations;
+    private final MeterReadingRollupService rollupService;
+    private final HotSeriesStore hotSeriesStore;
+    private final SurgeMonitor surgeMonitor;
+
+    private ArrayBlockingQueue<MeterReading> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    // 写线程已从队列取出、尚未提交的读数；写线程退出后由 stop() 写完
+    private final List<MeterReading> inFlight = new ArrayList<>();
+    private Path deadLetterDir;
+    private final AtomicLong deadLetterSeq = new AtomicLong();
+
+    // 统计指标
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong committedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retriedBatches = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private final AtomicLong quarantinedCount = new AtomicLong();
+    private final AtomicLong commitBatches = new AtomicLong();
+    private final AtomicLong totalCommitLatencyMs = new AtomicLong();
+    private final AtomicLong maxCommitLatencyMs = new AtomicLong();
+    private volatile long lastCommitLatencyMs;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public MeterReadingWriteBuffer(IngestProperties properties, MeterReadingMapper meterReadingMapper,
+                                   CacheGenerations cacheGenerations, MeterReadingRollupService rollupService,
+                                   HotSeriesStore hotSeriesStore, SurgeMonitor surgeMonitor) {
+        this.properties = properties;
+        this.meterReadingMapper = meterReadingMapper;
+        this.cacheGenerations = cacheGenerations;
+        this.rollupService = rollupService;
+        this.hotSeriesStore = hotSeriesStore;
+        this.surgeMonitor = surgeMonitor;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        // 死信文件在关闭异步写入后仍需重放，目录总是初始化
+        deadLetterDir = Paths.get(properties.getDeadLetterDir());
+        Files.createDirectories(deadLetterDir);
+        for (Path file : listDeadLetters()) {
+            deadLetterCount.addAndGet(countLines(file));
+        }
+        for (Path file : listFiles(FAILED_SUFFIX)) {
+            quarantinedCount.addAndGet(countLines(file));
+        }
+        if (deadLetterCount.get() > 0) {
+            logger.warn("存在 {} 条待重放的死信读数，目录: {}", deadLetterCount.get(), deadLetterDir.toAbsolutePath());
+        }
+        if (quarantinedCount.get() > 0) {
+            logger.warn("存在 {} 条因数据错误无法写入的读数，目录: {}", quarantinedCount.get(), deadLetterDir.toAbsolutePath());
+        }
+        if (!properties.isAsyncEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        running = true;
+        writerThread = new Thread(this::writeLoop, "meter-reading-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("读数异步写入已启用，容量 {}，批大小 {}，刷新间隔 {}ms",
+                properties.getQueueCapacity(), properties.getBatchSize(), properties.getFlushIntervalMs());
+    }
+
+    /**
+     * 是否启用异步写入
+     */
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * 受理单条读数
+     * @throws BackpressureException 缓冲区已满或正在关闭时抛出
+     */
+    public synchronized void offer(MeterReading reading) {
+        if (!running || !queue.offer(reading)) {
+            reject(1);
+        }
+        acceptedCount.incrementAndGet();
+    }
+
+    /**
+     * 受理一批读数，要么全部入队，要么全部拒绝
+     * 入队方之间互斥，出队只会增加剩余容量，因此先检查后写入是安全的
+     * @throws BackpressureException 剩余容量不足以容纳整批或正在关闭时抛出
+     */
+    public synchronized void offerAll(List<MeterReading> readings) {
+        if (!running || queue.remainingCapacity() < readings.size()) {
+            reject(readings.size());
+        }
+        for (MeterReading reading : readings) {
+            queue.add(reading);
+        }
+        acceptedCount.addAndGet(readings.size());
+    }
+
+    private void reject(int count) {
+        rejectedCount.addAndGet(count);
+        throw new BackpressureException(BizExceptionCode.INGEST_QUEUE_FULL, properties.getRetryAfterSeconds());
+    }
+
+    /**
+     * 写线程主循环：攒满一批或等待超过刷新间隔后组提交
+     * 被中断时已取出的读数保留在 inFlight 中，由 stop() 写完
+     */
+    private void writeLoop() {
+        int batchSize = properties.getBatchSize();
+        List<MeterReading> batch = inFlight;
+        while (running || !queue.isEmpty()) {
+            try {
+                MeterReading first = queue.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + properties.getFlushIntervalMs();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long waitMs = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || waitMs <= 0) {
+                        break;
+                    }
+                    MeterReading next = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch, false);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // 关闭时被中断，退出循环后由 stop() 负责写完剩余数据
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * 组提交一批读数，合并到汇总桶，并在提交后清理读数缓存
+     * 写入失败时按指数退避重试，重试前先去掉已写入的读数（失败的写入可能已在数据库提交）；
+     * 重试用尽（或正在关闭）时未写入的读数写入死信文件
+     * @param uncertain 这批读数是否可能已部分写入，为 true 时第一次写入前也先去重
+     * @throws InterruptedException 退避等待期间被中断时抛出，batch 中只保留尚未写入的读数，由调用方保留
+     */
+    private void commit(List<MeterReading> batch, boolean uncertain) throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long begin = System.currentTimeMillis();
+        List<MeterReading> pending = new ArrayList<>(batch);
+        InsertResult result = new InsertResult();
+        long backoffMs = properties.getRetryBackoffMs();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    insert(pending, result, uncertain || attempt > 0);
+                    break;
+                } catch (Exception e) {
+                    // 关闭期间不再退避重试，避免拖慢停机
+                    if (attempt >= properties.getCommitRetries() || !running) {
+                        logger.error("读数组提交失败（已重试 {} 次），{} 条写入死信文件等待重放: {}",
+                                attempt, pending.size(), e.getMessage(), e);
+                        deadLetter(pending);
+                        pending.clear();
+                        break;
+                    }
+                    retriedBatches.incrementAndGet();
+                    logger.warn("读数组提交失败，{}ms 后重试（第 {} 次）: {}", backoffMs, attempt + 1, e.getMessage());
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, properties.getRetryBackoffMaxMs());
+                }
+            }
+        } finally {
+            batch.clear();
+            batch.addAll(pending);
+            if (!result.isEmpty()) {
+                long latency = System.currentTimeMillis() - begin;
+                lastCommitLatencyMs = latency;
+                commitBatches.incrementAndGet();
+                totalCommitLatencyMs.addAndGet(latency);
+                maxCommitLatencyMs.accumulateAndGet(latency, Math::max);
+            }
+            complete(result);
+        }
+    }
+
+    /**
+     * 一次写入的结果：新写入的、数据库中已存在的、因数据错误无法写入的读数
+     */
+    private static class InsertResult {
+        private final List<MeterReading> inserted = new ArrayList<>();
+        private final List<MeterReading> existing = new ArrayList<>();
+        private final List<MeterReading> rejected = new ArrayList<>();
+
+        boolean isEmpty() {
+            return inserted.isEmpty() && existing.isEmpty() && rejected.isEmpty();
+        }
+    }
+
+    /**
+     * 写入 pending 中的读数，处理过的读数从 pending 移入 result
+     * 整批写入因数据错误（如读数值超出列范围）失败时改为逐条写入，仍因数据错误失败的读数计为 rejected；
+     * 其他错误直接抛出，此时 pending 中只剩尚未写入的读数
+     * @param deduplicate 是否先去掉数据库中已存在的读数
+     */
+    private void insert(List<MeterReading> pending, InsertResult result, boolean deduplicate) {
+        if (deduplicate && !pending.isEmpty()) {
+            Set<String> keys = meterReadingMapper.selectExisting(pending).stream()
+                    .map(stored -> key(stored, stored.getReadingTime().getTime() / 1000))
+                    .collect(Collectors.toSet());
+            Iterator<MeterReading> it = pending.iterator();
+            while (it.hasNext()) {
+                MeterReading reading = it.next();
+                long time = reading.getReadingTime().getTime();
+                if (keys.contains(key(reading, Math.floorDiv(time + 500, 1000)))
+                        || keys.contains(key(reading, Math.floorDiv(time, 1000)))) {
+                    result.existing.add(reading);
+                    it.remove();
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            meterReadingMapper.insertBatch(pending);
+            result.inserted.addAll(pending);
+            pending.clear();
+            return;
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("读数组提交因数据错误失败，改为逐条写入: {}", e.getMessage());
+        }
+        Iterator<MeterReading> it = pending.iterator();
+        while (it.hasNext()) {
+            MeterReading reading = it.next();
+            try {
+                meterReadingMapper.insertBatch(Collections.singletonList(reading));
+                result.inserted.add(reading);
+            } catch (DataIntegrityViolationException e) {
+                logger.error("读数无法写入，隔离到 {} 文件: 电表 {}，读数值 {}，读数时间 {}: {}", FAILED_SUFFIX,
+                        reading.getMeterId(), reading.getReadingValue(), reading.getReadingTime(), e.getMessage());
+                result.rejected.add(reading);
+            }
+            it.remove();
+        }
+    }
+
+    /**
+     * 去重键：读数时间精确到秒，读数值保留两位小数，与 DATETIME / DECIMAL(12,2) 列一致
+     * 写入时毫秒部分 MySQL 四舍五入、MariaDB 截断，因此待写入的读数按两种方式各匹配一次
+     */
+    private static String key(MeterReading reading, long seconds) {
+        return reading.getMeterId() + "|" + seconds + "|" + reading.getReadingValue().setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 处理写入结果：隔离无法写入的读数，新写入的读数合并到汇总桶和内存序列，已存在的读数重建相关汇总
+     */
+    private void complete(InsertResult result) {
+        if (!result.rejected.isEmpty()) {
+            quarantine(result.rejected);
+        }
+        committedCount.addAndGet(result.inserted.size() + result.existing.size());
+        if (!result.inserted.isEmpty()) {
+            afterInsert(result.inserted);
+        }
+        if (!result.existing.isEmpty()) {
+            afterRecovered(result.existing);
+        }
+    }
+
+    /**
+     * 把一批读数写入死信文件，由定时任务重放
+     */
+    private void deadLetter(List<MeterReading> batch) {
+        try {
+            writeReadings(batch, DEAD_LETTER_SUFFIX);
+            deadLetterCount.addAndGet(batch.size());
+        } catch (IOException e) {
+            failedCount.addAndGet(batch.size());
+            logger.error("写入死信文件失败，丢失 {} 条读数: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把因数据错误无法写入的读数写入 .failed 文件，不再重放
+     */
+    private void quarantine(List<MeterReading> readings) {
+        quarantinedCount.addAndGet(readings.size());
+        try {
+            writeReadings(readings, FAILED_SUFFIX);
+        } catch (IOException e) {
+            failedCount.addAndGet(readings.size());
+            logger.error("写入隔离文件失败，丢失 {} 条读数: {}", readings.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把一批读数写入死信目录：先写临时文件再原子改名，重放时不会读到写了一半的文件
+     * 每行一条读数：电表ID,读数值,读数时间,创建时间,更新时间（时间为毫秒）
+     */
+    private void writeReadings(List<MeterReading> readings, String suffix) throws IOException {
+        String name = "readings-" + System.currentTimeMillis() + "-" + deadLetterSeq.incrementAndGet();
+        Path temp = deadLetterDir.resolve(name + suffix + ".tmp");
+        Path target = deadLetterDir.resolve(name + suffix);
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (MeterReading reading : readings) {
+                writer.write(reading.getMeterId() + "," + reading.getReadingValue().toPlainString() + ","
+                        + reading.getReadingTime().getTime() + "," + time(reading.getCreateTime()) + ","
+                        + time(reading.getUpdateTime()));
+                writer.newLine();
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 定时重放死信文件，每个文件作为一批写入，成功后删除
+     * 写入前先把文件改名为 .replaying 并去掉已存在的读数，写入后删除失败或进程中途退出时下次重放不会重复写入；
+     * 无法解析的文件和因数据错误无法写入的读数隔离到 .failed 文件，不影响后续文件；数据库仍不可用时停止本轮重放
+     */
+    @Scheduled(fixedDelayString = "${energytrack.ingest.dead-letter-replay-interval-ms:60000}",
+            initialDelayString = "${energytrack.ingest.dead-letter-replay-interval-ms:60000}")
+    public void replayDeadLetters() {
+        List<Path> files;
+        try {
+            files = listDeadLetters();
+        } catch (IOException e) {
+            logger.error("读取死信目录失败: {}", e.getMessage(), e);
+            return;
+        }
+        for (Path file : files) {
+            Path replaying;
+            List<MeterReading> batch;
+            try {
+                replaying = markReplaying(file);
+            } catch (IOException e) {
+                logger.error("死信文件 {} 改名失败，跳过: {}", file.getFileName(), e.getMessage());
+                continue;
+            }
+            try {
+                batch = readDeadLetter(replaying);
+            } catch (IOException | RuntimeException e) {
+                logger.error("死信文件 {} 无法解析，隔离待人工处理: {}", replaying.getFileName(), e.getMessage());
+                quarantineFile(replaying);
+                continue;
+            }
+            List<MeterReading> pending = new ArrayList<>(batch);
+            InsertResult result = new InsertResult();
+            try {
+                insert(pending, result, true);
+            } catch (Exception e) {
+                // 文件保留，已写入的读数下次重放时按已存在跳过，无法写入的读数届时再隔离
+                logger.warn("重放死信文件 {} 失败，下次重试: {}", replaying.getFileName(), e.getMessage());
+                result.rejected.clear();
+                complete(result);
+                return;
+            }
+            complete(result);
+            try {
+                Files.delete(replaying);
+                deadLetterCount.addAndGet(-batch.size());
+            } catch (IOException e) {
+                logger.error("死信文件 {} 已重放但删除失败，下次重放时去重: {}", replaying, e.getMessage(), e);
+            }
+            logger.info("已重放死信文件 {}，写入 {} 条，已存在 {} 条，隔离 {} 条", file.getFileName(),
+                    result.inserted.size(), result.existing.size(), result.rejected.size());
+        }
+    }
+
+    /**
+     * 把死信文件改名为 .replaying，已经是 .replaying 的（上次重放中断）原样返回
+     */
+    private static Path markReplaying(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(REPLAYING_SUFFIX)) {
+            return file;
+        }
+        return Files.move(file, file.resolveSibling(name + REPLAYING_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 把无法解析的死信文件改名为 .failed，不再重放
+     */
+    private void quarantineFile(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(REPLAYING_SUFFIX)) {
+            name = name.substring(0, name.length() - REPLAYING_SUFFIX.length());
+        }
+        try {
+            long lines = countLines(file);
+            Files.move(file, file.resolveSibling(name + FAILED_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            deadLetterCount.addAndGet(-lines);
+            quarantinedCount.addAndGet(lines);
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("死信文件 {} 隔离失败: {}", file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 待重放的死信文件，包括上次重放中断的 .replaying 文件
+     */
+    private List<Path> listDeadLetters() throws IOException {
+        List<Path> files = listFiles(DEAD_LETTER_SUFFIX);
+        files.addAll(listFiles(DEAD_LETTER_SUFFIX + REPLAYING_SUFFIX));
+        files.sort(null);
+        return files;
+    }
+
+    private List<Path> listFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(deadLetterDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<MeterReading> readDeadLetter(Path file) throws IOException {
+        List<MeterReading> batch = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            MeterReading reading = new MeterReading();
+            reading.setMeterId(Integer.valueOf(fields[0]));
+            reading.setReadingValue(new BigDecimal(fields[1]));
+            reading.setReadingTime(new Date(Long.parseLong(fields[2])));
+            reading.setCreateTime(fields[3].isEmpty() ? null : new Date(Long.parseLong(fields[3])));
+            reading.setUpdateTime(fields[4].isEmpty() ? null : new Date(Long.parseLong(fields[4])));
+            batch.add(reading);
+        }
+        return batch;
+    }
+
+    private static long countLines(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isEmpty()).count();
+        }
+    }
+
+    private static String time(Date date) {
+        return date == null ? "" : String.valueOf(date.getTime());
+    }
+
+    /**
+     * 读数写入后合并到汇总桶和内存序列，清理读数缓存，并交给实时突增检测
+     * 读数此时已提交，这些步骤失败只记录日志，不计入写入失败；缓存代数总是递增，避免继续读到旧的缓存
+     */
+    private void afterInsert(List<MeterReading> batch) {
+        Set<Integer> meterIds = batch.stream().map(MeterReading::getMeterId).collect(Collectors.toCollection(LinkedHashSet::new));
+        try {
+            rollupService.applyInserted(batch);
+        } catch (Exception e) {
+            logger.error("读数已写入但合并汇总桶失败，需重建电表 {} 的汇总: {}", meterIds, e.getMessage(), e);
+        }
+        try {
+            hotSeriesStore.append(batch);
+        } catch (Exception e) {
+            // 内存序列缺少这批读数，丢弃相关电表的序列，之后从数据库重新加载
+            logger.error("读数已写入但追加到内存序列失败: {}", e.getMessage(), e);
+            meterIds.forEach(hotSeriesStore::invalidate);
+        }
+        for (Integer meterId : meterIds) {
+            cacheGenerations.bump(CacheGenerations.METER_READINGS, meterId);
+        }
+        try {
+            surgeMonitor.onInserted(batch);
+        } catch (Exception e) {
+            logger.error("读数已写入但突增检测失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 重试或重放时发现已在数据库中的读数：上次写入可能已提交，但不确定是否已合并到汇总桶，
+     * 按天重建相关汇总桶而不是再次增量合并，并丢弃内存序列、清理读数缓存
+     */
+    private void afterRecovered(List<MeterReading> readings) {
+        Map<Integer, List<MeterReading>> byMeter = readings.stream()
+                .collect(Collectors.groupingBy(MeterReading::getMeterId, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<Integer, List<MeterReading>> entry : byMeter.entrySet()) {
+            Integer meterId = entry.getKey();
+            List<Date> times = entry.getValue().stream().map(MeterReading::getReadingTime).sorted().collect(Collectors.toList());
+            try {
+                rollupService.rebuild(meterId, times.get(0), times.get(times.size() - 1));
+            } catch (Exception e) {
+                logger.error("重建电表 {} 的汇总失败: {}", meterId, e.getMessage(), e);
+            }
+            hotSeriesStore.invalidate(meterId);
+            cacheGenerations.bump(CacheGenerations.METER_READINGS, meterId);
+        }
+    }
+
+    /**
+     * 应用关闭时停止受理，并把写线程未提交的读数和队列中剩余的读数写入数据库，写入失败的进入死信文件
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        running = false;
+        writerThread.join(properties.getFlushIntervalMs() * 10 + 5000);
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            writerThread.join();
+        }
+        // 写线程被中断时已取出但未提交的读数，先于队列中的剩余数据写入；中断时可能已部分写入，先去重
+        commit(inFlight, true);
+        inFlight.clear();
+        // 写线程异常退出时，在当前线程写完剩余数据
+        List<MeterReading> rest = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(rest, properties.getBatchSize()) > 0) {
+            commit(rest, false);
+            rest.clear();
+        }
+        logger.info("读数异步写入已关闭，累计写入 {} 条，待重放 {} 条，隔离 {} 条，丢失 {} 条",
+                committedCount.get(), deadLetterCount.get(), quarantinedCount.get(), failedCount.get());
+    }
+
+    /**
+     * 获取写入缓冲区统计信息
+     */
+    public IngestStatsVo stats() {
+        long batches = commitBatches.get();
+        return new IngestStatsVo(
+                isEnabled(),
+                isEnabled() ? queue.size() : 0,
+                properties.getQueueCapacity(),
+                acceptedCount.get(),
+                rejectedCount.get(),
+                committedCount.get(),
+                failedCount.get(),
+                retriedBatches.get(),
+                deadLetterCount.get(),
+                quarantinedCount.get(),
+                batches,
+                lastCommitLatencyMs,
+                maxCommitLatencyMs.get(),
+                batches == 0 ? 0.0 : (double) totalCommitLatencyMs.get() / batches);
+    }
+}
@@ -3,7 +3,19 @@ package cn.edu.cqrk.energytrack.mapper;
 import cn.edu.cqrk.energytrack.entity.pojo.ElectricityReport;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Date;
 
 @Mapper
 public interface ElectricityReportMapper extends BaseMapper<ElectricityReport> {
-}
\ No newline at end of file
+
+    /**
+     * 流式读取符合条件的报表用于导出，条件与报表搜索相同，按报表编号排序
+     */
+    void streamSearch(@Param("meterId") Integer meterId,
+                      @Param("startTime") Date startTime,
+                      @Param("endTime") Date endTime,
+                      ResultHandler<ElectricityReport> handler);
+}
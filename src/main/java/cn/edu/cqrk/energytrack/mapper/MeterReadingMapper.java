@@ -1,9 +1,92 @@
 package cn.edu.cqrk.energytrack.mapper;
 
 import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.MeterConsumptionVo;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 @Mapper
 public interface MeterReadingMapper extends BaseMapper<MeterReading> {
-}
\ No newline at end of file
+    int insertBatch(@Param("list") List<MeterReading> list);
+
+    /**
+     * 一批读数中已存在于表中的读数（电表、读数时间、读数值均相同），用于重试和重放死信时去重
+     */
+    List<MeterReading> selectExisting(@Param("list") List<MeterReading> list);
+
+    /**
+     * 按时间升序流式读取某电表在 [startTime, endTime) 内的读数，逐行回调，不在内存中缓存结果集
+     */
+    void streamRange(@Param("meterId") Integer meterId,
+                     @Param("startTime") Date startTime,
+                     @Param("endTime") Date endTime,
+                     ResultHandler<MeterReading> handler);
+
+    /**
+     * 以游标方式按时间升序读取某电表在 [startTime, endTime) 内的读数，调用方需在事务内遍历并关闭游标
+     */
+    Cursor<MeterReading> cursorRange(@Param("meterId") Integer meterId,
+                                     @Param("startTime") Date startTime,
+                                     @Param("endTime") Date endTime);
+
+    /**
+     * 流式读取电表ID在 (afterMeterId, beforeMeterId) 内的全部电表在 [startTime, endTime) 内的读数，
+     * 按电表、时间排序；两端为空时不限
+     */
+    void streamMeterRange(@Param("afterMeterId") Integer afterMeterId,
+                          @Param("beforeMeterId") Integer beforeMeterId,
+                          @Param("startTime") Date startTime,
+                          @Param("endTime") Date endTime,
+                          ResultHandler<MeterReading> handler);
+
+    /**
+     * 流式读取一组电表在 [startTime, endTime) 内的读数，按电表、时间排序，用于按分区批量扫描
+     */
+    void streamByMeters(@Param("meterIds") List<Integer> meterIds,
+                        @Param("startTime") Date startTime,
+                        @Param("endTime") Date endTime,
+                        ResultHandler<MeterReading> handler);
+
+    /**
+     * 游标分页：按读数时间、读数ID倒序，返回排在 (afterTime, afterId) 之后的 limit 条，afterTime 为空时从头开始
+     */
+    List<MeterReading> seekPage(@Param("afterTime") Date afterTime,
+                                @Param("afterId") Integer afterId,
+                                @Param("limit") int limit);
+
+    /**
+     * 读数表的估算行数
+     */
+    Long estimateRowCount();
+
+    /**
+     * 有早于 before 的读数的电表ID，用于归档
+     */
+    List<Integer> selectMetersBefore(@Param("before") Date before);
+
+    /**
+     * 某电表早于 before 的最早读数时间，没有时返回 null
+     */
+    Date selectOldestTimeBefore(@Param("meterId") Integer meterId, @Param("before") Date before);
+
+    /**
+     * 流式读取读数时间不早于 startTime 的完整读数行，按电表、时间排序，meterId 为空时读取全部电表，用于加载内存序列
+     */
+    void streamSince(@Param("meterId") Integer meterId,
+                     @Param("startTime") Date startTime,
+                     ResultHandler<MeterReading> handler);
+
+    /**
+     * 一组电表在 [startTime, endTime) 内的第一条和最后一条读数，每个电表一行，没有读数的电表不返回
+     */
+    List<MeterConsumptionVo> selectFirstAndLastByMeters(@Param("meterIds") Collection<Integer> meterIds,
+                                                        @Param("startTime") Date startTime,
+                                                        @Param("endTime") Date endTime);
+}
@@ -0,0 +1,13 @@
+package cn.edu.cqrk.energytrack.mapper;
+
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReadingRollup;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface MeterReadingRollupMapper extends BaseMapper<MeterReadingRollup> {
+    int upsertBatch(@Param("list") List<MeterReadingRollup> list);
+}
@@ -0,0 +1,53 @@
+package cn.edu.cqrk.energytrack.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.data.JRAbstractBeanDataSource;
+
+import java.util.Iterator;
+
+/**
+ * 基于迭代器的流式 Bean 数据源
+ * 与 {@link net.sf.jasperreports.engine.data.JRBeanCollectionDataSource} 按相同规则读取 Bean 属性，
+ * 但不要求数据预先加载到集合中，可直接包装 MyBatis 的 Cursor 逐行填充报表。只能遍历一次，不支持回绕
+ * @param <T> Bean 类型
+ */
+public class CursorBeanDataSource<T> extends JRAbstractBeanDataSource {
+
+    private final Iterator<T> iterator;
+    private T current;
+    private long count;
+
+    public CursorBeanDataSource(Iterator<T> iterator) {
+        super(true);
+        this.iterator = iterator;
+    }
+
+    @Override
+    public boolean next() {
+        if (!iterator.hasNext()) {
+            current = null;
+            return false;
+        }
+        current = iterator.next();
+        count++;
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        return getFieldValue(current, field);
+    }
+
+    @Override
+    public void moveFirst() throws JRException {
+        throw new JRException("游标数据源只能遍历一次，不支持回绕");
+    }
+
+    /**
+     * @return 已读取的记录数
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,131 @@
+package cn.edu.cqrk.energytrack.report;
+
+import cn.edu.cqrk.energytrack.config.ReportProperties;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 报表模板注册表
+ * 按名称缓存编译后的 {@link JasperReport}：优先加载 classpath 下预编译的 reports/{name}.jasper，
+ * 否则编译 reports/{name}.jrxml，每个模板只编译一次。模板通过输入流读取，打包成 jar 后同样可用。
+ * 开启热加载时，文件系统中的模板修改后会在下次获取时重新编译
+ */
+@Component
+public class ReportTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTemplateRegistry.class);
+    private static final String TEMPLATE_LOCATION = "classpath:reports/";
+
+    private final ReportProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final ConcurrentMap<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ReportTemplateRegistry(ReportProperties properties, ResourceLoader resourceLoader) {
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * 应用启动完成后预编译配置的模板，失败时只记录日志，首次使用时会再次尝试
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        for (String name : properties.getPreload()) {
+            try {
+                get(name);
+            } catch (JRException e) {
+                logger.error("预编译报表模板 {} 失败: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 获取编译后的报表模板
+     * @param name 模板名称（不含扩展名）
+     * @return 编译后的报表模板，可在多个线程间共享
+     * @throws JRException 模板不存在或编译失败时抛出
+     */
+    public JasperReport get(String name) throws JRException {
+        CompiledTemplate cached = templates.get(name);
+        if (cached != null && !(properties.isHotReload() && cached.isStale())) {
+            return cached.report;
+        }
+        synchronized (this) {
+            cached = templates.get(name);
+            if (cached == null || (properties.isHotReload() && cached.isStale())) {
+                cached = load(name);
+                templates.put(name, cached);
+            }
+            return cached.report;
+        }
+    }
+
+    private CompiledTemplate load(String name) throws JRException {
+        Resource jasper = resourceLoader.getResource(TEMPLATE_LOCATION + name + ".jasper");
+        boolean precompiled = jasper.exists();
+        Resource source = precompiled ? jasper : resourceLoader.getResource(TEMPLATE_LOCATION + name + ".jrxml");
+        if (!source.exists()) {
+            throw new JRException("报表模板不存在: " + name);
+        }
+        long begin = System.currentTimeMillis();
+        try (InputStream in = source.getInputStream()) {
+            JasperReport report = precompiled
+                    ? (JasperReport) JRLoader.loadObject(in)
+                    : JasperCompileManager.compileReport(in);
+            logger.info("报表模板 {} {}完成，耗时 {}ms", name, precompiled ? "加载" : "编译",
+                    System.currentTimeMillis() - begin);
+            return new CompiledTemplate(report, toFile(source));
+        } catch (IOException e) {
+            throw new JRException("读取报表模板失败: " + name, e);
+        }
+    }
+
+    /**
+     * 模板位于文件系统时返回对应文件，用于热加载检测；位于 jar 内时返回 null
+     */
+    private static File toFile(Resource resource) {
+        if (!resource.isFile()) {
+            return null;
+        }
+        try {
+            return resource.getFile();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 编译后的模板及其源文件修改时间
+     */
+    private static class CompiledTemplate {
+        private final JasperReport report;
+        private final File file;
+        private final long lastModified;
+
+        CompiledTemplate(JasperReport report, File file) {
+            this.report = report;
+            this.file = file;
+            this.lastModified = file == null ? 0 : file.lastModified();
+        }
+
+        boolean isStale() {
+            return file != null && file.lastModified() != lastModified;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package cn.edu.cqrk.energytrack.report;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 流式 xlsx 写出器
+ * 基于 SXSSF，内存中只保留最近的若干行，更早的行刷写到压缩的临时文件，堆内存占用与总行数无关；
+ * 单个工作表写满 Excel 行数上限后自动换到新的工作表并重复表头。用完必须 close 以删除临时文件
+ */
+public class XlsxStreamWriter implements Closeable {
+
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    // 内存中保留的行数
+    private static final int DEFAULT_ROW_ACCESS_WINDOW = 100;
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int COLUMN_WIDTH = 20 * 256;
+
+    private final SXSSFWorkbook workbook;
+    private final String sheetName;
+    private final String[] headers;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private SXSSFSheet sheet;
+    private int sheetCount;
+    private int rowIndex;
+    private int columnIndex;
+    private Row row;
+    private long rowCount;
+
+    public XlsxStreamWriter(String sheetName, String... headers) {
+        this(DEFAULT_ROW_ACCESS_WINDOW, sheetName, headers);
+    }
+
+    public XlsxStreamWriter(int rowAccessWindow, String sheetName, String... headers) {
+        // 临时文件压缩存放；不使用共享字符串表，否则字符串会全部留在内存中
+        this.workbook = new SXSSFWorkbook(null, rowAccessWindow, true, false);
+        this.sheetName = sheetName;
+        this.headers = headers;
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        headerStyle = workbook.createCellStyle();
+        headerStyle.setFont(bold);
+        // 单元格样式属于工作簿，只创建一次供所有日期单元格共用
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+        nextSheet();
+    }
+
+    /**
+     * 开始新的一行，之后按列顺序调用 add 方法写入单元格
+     */
+    public XlsxStreamWriter startRow() {
+        if (rowIndex >= MAX_ROWS_PER_SHEET) {
+            nextSheet();
+        }
+        row = sheet.createRow(rowIndex++);
+        columnIndex = 0;
+        rowCount++;
+        return this;
+    }
+
+    public XlsxStreamWriter addInt(Integer value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value);
+        }
+        return this;
+    }
+
+    public XlsxStreamWriter addDecimal(BigDecimal value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value.doubleValue());
+        }
+        return this;
+    }
+
+    public XlsxStreamWriter addDate(Date value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value);
+            cell.setCellStyle(dateStyle);
+        }
+        return this;
+    }
+
+    public XlsxStreamWriter addText(String value) {
+        Cell cell = row.createCell(columnIndex++);
+        if (value != null) {
+            cell.setCellValue(value);
+        }
+        return this;
+    }
+
+    /**
+     * @return 已写入的数据行数，不含表头
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 写出整个工作簿，临时文件中的行在此时依次读出
+     * @param out 输出流，由调用方负责关闭
+     */
+    public void write(OutputStream out) throws IOException {
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void nextSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + "_" + sheetCount);
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, COLUMN_WIDTH);
+        }
+        // 表头固定在顶部
+        sheet.createFreezePane(0, 1);
+        rowIndex = 1;
+    }
+}
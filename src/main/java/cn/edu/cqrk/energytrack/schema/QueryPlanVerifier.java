@@ -0,0 +1,87 @@
+package cn.edu.cqrk.energytrack.schema;
+
+import cn.edu.cqrk.energytrack.config.SchemaProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热点查询执行计划检查
+ * 开启 energytrack.schema.verify-plans 后，启动完成时对读数区间查询、游标分页和报表查询执行 EXPLAIN，确认使用了迁移脚本创建的索引。
+ * 数据量很小时优化器可能选择全表扫描，此时只记录调试日志，数据量达到阈值后才告警
+ */
+@Component
+public class QueryPlanVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+    // 低于该行数（估算值）时不告警
+    private static final long WARN_MIN_ROWS = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaProperties properties;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate, SchemaProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isVerifyPlans()) {
+            verify();
+        }
+    }
+
+    /**
+     * 检查全部热点查询
+     * @return 查询名称 -> 实际使用的索引（未使用索引时为 null）
+     */
+    public Map<String, String> verify() {
+        Map<String, String> result = new LinkedHashMap<>();
+        try {
+            long readingRows = estimateRows("meter_reading");
+            long reportRows = estimateRows("electricity_report");
+            result.put("readingRange", check("读数区间查询", "idx_meter_time_value", readingRows,
+                    "EXPLAIN SELECT reading_id, meter_id, reading_value, reading_time FROM meter_reading "
+                            + "WHERE meter_id = 1 AND reading_time >= NOW() - INTERVAL 1 DAY AND reading_time < NOW() "
+                            + "ORDER BY reading_time"));
+            result.put("readingSeek", check("读数游标分页", "idx_reading_time", readingRows,
+                    "EXPLAIN SELECT reading_id, meter_id, reading_value, reading_time FROM meter_reading "
+                            + "WHERE reading_time < NOW() OR (reading_time = NOW() AND reading_id < 1) "
+                            + "ORDER BY reading_time DESC, reading_id DESC LIMIT 11"));
+            result.put("reportByMeter", check("报表按电表查询", "idx_report_meter_time", reportRows,
+                    "EXPLAIN SELECT report_id FROM electricity_report WHERE meter_id = 1 ORDER BY start_time"));
+        } catch (Exception e) {
+            logger.warn("检查查询执行计划失败: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    private String check(String name, String expectedKey, long tableRows, String explainSql) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList(explainSql);
+        Object key = plan.isEmpty() ? null : plan.get(0).get("key");
+        String actualKey = key == null ? null : key.toString();
+        if (expectedKey.equals(actualKey)) {
+            logger.debug("{} 使用索引 {}，计划: {}", name, actualKey, plan);
+        } else if (tableRows >= WARN_MIN_ROWS) {
+            logger.warn("{} 未使用预期索引 {}（实际: {}），请检查迁移是否执行，计划: {}", name, expectedKey, actualKey, plan);
+        } else {
+            logger.debug("{} 未使用预期索引 {}（实际: {}），表中数据较少，可能是优化器选择了全表扫描", name, expectedKey, actualKey);
+        }
+        return actualKey;
+    }
+
+    private long estimateRows(String table) {
+        Long rows = jdbcTemplate.queryForObject("SELECT TABLE_ROWS FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Long.class, table);
+        return rows == null ? 0 : rows;
+    }
+}
@@ -0,0 +1,163 @@
+package cn.edu.cqrk.energytrack.schema;
+
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.config.SchemaProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读数表分区维护
+ * meter_reading 按 reading_time 按月分区，分区 pYYYYMM 保存该月（第一个分区还包含更早的全部历史）的读数，
+ * p_future 兜底保存超出已建分区范围的读数。定时从 p_future 中拆分出未来几个月的分区；
+ * 配置了保留月数时，整体删除上界早于保留起点的分区，代价与分区大小无关，也不会像 DELETE 那样产生大量 undo 和碎片
+ */
+@Component
+@DependsOn("schemaMigrator")
+public class ReadingPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingPartitionManager.class);
+
+    private static final String TABLE = "meter_reading";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaProperties properties;
+    private final CacheGenerations cacheGenerations;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ReadingPartitionManager(JdbcTemplate jdbcTemplate, SchemaProperties properties, CacheGenerations cacheGenerations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.cacheGenerations = cacheGenerations;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (properties.isPartitioningEnabled()) {
+            maintain();
+        }
+    }
+
+    /**
+     * 定时维护：补齐未来分区，删除超期分区
+     */
+    @Scheduled(cron = "${energytrack.schema.partition-cron:0 30 2 * * ?}")
+    public void scheduledMaintain() {
+        if (properties.isPartitioningEnabled()) {
+            maintain();
+        }
+    }
+
+    /**
+     * 补齐未来分区并删除超期分区，失败时只记录日志，下次维护时重试
+     */
+    public synchronized void maintain() {
+        try {
+            List<Partition> partitions = listPartitions();
+            if (partitions.isEmpty()) {
+                logger.warn("{} 尚未分区，跳过分区维护", TABLE);
+                return;
+            }
+            createFuturePartitions(partitions);
+            dropExpiredPartitions(partitions);
+        } catch (Exception e) {
+            logger.error("读数表分区维护失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从 p_future 中拆分出直到“当前月 + 提前月数”的按月分区
+     */
+    private void createFuturePartitions(List<Partition> partitions) {
+        LocalDate lastBound = null;
+        for (Partition partition : partitions) {
+            if (partition.upperBound != null) {
+                lastBound = partition.upperBound;
+            }
+        }
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate targetBound = currentMonth.plusMonths(properties.getPartitionMonthsAhead() + 1L);
+        // 第一次拆分时从当前月开始，当前月分区同时包含更早的全部历史数据
+        LocalDate month = lastBound != null ? lastBound : currentMonth;
+        if (!month.isBefore(targetBound)) {
+            return;
+        }
+        StringBuilder definitions = new StringBuilder();
+        List<String> names = new ArrayList<>();
+        for (; month.isBefore(targetBound); month = month.plusMonths(1)) {
+            String name = month.format(PARTITION_NAME);
+            names.add(name);
+            definitions.append("PARTITION ").append(name)
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1)).append("'), ");
+        }
+        definitions.append("PARTITION ").append(FUTURE_PARTITION).append(" VALUES LESS THAN (MAXVALUE)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + definitions + ")");
+        logger.info("已创建读数分区 {}", names);
+    }
+
+    /**
+     * 删除上界不晚于保留起点的分区，分区内的读数全部早于保留起点
+     */
+    private void dropExpiredPartitions(List<Partition> partitions) {
+        if (properties.getRetentionMonths() <= 0) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(properties.getRetentionMonths());
+        List<String> expired = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.upperBound != null && !partition.upperBound.isAfter(cutoff)) {
+                expired.add(partition.name);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+        cacheGenerations.bumpAll(CacheGenerations.METER_READINGS);
+        logger.info("已删除超过保留期（{} 个月）的读数分区 {}", properties.getRetentionMonths(), expired);
+    }
+
+    /**
+     * @return 按顺序排列的分区，表未分区时返回空列表
+     */
+    private List<Partition> listPartitions() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY PARTITION_ORDINAL_POSITION", TABLE);
+        List<Partition> partitions = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            String name = (String) row.get("PARTITION_NAME");
+            if (name == null) {
+                return partitions;
+            }
+            // RANGE COLUMNS 的上界形如 '2024-05-01 00:00:00'，MAXVALUE 分区没有上界
+            String description = String.valueOf(row.get("PARTITION_DESCRIPTION")).replace("'", "");
+            LocalDate upperBound = "MAXVALUE".equalsIgnoreCase(description) ? null : LocalDate.parse(description.substring(0, 10));
+            partitions.add(new Partition(name, upperBound));
+        }
+        return partitions;
+    }
+
+    private static class Partition {
+        private final String name;
+        private final LocalDate upperBound;
+
+        Partition(String name, LocalDate upperBound) {
+            this.name = name;
+            this.upperBound = upperBound;
+        }
+    }
+}
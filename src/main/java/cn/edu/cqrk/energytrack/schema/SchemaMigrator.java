@@ -0,0 +1,236 @@
+package cn.edu.cqrk.energytrack.schema;
+
+import cn.edu.cqrk.energytrack.config.SchemaProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 数据库结构迁移
+ * 启动时按版本号顺序执行 classpath:db/migration（启用分区时还有 classpath:db/partition）下的 V{版本}__{说明}.sql，
+ * 已执行的版本记录在 schema_version 表中，只执行一次。多节点同时启动时通过 MySQL 命名锁串行执行。
+ * 为了能接管没有迁移记录的已有数据库，“表已存在 / 索引已存在”一类错误视为该语句已生效
+ */
+@Component("schemaMigrator")
+public class SchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String MIGRATION_LOCATION = "classpath*:db/migration/*.sql";
+    private static final String PARTITION_LOCATION = "classpath*:db/partition/*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String LOCK_NAME = "energytrack_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    // 表已存在、字段已存在、索引已存在
+    private static final Set<Integer> ALREADY_APPLIED_ERRORS = new HashSet<>(Arrays.asList(1050, 1060, 1061));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaProperties properties;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public SchemaMigrator(JdbcTemplate jdbcTemplate, SchemaProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void migrate() throws IOException {
+        if (!properties.isMigrateEnabled()) {
+            return;
+        }
+        List<Migration> migrations = load(MIGRATION_LOCATION);
+        if (properties.isPartitioningEnabled()) {
+            migrations.addAll(load(PARTITION_LOCATION));
+        }
+        Map<Integer, Migration> byVersion = new TreeMap<>();
+        for (Migration migration : migrations) {
+            if (byVersion.put(migration.version, migration) != null) {
+                throw new IllegalStateException("迁移脚本版本重复: V" + migration.version);
+            }
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            lock(connection);
+            try {
+                applyPending(connection, byVersion);
+            } finally {
+                unlock(connection);
+            }
+            return null;
+        });
+    }
+
+    private void applyPending(Connection connection, Map<Integer, Migration> migrations) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT NOT NULL, description VARCHAR(200) NOT NULL, checksum BIGINT NOT NULL, "
+                    + "installed_on DATETIME NOT NULL, execution_ms INT NOT NULL, PRIMARY KEY (version)"
+                    + ") ENGINE = InnoDB DEFAULT CHARSET = utf8mb4");
+        }
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        // 版本号只决定执行顺序，不要求连续：后启用的分区脚本（V100+）可以晚于之后新增的普通脚本执行
+        for (Migration migration : migrations.values()) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum) {
+                    logger.warn("迁移脚本 V{}__{} 在执行后被修改过，已执行的版本不会重新执行", migration.version, migration.description);
+                }
+                continue;
+            }
+            long begin = System.currentTimeMillis();
+            for (String sql : migration.statements) {
+                execute(connection, migration, sql);
+            }
+            int elapsed = (int) (System.currentTimeMillis() - begin);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, installed_on, execution_ms) VALUES (?, ?, ?, NOW(), ?)")) {
+                insert.setInt(1, migration.version);
+                insert.setString(2, migration.description);
+                insert.setLong(3, migration.checksum);
+                insert.setInt(4, elapsed);
+                insert.executeUpdate();
+            }
+            logger.info("已执行迁移脚本 V{}__{}，耗时 {}ms", migration.version, migration.description, elapsed);
+        }
+    }
+
+    private void execute(Connection connection, Migration migration, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            if (ALREADY_APPLIED_ERRORS.contains(e.getErrorCode())) {
+                logger.info("迁移脚本 V{} 的语句已生效，跳过: {}", migration.version, e.getMessage());
+                return;
+            }
+            throw new SQLException("迁移脚本 V" + migration.version + "__" + migration.description + " 执行失败: " + sql, e);
+        }
+    }
+
+    private void lock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new IllegalStateException("等待数据库迁移锁超时");
+                }
+            }
+        }
+    }
+
+    private void unlock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            logger.warn("释放数据库迁移锁失败: {}", e.getMessage());
+        }
+    }
+
+    private static List<Migration> load(String location) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+            String fileName = resource.getFilename();
+            Matcher matcher = fileName == null ? null : FILE_NAME.matcher(fileName);
+            if (matcher == null || !matcher.matches()) {
+                logger.warn("忽略命名不符合 V版本__说明.sql 的迁移脚本: {}", fileName);
+                continue;
+            }
+            String script = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    crc.getValue(), split(script)));
+        }
+        return migrations;
+    }
+
+    /**
+     * 按分号拆分脚本为单条语句，去掉 -- 行注释和块注释，引号内的分号和注释符号保持原样
+     */
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        int length = script.length();
+        for (int i = 0; i < length; i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                current.append(c);
+                if (c == '\\' && i + 1 < length) {
+                    current.append(script.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                current.append(c);
+            } else if (c == '-' && script.startsWith("--", i)) {
+                int lineEnd = script.indexOf('\n', i);
+                i = lineEnd < 0 ? length : lineEnd - 1;
+            } else if (c == '/' && script.startsWith("/*", i)) {
+                int commentEnd = script.indexOf("*/", i + 2);
+                i = commentEnd < 0 ? length : commentEnd + 1;
+                current.append(' ');
+            } else if (c == ';') {
+                addStatement(statements, current);
+            } else {
+                current.append(c);
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String sql = current.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        current.setLength(0);
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final long checksum;
+        private final List<String> statements;
+
+        Migration(int version, String description, long checksum, List<String> statements) {
+            this.version = version;
+            this.description = description;
+            this.checksum = checksum;
+            this.statements = statements;
+        }
+    }
+}
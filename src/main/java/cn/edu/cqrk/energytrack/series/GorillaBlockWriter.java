@@ -0,0 +1,95 @@
+package cn.edu.cqrk.energytrack.series;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按电表分块写出 Gorilla 编码的读数序列，用于流式导出
+ * 文件以 4 字节 "ETS1" 开头，之后是若干块，每块只包含一个电表、同一小数位的读数：
+ * 变长整数的电表ID、小数位、条数，条数个 ZigZag 变长整数的读数ID差分，
+ * 变长整数的 Gorilla 编码长度和 {@link GorillaEncoder} 编码内容（读数时间、读数值的非标度值）。
+ * 电表切换、小数位变化或达到块大小时写出当前块，内存占用与导出条数无关
+ */
+public class GorillaBlockWriter {
+
+    private static final byte[] MAGIC = "ETS1".getBytes(StandardCharsets.US_ASCII);
+    // 每块最多包含的读数条数
+    private static final int BLOCK_SIZE = 4096;
+
+    private final OutputStream out;
+    private final GorillaEncoder encoder = new GorillaEncoder(BLOCK_SIZE);
+    private final ByteArrayOutputStream ids = new ByteArrayOutputStream(BLOCK_SIZE * 2);
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream(32);
+
+    private Integer meterId;
+    private int scale;
+    private long previousId;
+
+    /**
+     * @param out 输出流，写入文件头
+     * @throws IOException 写出失败时抛出
+     */
+    public GorillaBlockWriter(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(MAGIC);
+    }
+
+    /**
+     * 追加一条读数，读数需按电表、时间排序
+     * @param readingId 读数ID
+     * @param meterId 电表ID
+     * @param time 读数时间（毫秒）
+     * @param value 读数值
+     * @throws IOException 写出失败时抛出
+     */
+    public void write(int readingId, Integer meterId, long time, BigDecimal value) throws IOException {
+        if (encoder.count() > 0 && (encoder.count() == BLOCK_SIZE || !meterId.equals(this.meterId) || value.scale() != scale)) {
+            flush();
+        }
+        if (encoder.count() == 0) {
+            this.meterId = meterId;
+            this.scale = value.scale();
+            this.previousId = 0;
+        }
+        writeVarLong(ids, zigZag(readingId - previousId));
+        previousId = readingId;
+        encoder.append(time, value.unscaledValue().longValueExact());
+    }
+
+    /**
+     * 写出当前块
+     * @throws IOException 写出失败时抛出
+     */
+    public void flush() throws IOException {
+        if (encoder.count() == 0) {
+            return;
+        }
+        header.reset();
+        writeVarLong(header, meterId);
+        writeVarLong(header, scale);
+        writeVarLong(header, encoder.count());
+        header.writeTo(out);
+        ids.writeTo(out);
+        header.reset();
+        writeVarLong(header, encoder.byteLength());
+        header.writeTo(out);
+        out.write(encoder.toByteArray());
+        ids.reset();
+        encoder.reset();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
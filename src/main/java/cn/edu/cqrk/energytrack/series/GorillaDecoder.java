@@ -0,0 +1,110 @@
+package cn.edu.cqrk.energytrack.series;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link GorillaEncoder} 编码结果的解码器
+ * 直接按绝对位置读取缓冲区（可以是内存映射文件），不复制、不移动缓冲区的 position，
+ * 每次 {@link #next()} 只更新两个 long，不为每个点创建对象
+ */
+public class GorillaDecoder {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int count;
+    private long bitPosition;
+    private int index;
+
+    private long time;
+    private long value;
+    private long timeDelta;
+    private long valueDelta;
+
+    /**
+     * @param buffer 缓冲区，编码内容从当前 position 开始
+     * @param count 点数
+     */
+    public GorillaDecoder(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.offset = buffer.position();
+        this.count = count;
+    }
+
+    /**
+     * 解码下一个点
+     * @return 没有更多点时返回 false
+     */
+    public boolean next() {
+        if (index >= count) {
+            return false;
+        }
+        if (index == 0) {
+            time = readBits(64);
+            value = readBits(64);
+        } else {
+            timeDelta += readDeltaOfDelta();
+            time += timeDelta;
+            valueDelta += readDeltaOfDelta();
+            value += valueDelta;
+        }
+        index++;
+        return true;
+    }
+
+    /**
+     * @return 当前点的时间（毫秒）
+     */
+    public long time() {
+        return time;
+    }
+
+    /**
+     * @return 当前点的定点值
+     */
+    public long value() {
+        return value;
+    }
+
+    /**
+     * @return 到目前为止读取的字节数，全部解码后即编码结果的长度
+     */
+    public int bytesRead() {
+        return (int) ((bitPosition + 7) >>> 3);
+    }
+
+    private long readDeltaOfDelta() {
+        if (readBits(1) == 0) {
+            return 0;
+        }
+        if (readBits(1) == 0) {
+            return signed(readBits(7), 7);
+        }
+        if (readBits(1) == 0) {
+            return signed(readBits(9), 9);
+        }
+        if (readBits(1) == 0) {
+            return signed(readBits(12), 12);
+        }
+        if (readBits(1) == 0) {
+            return signed(readBits(32), 32);
+        }
+        return readBits(64);
+    }
+
+    private static long signed(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+
+    private long readBits(int bits) {
+        long result = 0;
+        while (bits > 0) {
+            int current = buffer.get(offset + (int) (bitPosition >>> 3)) & 0xFF;
+            int available = 8 - (int) (bitPosition & 7);
+            int n = Math.min(available, bits);
+            result = (result << n) | ((current >>> (available - n)) & ((1 << n) - 1));
+            bitPosition += n;
+            bits -= n;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package cn.edu.cqrk.energytrack.series;
+
+import java.util.Arrays;
+
+/**
+ * Gorilla 风格的 (时间, 定点值) 序列位级编码
+ * 第一个点直接写 64 位时间和 64 位值；之后时间和值各自写二阶差分（delta-of-delta），
+ * 按取值范围选择变长前缀：0 表示与上一间隔相同，10/110/1110 后跟 7/9/12 位有符号数，
+ * 11110 后跟 32 位，11111 后跟 64 位。
+ * 规整间隔的时间戳每点只占 1 位；读数值是定点长整数（BigDecimal 的非标度值），
+ * 用差分而不是 XOR，用电速率平稳时每点只占几位，小数位由调用方单独保存，因此可以无损还原
+ */
+public class GorillaEncoder {
+
+    private byte[] bytes;
+    private long bitLength;
+    private int count;
+
+    private long previousTime;
+    private long previousTimeDelta;
+    private long previousValue;
+    private long previousValueDelta;
+
+    /**
+     * @param expectedCount 预计点数，用于预分配缓冲区
+     */
+    public GorillaEncoder(int expectedCount) {
+        this.bytes = new byte[Math.max(32, expectedCount / 2 + 16)];
+    }
+
+    /**
+     * 追加一个点，时间应按升序追加（乱序也能正确还原，只是占用更多位）
+     * @param time 时间（毫秒）
+     * @param value 定点值
+     */
+    public void append(long time, long value) {
+        if (count == 0) {
+            writeBits(time, 64);
+            writeBits(value, 64);
+        } else {
+            long timeDelta = time - previousTime;
+            writeDeltaOfDelta(timeDelta - previousTimeDelta);
+            previousTimeDelta = timeDelta;
+            long valueDelta = value - previousValue;
+            writeDeltaOfDelta(valueDelta - previousValueDelta);
+            previousValueDelta = valueDelta;
+        }
+        previousTime = time;
+        previousValue = value;
+        count++;
+    }
+
+    /**
+     * @return 已追加的点数
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return 编码结果的字节数（最后一个字节不足 8 位时补零）
+     */
+    public int byteLength() {
+        return (int) ((bitLength + 7) >>> 3);
+    }
+
+    /**
+     * @return 编码结果，解码时需要同时提供点数
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, byteLength());
+    }
+
+    /**
+     * 清空已写入的内容，复用缓冲区
+     */
+    public void reset() {
+        Arrays.fill(bytes, 0, byteLength(), (byte) 0);
+        bitLength = 0;
+        count = 0;
+        previousTime = 0;
+        previousTimeDelta = 0;
+        previousValue = 0;
+        previousValueDelta = 0;
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0, 1);
+        } else if (fits(deltaOfDelta, 7)) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta, 7);
+        } else if (fits(deltaOfDelta, 9)) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta, 9);
+        } else if (fits(deltaOfDelta, 12)) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta, 12);
+        } else if (fits(deltaOfDelta, 32)) {
+            writeBits(0b11110, 5);
+            writeBits(deltaOfDelta, 32);
+        } else {
+            writeBits(0b11111, 5);
+            writeBits(deltaOfDelta, 64);
+        }
+    }
+
+    private static boolean fits(long value, int bits) {
+        long min = -(1L << (bits - 1));
+        return value >= min && value <= -min - 1;
+    }
+
+    /**
+     * 从高位到低位写出 value 的低 bits 位
+     */
+    private void writeBits(long value, int bits) {
+        int required = (int) ((bitLength + bits + 7) >>> 3);
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+        }
+        while (bits > 0) {
+            int index = (int) (bitLength >>> 3);
+            int free = 8 - (int) (bitLength & 7);
+            int n = Math.min(free, bits);
+            int chunk = (int) (value >>> (bits - n)) & ((1 << n) - 1);
+            bytes[index] |= (byte) (chunk << (free - n));
+            bitLength += n;
+            bits -= n;
+        }
+    }
+}
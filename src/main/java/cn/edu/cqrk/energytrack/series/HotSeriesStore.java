@@ -0,0 +1,542 @@
+package cn.edu.cqrk.energytrack.series;
+
+import cn.edu.cqrk.energytrack.cache.CacheInvalidationBus;
+import cn.edu.cqrk.energytrack.config.HotSeriesProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 近期读数内存序列
+ * 每个电表最近若干天的读数按时间顺序保存在定长的基本类型数组块中（读数ID、时间毫秒数、定点读数值、创建/更新时间），
+ * 每条读数约 36 字节，查询时直接遍历数组，不为每条读数创建 MeterReading 对象。
+ * 启动后在后台整体加载，之后读数写入提交后追加；修改、删除读数时丢弃该电表的序列，下次查询时重新加载。
+ * 其他节点写入时通过 {@link CacheInvalidationBus} 通知本节点丢弃对应序列。
+ * 序列尚未加载完成或查询范围早于保留窗口时，{@link #scan} 返回 false，调用方回退到数据库查询
+ */
+@Component
+public class HotSeriesStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotSeriesStore.class);
+
+    // 读数值的小数位，与 meter_reading.reading_value DECIMAL(12, 2) 一致
+    public static final int VALUE_SCALE = 2;
+    private static final double SCALE_FACTOR = 100D;
+    // 每个数组块容纳的读数条数，淘汰时整块丢弃
+    private static final int CHUNK_SIZE = 1024;
+    private static final String NAME = "meterReadings";
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final HotSeriesProperties properties;
+    private final MeterReadingMapper meterReadingMapper;
+    private final CacheInvalidationBus bus;
+    private final ConcurrentMap<Integer, MeterSeries> series = new ConcurrentHashMap<>();
+
+    /**
+     * 逐条访问读数，参数均为基本类型
+     */
+    @FunctionalInterface
+    public interface PointVisitor {
+        /**
+         * @param readingId 读数ID
+         * @param time 读数时间（毫秒）
+         * @param value 读数值乘以 10^{@link #VALUE_SCALE} 后的定点值
+         * @return 返回 false 时停止遍历
+         */
+        boolean visit(int readingId, long time, long value);
+    }
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public HotSeriesStore(HotSeriesProperties properties, MeterReadingMapper meterReadingMapper, CacheInvalidationBus bus) {
+        this.properties = properties;
+        this.meterReadingMapper = meterReadingMapper;
+        this.bus = bus;
+        bus.register(CacheInvalidationBus.TYPE_HOT_SERIES, (name, key) -> {
+            if (CacheInvalidationBus.ALL_KEYS.equals(key)) {
+                series.clear();
+            } else {
+                series.remove(Integer.valueOf(key));
+            }
+        });
+    }
+
+    /**
+     * 应用启动完成后在后台线程中按电表顺序流式加载全部电表的近期读数，加载期间的查询回退到数据库
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled() || !properties.isWarmOnStartup()) {
+            return;
+        }
+        Thread thread = new Thread(this::loadAll, "hot-series-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 按时间顺序遍历指定电表在 [from, to) 内的读数
+     * @param meterId 电表ID
+     * @param from 开始时间（毫秒，包含）
+     * @param to 结束时间（毫秒，不包含）
+     * @param visitor 访问器
+     * @return 内存序列覆盖该范围并完成遍历时返回 true；返回 false 时调用方需要从数据库读取
+     */
+    public boolean scan(Integer meterId, long from, long to, PointVisitor visitor) {
+        MeterSeries meterSeries = ready(meterId, from);
+        if (meterSeries == null) {
+            return false;
+        }
+        meterSeries.lock.readLock().lock();
+        try {
+            if (from < meterSeries.loadedFrom) {
+                return false;
+            }
+            meterSeries.forEach(from, to, (chunk, i) -> visitor.visit(chunk.ids[i], chunk.times[i], chunk.values[i]));
+            return true;
+        } finally {
+            meterSeries.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 读取指定电表在 [from, to) 内的读数
+     * @param meterId 电表ID
+     * @param from 开始时间（毫秒，包含）
+     * @param to 结束时间（毫秒，不包含）
+     * @return 按时间升序的读数；内存序列不覆盖该范围时返回 null
+     */
+    public List<MeterReadingVo> read(Integer meterId, long from, long to) {
+        MeterSeries meterSeries = ready(meterId, from);
+        if (meterSeries == null) {
+            return null;
+        }
+        meterSeries.lock.readLock().lock();
+        try {
+            if (from < meterSeries.loadedFrom) {
+                return null;
+            }
+            List<MeterReadingVo> result = new ArrayList<>();
+            meterSeries.forEach(from, to, (chunk, i) -> {
+                result.add(new MeterReadingVo(chunk.ids[i], meterId, toDecimal(chunk.values[i]), new Date(chunk.times[i]),
+                        toDate(chunk.createTimes[i]), toDate(chunk.updateTimes[i])));
+                return true;
+            });
+            return result;
+        } finally {
+            meterSeries.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 追加已写入数据库的读数，在事务中调用时推迟到提交之后
+     * 读数ID未知时无法与加载结果去重，改为丢弃该电表的序列
+     * @param readings 已写入的读数
+     */
+    public void append(Collection<MeterReading> readings) {
+        if (!properties.isEnabled() || readings.isEmpty()) {
+            return;
+        }
+        List<MeterReading> copy = new ArrayList<>(readings);
+        runAfterCommit(() -> {
+            long windowStart = windowStart();
+            Set<Integer> touched = new LinkedHashSet<>();
+            for (MeterReading reading : copy) {
+                Integer meterId = reading.getMeterId();
+                if (reading.getReadingId() == null || reading.getReadingValue() == null) {
+                    series.remove(meterId);
+                } else if (reading.getReadingTime().getTime() >= windowStart) {
+                    MeterSeries meterSeries = series.computeIfAbsent(meterId, id -> new MeterSeries(id, windowStart));
+                    meterSeries.lock.writeLock().lock();
+                    try {
+                        meterSeries.insert(reading);
+                    } finally {
+                        meterSeries.lock.writeLock().unlock();
+                    }
+                }
+                touched.add(meterId);
+            }
+            for (Integer meterId : touched) {
+                bus.publish(CacheInvalidationBus.TYPE_HOT_SERIES, NAME, String.valueOf(meterId));
+            }
+        });
+    }
+
+    /**
+     * 丢弃指定电表的序列，用于读数修改、删除之后，在事务中调用时推迟到提交之后
+     * @param meterId 电表ID
+     */
+    public void invalidate(Integer meterId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        runAfterCommit(() -> {
+            series.remove(meterId);
+            bus.publish(CacheInvalidationBus.TYPE_HOT_SERIES, NAME, String.valueOf(meterId));
+        });
+    }
+
+    /**
+     * 丢弃全部电表的序列，用于无法确定影响范围的直接改表之后，之后的查询重新从数据库加载
+     */
+    public void invalidateAll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        runAfterCommit(() -> {
+            series.clear();
+            bus.publish(CacheInvalidationBus.TYPE_HOT_SERIES, NAME, CacheInvalidationBus.ALL_KEYS);
+        });
+    }
+
+    /**
+     * 定时丢弃超出保留窗口的读数块
+     */
+    @Scheduled(fixedDelayString = "${energytrack.hot-series.trim-interval:PT10M}",
+            initialDelayString = "${energytrack.hot-series.trim-interval:PT10M}")
+    public void trim() {
+        long windowStart = windowStart();
+        for (MeterSeries meterSeries : series.values()) {
+            meterSeries.lock.writeLock().lock();
+            try {
+                meterSeries.trimBefore(windowStart);
+            } finally {
+                meterSeries.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 内存序列中的读数条数
+     */
+    public long size() {
+        long size = 0;
+        for (MeterSeries meterSeries : series.values()) {
+            size += meterSeries.size();
+        }
+        return size;
+    }
+
+    public static BigDecimal toDecimal(long value) {
+        return BigDecimal.valueOf(value, VALUE_SCALE);
+    }
+
+    public static double toDouble(long value) {
+        return value / SCALE_FACTOR;
+    }
+
+    public static long toFixed(BigDecimal value) {
+        return value.setScale(VALUE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 获取可以查询的序列，尚未加载时在当前线程加载（同一电表只有一个线程加载，其余线程回退到数据库）
+     */
+    private MeterSeries ready(Integer meterId, long from) {
+        if (!properties.isEnabled() || meterId == null || from < windowStart()) {
+            return null;
+        }
+        MeterSeries meterSeries = series.computeIfAbsent(meterId, id -> new MeterSeries(id, windowStart()));
+        if (meterSeries.ready) {
+            return meterSeries;
+        }
+        if (!meterSeries.loading.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            meterReadingMapper.streamSince(meterId, new Date(meterSeries.loadedFrom), context -> meterSeries.insertLocked(context.getResultObject()));
+            meterSeries.ready = true;
+            return meterSeries;
+        } catch (RuntimeException e) {
+            series.remove(meterId, meterSeries);
+            logger.warn("加载电表 {} 的近期读数失败: {}", meterId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 一次流式查询加载全部电表的近期读数，已有其他线程在加载的电表跳过
+     */
+    private void loadAll() {
+        long begin = System.currentTimeMillis();
+        long windowStart = windowStart();
+        MeterSeries[] current = new MeterSeries[1];
+        boolean[] claimed = new boolean[1];
+        int[] meters = new int[1];
+        try {
+            meterReadingMapper.streamSince(null, new Date(windowStart), context -> {
+                MeterReading reading = context.getResultObject();
+                if (current[0] == null || !current[0].meterId.equals(reading.getMeterId())) {
+                    if (current[0] != null && claimed[0]) {
+                        current[0].ready = true;
+                        meters[0]++;
+                    }
+                    current[0] = series.computeIfAbsent(reading.getMeterId(), id -> new MeterSeries(id, windowStart));
+                    claimed[0] = current[0].loading.compareAndSet(false, true);
+                    if (claimed[0]) {
+                        // 追加时创建的序列窗口起点可能更早，只保证从本次加载的起点开始完整
+                        current[0].loadedFrom = Math.max(current[0].loadedFrom, windowStart);
+                    }
+                }
+                if (claimed[0]) {
+                    current[0].insertLocked(reading);
+                }
+            });
+            if (current[0] != null && claimed[0]) {
+                current[0].ready = true;
+                meters[0]++;
+            }
+            logger.info("近期读数内存序列加载完成，电表: {}，读数: {} 条，耗时 {}ms",
+                    meters[0], size(), System.currentTimeMillis() - begin);
+        } catch (Exception e) {
+            // 加载到一半的序列没有完成标记，丢弃后由首次查询重新加载
+            if (current[0] != null && claimed[0]) {
+                series.remove(current[0].meterId, current[0]);
+            }
+            logger.error("近期读数内存序列加载失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private long windowStart() {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(properties.getDays());
+    }
+
+    private static Date toDate(long time) {
+        return time == NO_TIME ? null : new Date(time);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotVisitor {
+        boolean visit(Chunk chunk, int index);
+    }
+
+    /**
+     * 一个电表的序列：按时间升序排列的数组块，loadedFrom 之后的读数是完整的
+     */
+    private static final class MeterSeries {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicBoolean loading = new AtomicBoolean();
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final Integer meterId;
+        private volatile boolean ready;
+        private volatile long loadedFrom;
+
+        MeterSeries(Integer meterId, long loadedFrom) {
+            this.meterId = meterId;
+            this.loadedFrom = loadedFrom;
+        }
+
+        void insertLocked(MeterReading reading) {
+            lock.writeLock().lock();
+            try {
+                insert(reading);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 按时间插入一条读数，已有相同读数ID时覆盖；按时间顺序追加时只写最后一块
+         */
+        void insert(MeterReading reading) {
+            long time = reading.getReadingTime().getTime();
+            if (time < loadedFrom) {
+                return;
+            }
+            int id = reading.getReadingId();
+            long value = toFixed(reading.getReadingValue());
+            long createTime = reading.getCreateTime() == null ? NO_TIME : reading.getCreateTime().getTime();
+            long updateTime = reading.getUpdateTime() == null ? NO_TIME : reading.getUpdateTime().getTime();
+
+            int c = chunks.size() - 1;
+            while (c > 0 && chunks.get(c).times[0] > time) {
+                c--;
+            }
+            if (c < 0) {
+                chunks.add(new Chunk());
+                c = 0;
+            }
+            Chunk chunk = chunks.get(c);
+            int position = chunk.upperBound(time);
+            for (int i = position - 1; i >= 0 && chunk.times[i] == time; i--) {
+                if (chunk.ids[i] == id) {
+                    chunk.set(i, id, time, value, createTime, updateTime);
+                    return;
+                }
+            }
+            if (chunk.size == CHUNK_SIZE) {
+                if (position == CHUNK_SIZE) {
+                    chunk = new Chunk();
+                    chunks.add(c + 1, chunk);
+                    position = 0;
+                } else {
+                    Chunk tail = chunk.splitHalf();
+                    chunks.add(c + 1, tail);
+                    if (position > chunk.size) {
+                        position -= chunk.size;
+                        chunk = tail;
+                    }
+                }
+            }
+            chunk.insert(position, id, time, value, createTime, updateTime);
+        }
+
+        void forEach(long from, long to, SlotVisitor visitor) {
+            for (Chunk chunk : chunks) {
+                if (chunk.size == 0 || chunk.times[chunk.size - 1] < from) {
+                    continue;
+                }
+                for (int i = chunk.lowerBound(from); i < chunk.size; i++) {
+                    if (chunk.times[i] >= to || !visitor.visit(chunk, i)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 丢弃全部读数早于 windowStart 的块，之后只保证 windowStart 之后的读数完整
+         */
+        void trimBefore(long windowStart) {
+            if (windowStart <= loadedFrom) {
+                return;
+            }
+            while (!chunks.isEmpty()) {
+                Chunk first = chunks.get(0);
+                if (first.size > 0 && first.times[first.size - 1] >= windowStart) {
+                    break;
+                }
+                chunks.remove(0);
+            }
+            loadedFrom = windowStart;
+        }
+
+        long size() {
+            lock.readLock().lock();
+            try {
+                long size = 0;
+                for (Chunk chunk : chunks) {
+                    size += chunk.size;
+                }
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 定长数组块，按列保存读数
+     */
+    private static final class Chunk {
+        private final int[] ids = new int[CHUNK_SIZE];
+        private final long[] times = new long[CHUNK_SIZE];
+        private final long[] values = new long[CHUNK_SIZE];
+        private final long[] createTimes = new long[CHUNK_SIZE];
+        private final long[] updateTimes = new long[CHUNK_SIZE];
+        private int size;
+
+        int lowerBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int upperBound(long time) {
+            if (size == 0 || times[size - 1] <= time) {
+                return size;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void set(int i, int id, long time, long value, long createTime, long updateTime) {
+            ids[i] = id;
+            times[i] = time;
+            values[i] = value;
+            createTimes[i] = createTime;
+            updateTimes[i] = updateTime;
+        }
+
+        void insert(int position, int id, long time, long value, long createTime, long updateTime) {
+            int moved = size - position;
+            if (moved > 0) {
+                System.arraycopy(ids, position, ids, position + 1, moved);
+                System.arraycopy(times, position, times, position + 1, moved);
+                System.arraycopy(values, position, values, position + 1, moved);
+                System.arraycopy(createTimes, position, createTimes, position + 1, moved);
+                System.arraycopy(updateTimes, position, updateTimes, position + 1, moved);
+            }
+            set(position, id, time, value, createTime, updateTime);
+            size++;
+        }
+
+        /**
+         * 把后一半移到新块中，用于在已满的块中间插入
+         */
+        Chunk splitHalf() {
+            Chunk tail = new Chunk();
+            int half = size / 2;
+            int moved = size - half;
+            System.arraycopy(ids, half, tail.ids, 0, moved);
+            System.arraycopy(times, half, tail.times, 0, moved);
+            System.arraycopy(values, half, tail.values, 0, moved);
+            System.arraycopy(createTimes, half, tail.createTimes, 0, moved);
+            System.arraycopy(updateTimes, half, tail.updateTimes, 0, moved);
+            tail.size = moved;
+            size = half;
+            return tail;
+        }
+    }
+}
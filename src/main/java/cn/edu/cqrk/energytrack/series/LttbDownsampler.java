@@ -0,0 +1,150 @@
+package cn.edu.cqrk.energytrack.series;
+
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets 降采样（按时间等分分桶的流式版本）
+ * 首末读数始终保留；中间读数按时间等分为 maxPoints - 2 个桶，每个桶选出与上一个选中点、
+ * 下一个桶平均点构成三角形面积最大的真实读数。
+ * 由于下一个桶的平均值要等该桶读完才知道，这里只缓存相邻两个桶的点，
+ * 内存占用与单桶点数相关，而与整个范围的读数条数无关。
+ * 读数总条数不超过 maxPoints 时不做降采样，原样返回全部读数
+ */
+public class LttbDownsampler implements SeriesDownsampler {
+
+    private final Integer meterId;
+    private final long origin;
+    private final double bucketWidth;
+    private final int maxPoints;
+    private final List<MeterReadingVo> result;
+
+    private boolean hasFirst;
+    private long selectedTime;
+    private double selectedValue;
+
+    private PointBuffer previous = new PointBuffer(); // 已读完、待选点的桶
+    private PointBuffer current = new PointBuffer(); // 正在读入的桶
+    private long currentIndex = -1;
+    private PointBuffer pending = new PointBuffer(); // 条数超过 maxPoints 之前先缓存，超过后置空
+
+    /**
+     * @param meterId 电表ID
+     * @param startTime 范围起始时间（毫秒）
+     * @param endTime 范围结束时间（毫秒）
+     * @param maxPoints 最多输出点数（至少为 3）
+     * @throws IllegalArgumentException maxPoints 小于 3 时抛出
+     */
+    public LttbDownsampler(Integer meterId, long startTime, long endTime, int maxPoints) {
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("maxPoints 至少为 3: " + maxPoints);
+        }
+        this.meterId = meterId;
+        this.maxPoints = maxPoints;
+        this.origin = startTime;
+        this.bucketWidth = Math.max(1.0, (double) (endTime - startTime + 1) / (maxPoints - 2));
+        this.result = new ArrayList<>(maxPoints);
+    }
+
+    @Override
+    public void accept(Integer readingId, long time, double value) {
+        if (pending == null) {
+            sample(readingId, time, value);
+            return;
+        }
+        pending.add(readingId, time, value);
+        if (pending.size() > maxPoints) {
+            PointBuffer buffered = pending;
+            pending = null;
+            for (int i = 0; i < buffered.size(); i++) {
+                sample(buffered.id(i), buffered.time(i), buffered.value(i));
+            }
+        }
+    }
+
+    @Override
+    public List<MeterReadingVo> finish() {
+        if (pending != null) {
+            for (int i = 0; i < pending.size(); i++) {
+                result.add(toVo(pending.id(i), pending.time(i), pending.value(i)));
+            }
+            pending = null;
+            return result;
+        }
+        if (current.isEmpty()) {
+            return result;
+        }
+        // 最后一个读数始终保留，先从当前桶中取出
+        int lastIndex = current.size() - 1;
+        Integer lastId = current.id(lastIndex);
+        long lastTime = current.time(lastIndex);
+        double lastValue = current.value(lastIndex);
+        current.removeLast();
+
+        if (!previous.isEmpty()) {
+            if (current.isEmpty()) {
+                select(previous, lastTime, lastValue);
+            } else {
+                select(previous, current.avgTime(), current.avgValue());
+            }
+        }
+        if (!current.isEmpty()) {
+            select(current, lastTime, lastValue);
+        }
+        result.add(toVo(lastId, lastTime, lastValue));
+        return result;
+    }
+
+    /**
+     * 按时间分桶选点
+     */
+    private void sample(Integer readingId, long time, double value) {
+        if (!hasFirst) {
+            // 首个读数直接保留
+            hasFirst = true;
+            selectedTime = time;
+            selectedValue = value;
+            result.add(toVo(readingId, time, value));
+            return;
+        }
+        long index = (long) ((time - origin) / bucketWidth);
+        if (index != currentIndex && !current.isEmpty()) {
+            if (!previous.isEmpty()) {
+                select(previous, current.avgTime(), current.avgValue());
+            }
+            PointBuffer recycled = previous;
+            previous = current;
+            current = recycled;
+            current.clear();
+        }
+        currentIndex = index;
+        current.add(readingId, time, value);
+    }
+
+    /**
+     * 在桶内选出与上一个选中点、下一个桶平均点构成三角形面积最大的点
+     */
+    private void select(PointBuffer bucket, double nextTime, double nextValue) {
+        int best = 0;
+        double maxArea = -1;
+        for (int i = 0; i < bucket.size(); i++) {
+            double area = Math.abs((selectedTime - nextTime) * (bucket.value(i) - selectedValue)
+                    - (selectedTime - bucket.time(i)) * (nextValue - selectedValue));
+            if (area > maxArea) {
+                maxArea = area;
+                best = i;
+            }
+        }
+        selectedTime = bucket.time(best);
+        selectedValue = bucket.value(best);
+        result.add(toVo(bucket.id(best), selectedTime, selectedValue));
+    }
+
+    private MeterReadingVo toVo(Integer readingId, long time, double value) {
+        return new MeterReadingVo(readingId, meterId, BigDecimal.valueOf(value), new Date(time), null, null);
+    }
+}
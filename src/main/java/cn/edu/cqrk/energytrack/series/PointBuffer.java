@@ -0,0 +1,74 @@
+package cn.edu.cqrk.energytrack.series;
+
+import java.util.Arrays;
+
+/**
+ * 基于基本类型数组的读数点缓冲区，避免为每个点创建对象
+ */
+class PointBuffer {
+
+    private int[] ids = new int[16];
+    private long[] times = new long[16];
+    private double[] values = new double[16];
+    private int size;
+    private double sumTime;
+    private double sumValue;
+
+    void add(Integer readingId, long time, double value) {
+        if (size == times.length) {
+            int capacity = size << 1;
+            ids = Arrays.copyOf(ids, capacity);
+            times = Arrays.copyOf(times, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        ids[size] = readingId == null ? -1 : readingId;
+        times[size] = time;
+        values[size] = value;
+        sumTime += time;
+        sumValue += value;
+        size++;
+    }
+
+    /**
+     * 移除并丢弃最后一个点
+     */
+    void removeLast() {
+        size--;
+        sumTime -= times[size];
+        sumValue -= values[size];
+    }
+
+    void clear() {
+        size = 0;
+        sumTime = 0;
+        sumValue = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    Integer id(int i) {
+        return ids[i] < 0 ? null : ids[i];
+    }
+
+    long time(int i) {
+        return times[i];
+    }
+
+    double value(int i) {
+        return values[i];
+    }
+
+    double avgTime() {
+        return sumTime / size;
+    }
+
+    double avgValue() {
+        return sumValue / size;
+    }
+}
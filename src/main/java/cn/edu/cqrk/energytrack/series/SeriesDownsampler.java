@@ -0,0 +1,26 @@
+package cn.edu.cqrk.energytrack.series;
+
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+
+import java.util.List;
+
+/**
+ * 读数序列降采样器
+ * 按时间升序逐条接收读数，结束后输出降采样结果；实现类只保留有限的中间状态，
+ * 因此可以直接挂在数据库流式查询上，内存占用与原始读数条数无关
+ */
+public interface SeriesDownsampler {
+
+    /**
+     * 接收一条读数（调用方保证按时间升序）
+     * @param readingId 读数编号
+     * @param time 读数时间（毫秒时间戳）
+     * @param value 读数值
+     */
+    void accept(Integer readingId, long time, double value);
+
+    /**
+     * 结束输入并返回降采样后的读数
+     */
+    List<MeterReadingVo> finish();
+}
@@ -0,0 +1,63 @@
+package cn.edu.cqrk.energytrack.series;
+
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 按固定时间间隔分桶求平均值的降采样器
+ * 每个桶输出一个点：时间为桶起始时间，读数为桶内平均值；只保留当前桶的累加值
+ */
+public class TimeBucketAggregator implements SeriesDownsampler {
+
+    private final Integer meterId;
+    private final long origin;
+    private final long bucketMillis;
+    private final List<MeterReadingVo> result = new ArrayList<>();
+
+    private long currentIndex = -1;
+    private double sum;
+    private int count;
+
+    /**
+     * @param meterId 电表ID
+     * @param startTime 分桶起点（毫秒）
+     * @param bucketMillis 桶宽（毫秒）
+     */
+    public TimeBucketAggregator(Integer meterId, long startTime, long bucketMillis) {
+        this.meterId = meterId;
+        this.origin = startTime;
+        this.bucketMillis = bucketMillis;
+    }
+
+    @Override
+    public void accept(Integer readingId, long time, double value) {
+        long index = (time - origin) / bucketMillis;
+        if (index != currentIndex) {
+            flush();
+            currentIndex = index;
+        }
+        sum += value;
+        count++;
+    }
+
+    @Override
+    public List<MeterReadingVo> finish() {
+        flush();
+        return result;
+    }
+
+    private void flush() {
+        if (count == 0) {
+            return;
+        }
+        BigDecimal avg = BigDecimal.valueOf(sum / count).setScale(2, RoundingMode.HALF_UP);
+        result.add(new MeterReadingVo(null, meterId, avg, new Date(origin + currentIndex * bucketMillis), null, null));
+        sum = 0;
+        count = 0;
+    }
+}
@@ -3,9 +3,13 @@ package cn.edu.cqrk.energytrack.service;
         import cn.edu.cqrk.energytrack.common.BizException;
         import cn.edu.cqrk.energytrack.entity.dto.*;
         import cn.edu.cqrk.energytrack.entity.pojo.ElectricityReport;
+        import cn.edu.cqrk.energytrack.entity.vo.ConsumptionAggregateVo;
+        import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
         import cn.edu.cqrk.energytrack.entity.vo.ElectricityReportVo;
         import com.baomidou.mybatisplus.extension.service.IService;
 
+        import javax.servlet.http.HttpServletResponse;
+        import java.io.IOException;
         import java.util.List;
 
 public interface ElectricityReportService extends IService<ElectricityReport> {
@@ -13,6 +17,9 @@ public interface ElectricityReportService extends IService<ElectricityReport> {
     boolean deleteById(Integer reportId);
     ElectricityReportVo update(ElectricityReportUpdateDto dto) throws BizException;
     List<ElectricityReportVo> search(ElectricityReportSearchDto dto);
+    void exportReports(ElectricityReportSearchDto dto, HttpServletResponse response) throws IOException;
+    CursorPageVo<ElectricityReportVo> listReports(String cursor, int limit, boolean withTotal);
     boolean detectConsumptionSurge(Integer meterId, String startTime, String endTime);
+    ConsumptionAggregateVo aggregateConsumption(ConsumptionAggregateDto dto);
 
 }
\ No newline at end of file
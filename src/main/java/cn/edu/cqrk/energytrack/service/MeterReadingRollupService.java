@@ -0,0 +1,17 @@
+package cn.edu.cqrk.energytrack.service;
+
+import cn.edu.cqrk.energytrack.common.RollupGranularity;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReadingRollup;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingRollupVo;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.util.Date;
+import java.util.List;
+
+public interface MeterReadingRollupService extends IService<MeterReadingRollup> {
+    void applyInserted(List<MeterReading> readings);
+    void rebuild(Integer meterId, Date startTime, Date endTime);
+    MeterReadingRollup summarize(Integer meterId, Date startTime, Date endTime);
+    List<MeterReadingRollupVo> listBuckets(Integer meterId, RollupGranularity granularity, Date startTime, Date endTime);
+}
@@ -1,18 +1,33 @@
 package cn.edu.cqrk.energytrack.service;
 
+import cn.edu.cqrk.energytrack.common.ExportFormat;
+import cn.edu.cqrk.energytrack.entity.dto.MeterReadingBatchDto;
 import cn.edu.cqrk.energytrack.entity.dto.MeterReadingDto;
+import cn.edu.cqrk.energytrack.entity.dto.ReadingReportBulkDto;
 import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingBatchVo;
 import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
 import com.baomidou.mybatisplus.extension.service.IService;
 import net.sf.jasperreports.engine.JRException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.SQLException;
 import java.util.List;
 
 public interface MeterReadingService extends IService<MeterReading> {
     MeterReadingVo add(MeterReadingDto dto);
+    CursorPageVo<MeterReadingVo> listReadings(String cursor, int limit, boolean withTotal);
+    MeterReadingBatchVo addBatch(MeterReadingBatchDto dto);
     List<MeterReadingVo> getReadingsByMeterId(Integer meterId, String startTime, String endTime);
+    List<MeterReadingVo> getDownsampledReadings(Integer meterId, String startTime, String endTime, Integer maxPoints, String bucket);
+    void exportReadings(Integer meterId, String startTime, String endTime, ExportFormat format, boolean gzip,
+                        HttpServletResponse response) throws IOException;
     byte[] generateReadingReport(Integer meterId, String startTime, String endTime) throws JRException;
+    void writeReadingReport(Integer meterId, String startTime, String endTime, OutputStream out) throws JRException, IOException;
+    void writeBulkReadingReports(ReadingReportBulkDto dto, HttpServletResponse response) throws IOException;
     MeterReadingVo update(MeterReadingDto dto);
     boolean deleteById(Integer readingId);
 }
\ No newline at end of file
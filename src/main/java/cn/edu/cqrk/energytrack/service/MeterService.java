@@ -3,6 +3,7 @@ package cn.edu.cqrk.energytrack.service;
 import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.entity.dto.*;
 import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.vo.MeterVo;
 import com.baomidou.mybatisplus.extension.service.IService;
 import net.sf.jasperreports.engine.JRException;
@@ -16,4 +17,6 @@ public interface MeterService extends IService<Meter> {
     MeterVo update(MeterUpdateDto dto) throws BizException;
     List<MeterVo> search(MeterSearchDto dto);
     boolean checkMeterId(Integer meterId);
+    CursorPageVo<MeterVo> listMeters(String cursor, int limit, boolean withTotal);
+    List<Meter> selectMeters(List<Integer> meterIds, String locationPrefix, String meterType, int maxMeters);
     }
\ No newline at end of file
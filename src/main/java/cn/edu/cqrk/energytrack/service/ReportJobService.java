@@ -0,0 +1,11 @@
+package cn.edu.cqrk.energytrack.service;
+
+import cn.edu.cqrk.energytrack.entity.vo.ReportJobVo;
+
+import java.io.File;
+
+public interface ReportJobService {
+    ReportJobVo submit(Integer meterId, String startTime, String endTime);
+    ReportJobVo getJob(String jobId);
+    File getResultFile(String jobId);
+}
@@ -0,0 +1,8 @@
+package cn.edu.cqrk.energytrack.service;
+
+import cn.edu.cqrk.energytrack.entity.vo.SurgeScanVo;
+
+public interface SurgeScanService {
+    SurgeScanVo scan(String startTime, String endTime);
+    SurgeScanVo getLatest();
+}
@@ -7,6 +7,7 @@ import cn.edu.cqrk.energytrack.entity.dto.SysUserLoginDto;
 import cn.edu.cqrk.energytrack.entity.dto.SysUserSearchDto;
 import cn.edu.cqrk.energytrack.entity.dto.SysUserUpdateDto;
 import cn.edu.cqrk.energytrack.entity.pojo.SysUser;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.vo.SysUserVo;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -19,6 +20,7 @@ public interface SysUserService extends IService<SysUser> {
     SysUserVo updateUser(SysUserUpdateDto dto) throws BizException;
     boolean deleteUser(Integer id);
     IPage<SysUserVo> searchUsers(SysUserSearchDto dto, long pageNum, long pageSize) throws BizException;
+    CursorPageVo<SysUserVo> listUsers(String cursor, int limit, boolean withTotal);
     boolean updateUserInfo(SysUser user);
     boolean changePassword(SysUser currentUser, String oldPassword, String newPassword);
     SysUser findUserByUsername(String username);
@@ -1,36 +1,62 @@
 package cn.edu.cqrk.energytrack.service.impl;
 
+import cn.edu.cqrk.energytrack.archive.ReadingArchive;
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.cache.MeterIdIndex;
 import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.PageCursor;
+import cn.edu.cqrk.energytrack.common.DateTimeUtil;
+import cn.edu.cqrk.energytrack.config.ReportProperties;
+import cn.edu.cqrk.energytrack.config.RollupProperties;
+import cn.edu.cqrk.energytrack.config.SurgeProperties;
 import cn.edu.cqrk.energytrack.entity.dto.*;
 import cn.edu.cqrk.energytrack.entity.pojo.ElectricityReport;
 import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.entity.vo.ConsumptionAggregateVo;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReadingRollup;
 import cn.edu.cqrk.energytrack.entity.vo.ElectricityReportVo;
-import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import cn.edu.cqrk.energytrack.entity.vo.MeterConsumptionVo;
 import cn.edu.cqrk.energytrack.mapper.ElectricityReportMapper;
-import cn.edu.cqrk.energytrack.mapper.MeterMapper;
 import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import cn.edu.cqrk.energytrack.report.XlsxStreamWriter;
+import cn.edu.cqrk.energytrack.series.HotSeriesStore;
 import cn.edu.cqrk.energytrack.service.ElectricityReportService;
-import cn.edu.cqrk.energytrack.service.MeterReadingService;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
+import cn.edu.cqrk.energytrack.service.MeterService;
+import cn.edu.cqrk.energytrack.surge.SurgeDetector;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.Comparator;
 
 /**
  * 电表报表服务实现类
@@ -39,23 +65,63 @@ import java.util.Comparator;
 @Service
 public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportMapper, ElectricityReport> implements ElectricityReportService {
 
-    private final MeterMapper meterMapper;
+    private static final Logger logger = LoggerFactory.getLogger(ElectricityReportServiceImpl.class);
+
+    // 分组查询每条语句包含的电表ID数
+    private static final int AGGREGATE_IN_CHUNK_SIZE = 1000;
+    // 导出时输出缓冲区大小
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private final MeterIdIndex meterIdIndex;
     private final MeterReadingMapper meterReadingMapper;
 
     @Autowired
-    private MeterReadingService meterReadingService;
+    private MeterReadingRollupService rollupService;
+
+    @Autowired
+    private RollupProperties rollupProperties;
+
+    @Autowired
+    private SurgeProperties surgeProperties;
+
+    @Autowired
+    private CacheGenerations cacheGenerations;
+
+    @Autowired
+    private ReadingArchive readingArchive;
+
+    @Autowired
+    private HotSeriesStore hotSeriesStore;
+
+    @Autowired
+    private MeterService meterService;
+
+    @Autowired
+    private ReportProperties reportProperties;
+
+    private ForkJoinPool aggregatePool; // 多电表汇总逐个电表计算时使用
 
     /**
      * 构造函数，注入必要的Mapper
-     * @param meterMapper 电表Mapper
+     * @param meterIdIndex 电表ID索引
      * @param meterReadingMapper 电表读数Mapper
      */
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
-    public ElectricityReportServiceImpl(MeterMapper meterMapper, MeterReadingMapper meterReadingMapper) {
-        this.meterMapper = meterMapper;
+    public ElectricityReportServiceImpl(MeterIdIndex meterIdIndex, MeterReadingMapper meterReadingMapper) {
+        this.meterIdIndex = meterIdIndex;
         this.meterReadingMapper = meterReadingMapper;
     }
 
+    @PostConstruct
+    public void init() {
+        aggregatePool = new ForkJoinPool(reportProperties.getAggregateParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        aggregatePool.shutdownNow();
+    }
+
     /**
      * 计算指定电表在指定时间范围内的总用电量
      * @param meterId 电表ID
@@ -65,22 +131,51 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
      * @throws BizException 当读数不足或读数值无效时抛出异常
      */
     private BigDecimal calculateTotalConsumption(Integer meterId, Date startTime, Date endTime) {
-        // 查询指定时间范围内的读数
-        LambdaQueryWrapper<MeterReading> readingQuery = Wrappers.lambdaQuery(MeterReading.class)
-                .eq(MeterReading::getMeterId, meterId)
-                .ge(MeterReading::getReadingTime, startTime)
-                .le(MeterReading::getReadingTime, endTime)
-                .orderByAsc(MeterReading::getReadingTime);
-        List<MeterReading> readings = meterReadingMapper.selectList(readingQuery);
+        // 近期范围直接遍历内存序列，只记录首末定点读数
+        long[] firstAndLastValue = new long[2];
+        int[] hotCount = new int[1];
+        boolean hot = hotSeriesStore.scan(meterId, startTime.getTime(), endTime.getTime() + 1, (readingId, time, value) -> {
+            if (hotCount[0]++ == 0) {
+                firstAndLastValue[0] = value;
+            }
+            firstAndLastValue[1] = value;
+            return true;
+        });
+        if (hot) {
+            if (hotCount[0] < 2) {
+                throw new BizException(BizExceptionCode.INSUFFICIENT_READINGS, "时间范围内读数不足，无法计算用电量");
+            }
+            return HotSeriesStore.toDecimal(firstAndLastValue[1] - firstAndLastValue[0]);
+        }
+
+        // 优先从汇总桶计算，成本与桶数相关而与原始读数条数无关
+        if (rollupProperties.isQueryEnabled()) {
+            MeterReadingRollup summary = rollupService.summarize(meterId, startTime, endTime);
+            if (summary.getReadingCount() < 2) {
+                throw new BizException(BizExceptionCode.INSUFFICIENT_READINGS, "时间范围内读数不足，无法计算用电量");
+            }
+            return summary.getDeltaValue();
+        }
+
+        // 按时间顺序读取指定时间范围内的读数（已归档的月份从段文件读取），只保留首末读数
+        MeterReading[] firstAndLast = new MeterReading[2];
+        int[] count = new int[1];
+        readingArchive.stream(meterId, startTime, new Date(endTime.getTime() + 1), reading -> {
+            if (firstAndLast[0] == null) {
+                firstAndLast[0] = reading;
+            }
+            firstAndLast[1] = reading;
+            count[0]++;
+        });
 
         // 检查是否有足够的读数
-        if (readings.size() < 2) {
+        if (count[0] < 2) {
             throw new BizException(BizExceptionCode.INSUFFICIENT_READINGS, "时间范围内读数不足，无法计算用电量");
         }
 
         // 计算总用电量（最后一次读数 - 第一次读数）
-        BigDecimal firstReading = readings.get(0).getReadingValue();
-        BigDecimal lastReading = readings.get(readings.size() - 1).getReadingValue();
+        BigDecimal firstReading = firstAndLast[0].getReadingValue();
+        BigDecimal lastReading = firstAndLast[1].getReadingValue();
         if (firstReading == null || lastReading == null) {
             throw new BizException(BizExceptionCode.INVALID_READING_VALUE, "读数值缺失，无法计算用电量");
         }
@@ -95,15 +190,12 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
      * @throws BizException 当电表ID无效或时间范围无效时抛出异常
      */
     @Override
-    @CacheEvict(value = "electricityReports", allEntries = true)
     public ElectricityReportVo add(ElectricityReportAddDto dto) {
         // 验证 meterId
         if (dto.getMeterId() == null) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
         }
-        LambdaQueryWrapper<Meter> meterQuery = Wrappers.lambdaQuery(Meter.class)
-                .eq(Meter::getMeterId, dto.getMeterId());
-        if (meterMapper.selectCount(meterQuery) == 0) {
+        if (!meterIdIndex.contains(dto.getMeterId())) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + dto.getMeterId());
         }
 
@@ -125,6 +217,7 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
         report.setCreateTime(new Date());
         report.setUpdateTime(new Date());
         this.save(report);
+        evictReports(report.getMeterId());
 
         ElectricityReportVo vo = new ElectricityReportVo();
         BeanUtils.copyProperties(report, vo);
@@ -138,7 +231,6 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
      * @throws BizException 当报表ID无效或报表不存在时抛出异常
      */
     @Override
-    @CacheEvict(value = "electricityReports", allEntries = true)
     public boolean deleteById(Integer reportId) {
         if (reportId == null) {
             throw new BizException(BizExceptionCode.INVALID_REPORT_ID, "报表ID不能为空");
@@ -147,7 +239,9 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
         if (report == null) {
             throw new BizException(BizExceptionCode.REPORT_NOT_FOUND, "报表不存在: " + reportId);
         }
-        return this.removeById(reportId);
+        boolean removed = this.removeById(reportId);
+        evictReports(report.getMeterId());
+        return removed;
     }
 
     /**
@@ -157,7 +251,6 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
      * @throws BizException 当报表ID无效、电表ID无效或时间范围无效时抛出异常
      */
     @Override
-    @CacheEvict(value = "electricityReports", allEntries = true)
     public ElectricityReportVo update(ElectricityReportUpdateDto dto) throws BizException {
         // 验证 reportId
         if (dto.getReportId() == null) {
@@ -172,9 +265,7 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
         if (dto.getMeterId() == null) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
         }
-        LambdaQueryWrapper<Meter> meterQuery = Wrappers.lambdaQuery(Meter.class)
-                .eq(Meter::getMeterId, dto.getMeterId());
-        if (meterMapper.selectCount(meterQuery) == 0) {
+        if (!meterIdIndex.contains(dto.getMeterId())) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + dto.getMeterId());
         }
 
@@ -190,10 +281,15 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
         BigDecimal totalConsumption = calculateTotalConsumption(dto.getMeterId(), dto.getStartTime(), dto.getEndTime());
 
         // 更新报表
+        Integer oldMeterId = report.getMeterId();
         BeanUtils.copyProperties(dto, report);
         report.setTotalConsumption(totalConsumption);
         report.setUpdateTime(new Date());
         this.updateById(report);
+        evictReports(oldMeterId);
+        if (!oldMeterId.equals(report.getMeterId())) {
+            cacheGenerations.bump(CacheGenerations.ELECTRICITY_REPORTS, report.getMeterId());
+        }
 
         ElectricityReportVo vo = new ElectricityReportVo();
         BeanUtils.copyProperties(report, vo);
@@ -207,21 +303,10 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
      * @throws BizException 当电表ID无效、时间范围无效或未找到数据时抛出异常
      */
     @Override
-    @Cacheable(value = "electricity_reports_search", key = "#dto.toString()")
+    @Cacheable(value = "electricity_reports_search",
+            key = "@cacheGenerations.tag('electricityReports', #dto.meterId != null ? #dto.meterId : 'all') + ':' + #dto.toString()")
     public List<ElectricityReportVo> search(ElectricityReportSearchDto dto) {
-        // 验证 meterId
-        if (dto.getMeterId() != null) {
-            LambdaQueryWrapper<Meter> meterQuery = Wrappers.lambdaQuery(Meter.class)
-                    .eq(Meter::getMeterId, dto.getMeterId());
-            if (meterMapper.selectCount(meterQuery) == 0) {
-                throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + dto.getMeterId());
-            }
-        }
-
-        // 验证时间范围
-        if (dto.getStartTime() != null && dto.getEndTime() != null && dto.getStartTime().after(dto.getEndTime())) {
-            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
-        }
+        validateSearch(dto);
 
         // 查询
         LambdaQueryWrapper<ElectricityReport> queryWrapper = Wrappers.lambdaQuery(ElectricityReport.class);
@@ -246,83 +331,246 @@ public class ElectricityReportServiceImpl extends ServiceImpl<ElectricityReportM
     }
 
     /**
-     * 检测用电量突增
-     * @param meterId 电表ID
-     * @param startTime 开始时间字符串
-     * @param endTime 结束时间字符串
-     * @return 是否检测到用电量突增
+     * 按搜索条件导出报表为 xlsx
+     * 报表通过流式查询逐行写入 SXSSF 工作表，不构建结果列表，内存中只保留最近的若干行；
+     * 参数校验在写出响应头之前完成，校验失败时仍按统一格式返回错误
+     * @param dto 搜索条件，与报表搜索相同
+     * @param response HTTP 响应
+     * @throws BizException 当电表ID或时间范围无效时抛出
+     * @throws IOException 写出响应失败时抛出
      */
     @Override
-    public boolean detectConsumptionSurge(Integer meterId, String startTime, String endTime) {
-        // 获取指定电表在指定时间范围内的抄表数据
-        List<MeterReadingVo> readingVos = meterReadingService.getReadingsByMeterId(meterId, startTime, endTime);
-
-        // 如果抄表数据为空或少于两条，则无法进行比较，直接返回 false
-        if (readingVos == null || readingVos.size() < 2) {
-            return false;
-        }
-
-        // 将 MeterReadingVo 转换为包含 LocalDateTime 时间戳的临时对象以便排序
-        List<TempReading> readings = readingVos.stream().map(vo -> {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            LocalDateTime readingTime = LocalDateTime.parse(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(vo.getReadingTime()), formatter);
-            return new TempReading(readingTime, vo.getReadingValue().doubleValue());
-        }).collect(Collectors.toList());
-
-        // 按照时间戳对抄表数据进行排序
-        readings.sort(Comparator.comparing(TempReading::getTimestamp));
-
-        // 定义短时间窗口，这里设置为 1 小时
-        long shortTimeWindowHours = 1;
-
-        // 遍历排序后的抄表数据，从第二条数据开始与之前的记录进行比较
-        for (int i = 1; i < readings.size(); i++) {
-            TempReading currentReading = readings.get(i);
-            LocalDateTime currentTime = currentReading.getTimestamp();
-            double currentConsumption = currentReading.getConsumption();
-
-            // 遍历当前记录之前的记录，查找在短时间窗口内的前一条记录
-            for (int j = i - 1; j >= 0; j--) {
-                TempReading previousReading = readings.get(j);
-                LocalDateTime previousTime = previousReading.getTimestamp();
-                double previousConsumption = previousReading.getConsumption();
-
-                // 判断前一条记录是否在短时间窗口内
-                if (currentTime.minusHours(shortTimeWindowHours).isBefore(previousTime)) {
-                    // 判断当前用电量是否超过前一条记录的 3 倍 (即增长超过 200%)，并确保前一条记录的用电量不为负数
-                    if (currentConsumption > 3 * previousConsumption && previousConsumption >= 0) {
-                        return true; // 检测到用电量突增，返回 true
+    public void exportReports(ElectricityReportSearchDto dto, HttpServletResponse response) throws IOException {
+        validateSearch(dto);
+        response.setContentType(XlsxStreamWriter.CONTENT_TYPE);
+        response.setHeader("Content-Disposition",
+                "attachment; filename=" + URLEncoder.encode("electricity_reports.xlsx", StandardCharsets.UTF_8.name()));
+
+        long begin = System.currentTimeMillis();
+        try (XlsxStreamWriter writer = new XlsxStreamWriter("用电报表",
+                "报表编号", "电表编号", "起始时间", "结束时间", "总用电量", "创建时间")) {
+            baseMapper.streamSearch(dto.getMeterId(), dto.getStartTime(), dto.getEndTime(), context -> {
+                ElectricityReport report = context.getResultObject();
+                writer.startRow()
+                        .addInt(report.getReportId())
+                        .addInt(report.getMeterId())
+                        .addDate(report.getStartTime())
+                        .addDate(report.getEndTime())
+                        .addDecimal(report.getTotalConsumption())
+                        .addDate(report.getCreateTime());
+            });
+            try (OutputStream out = new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)) {
+                writer.write(out);
+            }
+            logger.info("导出报表完成，条数: {}，耗时: {}ms", writer.getRowCount(), System.currentTimeMillis() - begin);
+        }
+    }
+
+    private void validateSearch(ElectricityReportSearchDto dto) {
+        // 验证 meterId
+        if (dto.getMeterId() != null) {
+            if (!meterIdIndex.contains(dto.getMeterId())) {
+                throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + dto.getMeterId());
+            }
+        }
+
+        // 验证时间范围
+        if (dto.getStartTime() != null && dto.getEndTime() != null && dto.getStartTime().after(dto.getEndTime())) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+    }
+
+    /**
+     * 使某个电表的报表搜索缓存以及不区分电表的分页、搜索缓存失效
+     */
+    private void evictReports(Integer meterId) {
+        cacheGenerations.bump(CacheGenerations.ELECTRICITY_REPORTS, meterId);
+        cacheGenerations.bump(CacheGenerations.ELECTRICITY_REPORTS, CacheGenerations.ALL);
+    }
+
+    /**
+     * 汇总一组电表在时间范围内的用电量
+     * 电表按ID列表、安装位置前缀、电表类型筛选（条件同时生效）；每个电表的首末读数由一条分组查询得到，
+     * 不读取范围内的全部读数。有读数已归档到段文件的电表无法在这条查询中算出，改为按电表并行计算
+     * （启用汇总表时读取汇总桶，否则流式读取归档和数据库中的读数）
+     * @param dto 筛选条件和时间范围
+     * @return 各电表用电量和合计
+     * @throws BizException 未指定筛选条件、电表类型无效、时间范围无效或匹配的电表过多时抛出
+     */
+    @Override
+    public ConsumptionAggregateVo aggregateConsumption(ConsumptionAggregateDto dto) {
+        long begin = System.currentTimeMillis();
+        if (dto.getStartTime() == null || dto.getEndTime() == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(dto.getStartTime());
+        Date end = DateTimeUtil.parse(dto.getEndTime());
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+        List<Meter> meters = meterService.selectMeters(dto.getMeterIds(), dto.getLocationPrefix(), dto.getMeterType(),
+                reportProperties.getAggregateMaxMeters());
+
+        // 结束时间包含在内，查询使用左闭右开区间
+        Date endExclusive = new Date(end.getTime() + 1);
+        List<Integer> grouped = new ArrayList<>(meters.size());
+        List<Integer> archived = new ArrayList<>();
+        for (Meter meter : meters) {
+            if (readingArchive.hasSegments(meter.getMeterId(), start, endExclusive)) {
+                archived.add(meter.getMeterId());
+            } else {
+                grouped.add(meter.getMeterId());
+            }
+        }
+
+        Map<Integer, MeterConsumptionVo> byMeter = new HashMap<>(meters.size() * 2);
+        for (int from = 0; from < grouped.size(); from += AGGREGATE_IN_CHUNK_SIZE) {
+            List<Integer> chunk = grouped.subList(from, Math.min(from + AGGREGATE_IN_CHUNK_SIZE, grouped.size()));
+            for (MeterConsumptionVo row : meterReadingMapper.selectFirstAndLastByMeters(chunk, start, endExclusive)) {
+                byMeter.put(row.getMeterId(), row);
+            }
+        }
+        if (!archived.isEmpty()) {
+            List<CompletableFuture<MeterConsumptionVo>> futures = new ArrayList<>(archived.size());
+            for (Integer meterId : archived) {
+                futures.add(CompletableFuture.supplyAsync(() -> summarizeMeter(meterId, start, end), aggregatePool));
+            }
+            try {
+                for (CompletableFuture<MeterConsumptionVo> future : futures) {
+                    MeterConsumptionVo row = future.join();
+                    if (row != null) {
+                        byMeter.put(row.getMeterId(), row);
                     }
-                } else {
-                    // 如果前一条记录的时间已经超出了短时间窗口，则更早的记录也不需要再比较了，直接跳出内层循环
-                    break;
                 }
+            } catch (CompletionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
             }
         }
 
-        // 遍历结束后未检测到用电量突增，返回 false
-        return false;
+        List<MeterConsumptionVo> result = new ArrayList<>(meters.size());
+        BigDecimal total = BigDecimal.ZERO;
+        int measured = 0;
+        for (Meter meter : meters) {
+            MeterConsumptionVo row = byMeter.get(meter.getMeterId());
+            if (row == null) {
+                row = new MeterConsumptionVo();
+                row.setMeterId(meter.getMeterId());
+            }
+            row.setMeterLocation(meter.getMeterLocation());
+            // 首末读数时间相同说明范围内只有一条读数，与单电表计算一样视为读数不足
+            if (row.getConsumption() == null && row.getFirstTime() != null && row.getLastTime().after(row.getFirstTime())
+                    && row.getFirstValue() != null && row.getLastValue() != null) {
+                row.setConsumption(row.getLastValue().subtract(row.getFirstValue()));
+            }
+            if (row.getConsumption() != null) {
+                total = total.add(row.getConsumption());
+                measured++;
+            }
+            result.add(row);
+        }
+        return new ConsumptionAggregateVo(start, end, meters.size(), measured, total,
+                System.currentTimeMillis() - begin, result);
     }
 
     /**
-     * 临时内部类，用于存储和处理抄表数据
-     * 方便进行时间排序和用电量比较
+     * 计算单个电表的首末读数，用于有已归档读数的电表
+     * @return 范围内没有读数时返回 null
      */
-    private static class TempReading {
-        private LocalDateTime timestamp;
-        private double consumption;
+    private MeterConsumptionVo summarizeMeter(Integer meterId, Date start, Date end) {
+        if (rollupProperties.isQueryEnabled()) {
+            MeterReadingRollup summary = rollupService.summarize(meterId, start, end);
+            if (summary.getReadingCount() == 0) {
+                return null;
+            }
+            return new MeterConsumptionVo(meterId, null, summary.getFirstTime(), summary.getFirstValue(),
+                    summary.getLastTime(), summary.getLastValue(), summary.getReadingCount() < 2 ? null : summary.getDeltaValue());
+        }
+        MeterReading[] firstAndLast = new MeterReading[2];
+        readingArchive.stream(meterId, start, new Date(end.getTime() + 1), reading -> {
+            if (firstAndLast[0] == null) {
+                firstAndLast[0] = reading;
+            }
+            firstAndLast[1] = reading;
+        });
+        if (firstAndLast[0] == null) {
+            return null;
+        }
+        return new MeterConsumptionVo(meterId, null, firstAndLast[0].getReadingTime(), firstAndLast[0].getReadingValue(),
+                firstAndLast[1].getReadingTime(), firstAndLast[1].getReadingValue(), null);
+    }
 
-        public TempReading(LocalDateTime timestamp, double consumption) {
-            this.timestamp = timestamp;
-            this.consumption = consumption;
+    /**
+     * 检测用电量突增
+     * 读数按时间升序从数据库流式读取，逐条交给突增检测器，检测到第一次突增即停止读取
+     * @param meterId 电表ID
+     * @param startTime 开始时间字符串
+     * @param endTime 结束时间字符串
+     * @return 是否检测到用电量突增
+     * @throws BizException 当电表ID或时间范围无效时抛出
+     */
+    @Override
+    public boolean detectConsumptionSurge(Integer meterId, String startTime, String endTime) {
+        if (meterId == null) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
+        }
+        if (!meterIdIndex.contains(meterId)) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + meterId);
+        }
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(startTime);
+        Date end = DateTimeUtil.parse(endTime);
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
         }
 
-        public LocalDateTime getTimestamp() {
-            return timestamp;
+        SurgeDetector detector = new SurgeDetector(TimeUnit.MINUTES.toMillis(surgeProperties.getWindowMinutes()),
+                surgeProperties.getRatio());
+        boolean[] surge = new boolean[1];
+        boolean hot = hotSeriesStore.scan(meterId, start.getTime(), end.getTime() + 1, (readingId, time, value) -> {
+            surge[0] = detector.accept(time, HotSeriesStore.toDouble(value));
+            return !surge[0];
+        });
+        if (hot) {
+            return surge[0];
         }
+        // 热数据未覆盖时回退到归档段与数据库，检测到激增即停止读取
+        readingArchive.streamWhile(meterId, start, new Date(end.getTime() + 1), reading -> {
+            surge[0] = detector.accept(reading.getReadingTime().getTime(), reading.getReadingValue().doubleValue());
+            return !surge[0];
+        });
+        return surge[0];
+    }
 
-        public double getConsumption() {
-            return consumption;
+    /**
+     * 游标分页查询报表，按报表编号升序
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页条数，最多 {@link PageCursor#MAX_LIMIT}
+     * @param withTotal 是否返回总条数
+     * @return 分页结果
+     * @throws BizException 游标无效时抛出
+     */
+    @Override
+    public CursorPageVo<ElectricityReportVo> listReports(String cursor, int limit, boolean withTotal) {
+        long[] after = PageCursor.decode(cursor, 1);
+        int size = PageCursor.clampLimit(limit);
+        LambdaQueryWrapper<ElectricityReport> query = Wrappers.lambdaQuery(ElectricityReport.class)
+                .gt(after != null, ElectricityReport::getReportId, after == null ? null : after[0])
+                .orderByAsc(ElectricityReport::getReportId)
+                .last("LIMIT " + (size + 1));
+        CursorPageVo<ElectricityReportVo> page = PageCursor.page(this.list(query), size,
+                report -> PageCursor.encode(report.getReportId()),
+                report -> {
+                    ElectricityReportVo vo = new ElectricityReportVo();
+                    BeanUtils.copyProperties(report, vo);
+                    return vo;
+                });
+        if (withTotal) {
+            page.setTotal(this.count());
+            page.setTotalEstimated(false);
         }
+        return page;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+package cn.edu.cqrk.energytrack.service.impl;
+
+import cn.edu.cqrk.energytrack.archive.ReadingArchive;
+import cn.edu.cqrk.energytrack.common.BizException;
+import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.RollupGranularity;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReadingRollup;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingRollupVo;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingRollupMapper;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 读数汇总服务实现类
+ * 维护按小时/按天的读数汇总桶（首末读数、极值、条数、增量），
+ * 新增读数时增量合并，修改或删除读数时按天重算，长时间范围的用电量查询只需读取桶数据
+ */
+@Service
+public class MeterReadingRollupServiceImpl extends ServiceImpl<MeterReadingRollupMapper, MeterReadingRollup> implements MeterReadingRollupService {
+
+    // 每条 upsert 语句包含的桶数
+    private static final int UPSERT_CHUNK_SIZE = 500;
+
+    private final ReadingArchive readingArchive;
+
+    /**
+     * 构造函数，注入原始读数归档存储
+     * @param readingArchive 原始读数归档存储，未归档的时间段直接读取 meter_reading
+     */
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public MeterReadingRollupServiceImpl(ReadingArchive readingArchive) {
+        this.readingArchive = readingArchive;
+    }
+
+    /**
+     * 将新写入的读数合并到小时桶和天桶
+     * 同一批内先在内存中按桶预聚合，再以多行 upsert 写入
+     * @param readings 已写入 meter_reading 的读数
+     */
+    @Override
+    public void applyInserted(List<MeterReading> readings) {
+        if (readings == null || readings.isEmpty()) {
+            return;
+        }
+        Map<String, MeterReadingRollup> buckets = new LinkedHashMap<>();
+        for (MeterReading reading : readings) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                Date bucketStart = granularity.floor(reading.getReadingTime());
+                String key = reading.getMeterId() + ":" + granularity + ":" + bucketStart.getTime();
+                MeterReadingRollup bucket = buckets.get(key);
+                if (bucket == null) {
+                    buckets.put(key, newBucket(reading, granularity, bucketStart));
+                } else {
+                    accumulate(bucket, reading);
+                }
+            }
+        }
+        upsert(new ArrayList<>(buckets.values()));
+    }
+
+    /**
+     * 按原始读数重算指定电表在时间范围内（按天对齐）的汇总桶
+     * 用于读数修改、删除后的修正以及历史数据回填；原始读数逐天流式读取，内存中只保留一天的桶。
+     * 流式结果集打开期间同一连接不能执行其他语句，因此每天的桶在该天的读取结束后再写入
+     * @param meterId 电表ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @throws BizException 当时间范围无效时抛出
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void rebuild(Integer meterId, Date startTime, Date endTime) {
+        checkTimeRange(startTime, endTime);
+        Date dayStart = RollupGranularity.DAY.floor(startTime);
+        Date dayEnd = RollupGranularity.DAY.next(RollupGranularity.DAY.floor(endTime));
+
+        this.remove(Wrappers.lambdaQuery(MeterReadingRollup.class)
+                .eq(MeterReadingRollup::getMeterId, meterId)
+                .ge(MeterReadingRollup::getBucketStart, dayStart)
+                .lt(MeterReadingRollup::getBucketStart, dayEnd));
+
+        List<MeterReadingRollup> pending = new ArrayList<>();
+        for (Date day = dayStart; day.before(dayEnd); day = RollupGranularity.DAY.next(day)) {
+            MeterReadingRollup[] current = new MeterReadingRollup[2]; // [0] 当前小时桶，[1] 当天的天桶
+            readingArchive.stream(meterId, day, RollupGranularity.DAY.next(day), reading -> {
+                Date hourStart = RollupGranularity.HOUR.floor(reading.getReadingTime());
+                if (current[0] != null && !current[0].getBucketStart().equals(hourStart)) {
+                    pending.add(current[0]);
+                    current[0] = null;
+                }
+                if (current[0] == null) {
+                    current[0] = newBucket(reading, RollupGranularity.HOUR, hourStart);
+                } else {
+                    accumulate(current[0], reading);
+                }
+                if (current[1] == null) {
+                    current[1] = newBucket(reading, RollupGranularity.DAY, RollupGranularity.DAY.floor(reading.getReadingTime()));
+                } else {
+                    accumulate(current[1], reading);
+                }
+            });
+            for (MeterReadingRollup bucket : current) {
+                if (bucket != null) {
+                    pending.add(bucket);
+                }
+            }
+            upsert(pending);
+            pending.clear();
+        }
+    }
+
+    /**
+     * 汇总指定电表在 [startTime, endTime] 内的读数
+     * 完整的天和小时直接取桶数据，首尾不足一小时的部分读取原始读数，
+     * 因此查询成本取决于桶数而不是原始读数条数
+     * @param meterId 电表ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间（包含）
+     * @return 汇总结果，readingCount 为 0 表示范围内没有读数
+     */
+    @Override
+    public MeterReadingRollup summarize(Integer meterId, Date startTime, Date endTime) {
+        MeterReadingRollup result = new MeterReadingRollup();
+        result.setMeterId(meterId);
+        result.setReadingCount(0);
+
+        Date endExclusive = new Date(endTime.getTime() + 1);
+        Date hourStart = RollupGranularity.HOUR.ceil(startTime);
+        Date hourEnd = RollupGranularity.HOUR.floor(endExclusive);
+        if (!hourStart.before(hourEnd)) {
+            // 范围内没有完整的小时，直接汇总原始读数
+            mergeRaw(result, meterId, startTime, endExclusive);
+            return finish(result);
+        }
+
+        mergeRaw(result, meterId, startTime, hourStart);
+        Date dayStart = RollupGranularity.DAY.ceil(hourStart);
+        Date dayEnd = RollupGranularity.DAY.floor(hourEnd);
+        if (dayStart.before(dayEnd)) {
+            mergeBuckets(result, meterId, RollupGranularity.HOUR, hourStart, dayStart);
+            mergeBuckets(result, meterId, RollupGranularity.DAY, dayStart, dayEnd);
+            mergeBuckets(result, meterId, RollupGranularity.HOUR, dayEnd, hourEnd);
+        } else {
+            mergeBuckets(result, meterId, RollupGranularity.HOUR, hourStart, hourEnd);
+        }
+        mergeRaw(result, meterId, hourEnd, endExclusive);
+        return finish(result);
+    }
+
+    /**
+     * 查询指定粒度的汇总桶，用于图表展示
+     * @param meterId 电表ID
+     * @param granularity 汇总粒度
+     * @param startTime 开始时间
+     * @param endTime 结束时间（包含）
+     * @return 按桶起始时间升序的汇总VO列表
+     */
+    @Override
+    public List<MeterReadingRollupVo> listBuckets(Integer meterId, RollupGranularity granularity, Date startTime, Date endTime) {
+        checkTimeRange(startTime, endTime);
+        LambdaQueryWrapper<MeterReadingRollup> query = Wrappers.lambdaQuery(MeterReadingRollup.class)
+                .eq(MeterReadingRollup::getMeterId, meterId)
+                .eq(MeterReadingRollup::getBucketType, granularity.name())
+                .ge(MeterReadingRollup::getBucketStart, granularity.floor(startTime))
+                .le(MeterReadingRollup::getBucketStart, endTime)
+                .orderByAsc(MeterReadingRollup::getBucketStart);
+        return this.list(query).stream()
+                .map(bucket -> {
+                    MeterReadingRollupVo vo = new MeterReadingRollupVo();
+                    BeanUtils.copyProperties(bucket, vo);
+                    return vo;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static void checkTimeRange(Date startTime, Date endTime) {
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        if (startTime.after(endTime)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+    }
+
+    private void mergeRaw(MeterReadingRollup result, Integer meterId, Date from, Date to) {
+        if (!from.before(to)) {
+            return;
+        }
+        readingArchive.stream(meterId, from, to, reading -> {
+            if (result.getReadingCount() == 0) {
+                merge(result, newBucket(reading, null, null));
+            } else {
+                accumulate(result, reading);
+            }
+        });
+    }
+
+    private void mergeBuckets(MeterReadingRollup result, Integer meterId, RollupGranularity granularity, Date from, Date to) {
+        if (!from.before(to)) {
+            return;
+        }
+        List<MeterReadingRollup> buckets = this.list(Wrappers.lambdaQuery(MeterReadingRollup.class)
+                .eq(MeterReadingRollup::getMeterId, meterId)
+                .eq(MeterReadingRollup::getBucketType, granularity.name())
+                .ge(MeterReadingRollup::getBucketStart, from)
+                .lt(MeterReadingRollup::getBucketStart, to));
+        for (MeterReadingRollup bucket : buckets) {
+            merge(result, bucket);
+        }
+    }
+
+    private void upsert(List<MeterReadingRollup> buckets) {
+        for (int from = 0; from < buckets.size(); from += UPSERT_CHUNK_SIZE) {
+            int to = Math.min(from + UPSERT_CHUNK_SIZE, buckets.size());
+            baseMapper.upsertBatch(buckets.subList(from, to));
+        }
+    }
+
+    private static MeterReadingRollup newBucket(MeterReading reading, RollupGranularity granularity, Date bucketStart) {
+        MeterReadingRollup bucket = new MeterReadingRollup();
+        bucket.setMeterId(reading.getMeterId());
+        bucket.setBucketType(granularity == null ? null : granularity.name());
+        bucket.setBucketStart(bucketStart);
+        bucket.setFirstTime(reading.getReadingTime());
+        bucket.setFirstValue(reading.getReadingValue());
+        bucket.setLastTime(reading.getReadingTime());
+        bucket.setLastValue(reading.getReadingValue());
+        bucket.setMinValue(reading.getReadingValue());
+        bucket.setMaxValue(reading.getReadingValue());
+        bucket.setReadingCount(1);
+        bucket.setDeltaValue(BigDecimal.ZERO);
+        bucket.setUpdateTime(new Date());
+        return bucket;
+    }
+
+    private static void accumulate(MeterReadingRollup bucket, MeterReading reading) {
+        if (reading.getReadingTime().before(bucket.getFirstTime())) {
+            bucket.setFirstTime(reading.getReadingTime());
+            bucket.setFirstValue(reading.getReadingValue());
+        }
+        if (!reading.getReadingTime().before(bucket.getLastTime())) {
+            bucket.setLastTime(reading.getReadingTime());
+            bucket.setLastValue(reading.getReadingValue());
+        }
+        bucket.setMinValue(bucket.getMinValue().min(reading.getReadingValue()));
+        bucket.setMaxValue(bucket.getMaxValue().max(reading.getReadingValue()));
+        bucket.setReadingCount(bucket.getReadingCount() + 1);
+        bucket.setDeltaValue(bucket.getLastValue().subtract(bucket.getFirstValue()));
+    }
+
+    private static void merge(MeterReadingRollup target, MeterReadingRollup source) {
+        if (source.getReadingCount() == null || source.getReadingCount() == 0) {
+            return;
+        }
+        if (target.getReadingCount() == 0) {
+            target.setFirstTime(source.getFirstTime());
+            target.setFirstValue(source.getFirstValue());
+            target.setLastTime(source.getLastTime());
+            target.setLastValue(source.getLastValue());
+            target.setMinValue(source.getMinValue());
+            target.setMaxValue(source.getMaxValue());
+            target.setReadingCount(source.getReadingCount());
+            return;
+        }
+        if (source.getFirstTime().before(target.getFirstTime())) {
+            target.setFirstTime(source.getFirstTime());
+            target.setFirstValue(source.getFirstValue());
+        }
+        if (!source.getLastTime().before(target.getLastTime())) {
+            target.setLastTime(source.getLastTime());
+            target.setLastValue(source.getLastValue());
+        }
+        target.setMinValue(target.getMinValue().min(source.getMinValue()));
+        target.setMaxValue(target.getMaxValue().max(source.getMaxValue()));
+        target.setReadingCount(target.getReadingCount() + source.getReadingCount());
+    }
+
+    private static MeterReadingRollup finish(MeterReadingRollup result) {
+        if (result.getReadingCount() > 0) {
+            result.setDeltaValue(result.getLastValue().subtract(result.getFirstValue()));
+        }
+        return result;
+    }
+}
@@ -1,35 +1,95 @@
 package cn.edu.cqrk.energytrack.service.impl;
 
+import cn.edu.cqrk.energytrack.archive.ReadingArchive;
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.cache.MeterIdIndex;
+import cn.edu.cqrk.energytrack.common.BackpressureException;
 import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.DateTimeUtil;
+import cn.edu.cqrk.energytrack.common.ExportFormat;
+import cn.edu.cqrk.energytrack.common.PageCursor;
+import cn.edu.cqrk.energytrack.common.RollupGranularity;
+import cn.edu.cqrk.energytrack.config.ReportProperties;
+import cn.edu.cqrk.energytrack.entity.dto.MeterReadingBatchDto;
 import cn.edu.cqrk.energytrack.entity.dto.MeterReadingDto;
+import cn.edu.cqrk.energytrack.entity.dto.ReadingReportBulkDto;
 import cn.edu.cqrk.energytrack.entity.pojo.Meter;
 import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingBatchVo;
 import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
-import cn.edu.cqrk.energytrack.mapper.MeterMapper;
+import cn.edu.cqrk.energytrack.ingest.MeterReadingWriteBuffer;
 import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import cn.edu.cqrk.energytrack.report.CursorBeanDataSource;
+import cn.edu.cqrk.energytrack.report.ReportTemplateRegistry;
+import cn.edu.cqrk.energytrack.report.XlsxStreamWriter;
+import cn.edu.cqrk.energytrack.series.GorillaBlockWriter;
+import cn.edu.cqrk.energytrack.series.HotSeriesStore;
+import cn.edu.cqrk.energytrack.series.LttbDownsampler;
+import cn.edu.cqrk.energytrack.series.SeriesDownsampler;
+import cn.edu.cqrk.energytrack.series.TimeBucketAggregator;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
 import cn.edu.cqrk.energytrack.service.MeterReadingService;
+import cn.edu.cqrk.energytrack.service.MeterService;
+import cn.edu.cqrk.energytrack.surge.SurgeMonitor;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import java.sql.Timestamp;
 
 /**
@@ -39,19 +99,98 @@ import java.sql.Timestamp;
 @Service
 public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, MeterReading> implements MeterReadingService {
 
-    private final MeterMapper meterMapper;
+    private static final Logger logger = LoggerFactory.getLogger(MeterReadingServiceImpl.class);
+
+    // 单次批量提交允许的最大条数
+    private static final int MAX_BATCH_SIZE = 5000;
+    // 每条多行 INSERT 语句包含的行数，避免超过 max_allowed_packet
+    private static final int INSERT_CHUNK_SIZE = 500;
+    // reading_value 列为 DECIMAL(12,2)，按两位小数舍入后不能超过该值，否则整批写入都会失败
+    private static final BigDecimal MAX_READING_VALUE = new BigDecimal("9999999999.99");
+    // 降采样结果允许的最大点数
+    private static final int MAX_DOWNSAMPLE_POINTS = 10000;
+    // 导出时输出缓冲区大小
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    // 读数报表模板名称
+    private static final String READING_REPORT_TEMPLATE = "meter_reading_report";
+    // 报表交换文件的块大小和每次扩容的块数
+    private static final int SWAP_BLOCK_SIZE = 4096;
+    private static final int SWAP_MIN_GROW_COUNT = 100;
+
+    private final MeterIdIndex meterIdIndex;
 
     @Autowired
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
     private MeterReadingMapper meterReadingMapper;
 
+    @Autowired
+    private MeterReadingWriteBuffer writeBuffer;
+
+    @Autowired
+    private MeterReadingRollupService rollupService;
+
+    @Autowired
+    private ReportTemplateRegistry reportTemplateRegistry;
+
+    @Autowired
+    private ReportProperties reportProperties;
+
+    @Autowired
+    private SurgeMonitor surgeMonitor;
+
+    @Autowired
+    private CacheGenerations cacheGenerations;
+
+    @Autowired
+    private ReadingArchive readingArchive;
+
+    @Autowired
+    private HotSeriesStore hotSeriesStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterService meterService;
+
+    private ThreadPoolExecutor bulkReportExecutor; // 批量读数报表的填充线程池
+    private Semaphore bulkReportSlots; // 同时进行的批量读数报表请求
+
     /**
-     * 构造函数，注入电表Mapper
-     * @param meterMapper 电表Mapper
+     * 构造函数，注入电表ID索引
+     * @param meterIdIndex 电表ID索引，校验电表是否存在
      */
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
-    public MeterReadingServiceImpl(MeterMapper meterMapper) {
-        this.meterMapper = meterMapper;
+    public MeterReadingServiceImpl(MeterIdIndex meterIdIndex) {
+        this.meterIdIndex = meterIdIndex;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 每个请求最多同时提交 bulkWindow() 个任务，队列按并发请求数上限预留，正常情况下不会拒绝
+        bulkReportSlots = new Semaphore(reportProperties.getBulkMaxConcurrent());
+        bulkReportExecutor = new ThreadPoolExecutor(reportProperties.getBulkParallelism(), reportProperties.getBulkParallelism(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, reportProperties.getBulkMaxConcurrent()) * bulkWindow()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-report-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkReportExecutor.shutdownNow();
+    }
+
+    /**
+     * 单个批量报表请求同时提交到线程池的任务数
+     */
+    private int bulkWindow() {
+        return Math.max(1, reportProperties.getBulkParallelism() * 2);
     }
 
     /**
@@ -59,23 +198,22 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
      * @param dto 包含读数信息的DTO
      * @return 新创建的读数VO对象
      * @throws BizException 当电表ID无效、读数值无效或读数时间无效时抛出
+     * @throws BackpressureException 异步模式下写入缓冲区已满时抛出
      */
     @Override
-    @CacheEvict(value = "meterReadings", allEntries = true)
+    @Transactional(rollbackFor = Exception.class)
     public MeterReadingVo add(MeterReadingDto dto) {
         // 验证 meterId 是否存在
         if (dto.getMeterId() == null) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
         }
-        LambdaQueryWrapper<Meter> meterQuery = Wrappers.lambdaQuery(Meter.class)
-                .eq(Meter::getMeterId, dto.getMeterId());
-        if (meterMapper.selectCount(meterQuery) == 0) {
+        if (!meterIdIndex.contains(dto.getMeterId())) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + dto.getMeterId());
         }
 
         // 验证 readingValue
-        if (dto.getReadingValue() == null || dto.getReadingValue().compareTo(BigDecimal.ZERO) < 0) {
-            throw new BizException(BizExceptionCode.INVALID_READING_VALUE, "读数值必须为非负数");
+        if (!isValidReadingValue(dto.getReadingValue())) {
+            throw new BizException(BizExceptionCode.INVALID_READING_VALUE, "读数值必须为非负数且不超过 " + MAX_READING_VALUE.toPlainString());
         }
 
         // 验证 readingTime
@@ -91,7 +229,16 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
         BeanUtils.copyProperties(dto, reading);
         reading.setCreateTime(new Date());
         reading.setUpdateTime(new Date());
-        this.save(reading);
+        if (writeBuffer.isEnabled()) {
+            // 异步模式：进入写入缓冲区即返回，读数ID在组提交后才生成
+            writeBuffer.offer(reading);
+        } else {
+            this.save(reading);
+            rollupService.applyInserted(Collections.singletonList(reading));
+            hotSeriesStore.append(Collections.singletonList(reading));
+            cacheGenerations.bump(CacheGenerations.METER_READINGS, reading.getMeterId());
+            surgeMonitor.onInserted(Collections.singletonList(reading));
+        }
 
         // 返回VO
         MeterReadingVo vo = new MeterReadingVo();
@@ -99,6 +246,114 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
         return vo;
     }
 
+    /**
+     * 批量添加电表读数记录
+     * 整批只做一次电表存在性查询（IN 查询），读数值与时间在内存中校验，
+     * 校验通过的行以多行 INSERT 分块写入，只使涉及电表的缓存失效
+     * @param dto 包含读数列表的DTO
+     * @return 批量写入结果，包含逐行错误信息
+     * @throws BizException 当读数列表为空或超过单批上限时抛出
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public MeterReadingBatchVo addBatch(MeterReadingBatchDto dto) {
+        List<MeterReadingDto> dtoList = dto.getReadings();
+        if (dtoList == null || dtoList.isEmpty()) {
+            throw new BizException(BizExceptionCode.BATCH_EMPTY);
+        }
+        if (dtoList.size() > MAX_BATCH_SIZE) {
+            throw new BizException(BizExceptionCode.BATCH_TOO_LARGE, "单批最多提交 " + MAX_BATCH_SIZE + " 条读数");
+        }
+
+        // 本批涉及的电表ID统一查索引，索引未命中的再一次 IN 查询回查
+        Set<Integer> meterIds = new HashSet<>();
+        for (MeterReadingDto item : dtoList) {
+            if (item != null && item.getMeterId() != null) {
+                meterIds.add(item.getMeterId());
+            }
+        }
+        Set<Integer> existingMeterIds = meterIdIndex.filterExisting(meterIds);
+
+        // 内存中逐行校验
+        Date now = new Date();
+        List<MeterReading> validReadings = new ArrayList<>(dtoList.size());
+        List<MeterReadingBatchVo.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < dtoList.size(); i++) {
+            MeterReadingDto item = dtoList.get(i);
+            MeterReadingBatchVo.RowError error = validateBatchRow(i, item, existingMeterIds, now);
+            if (error != null) {
+                errors.add(error);
+                continue;
+            }
+            MeterReading reading = new MeterReading();
+            reading.setMeterId(item.getMeterId());
+            reading.setReadingValue(item.getReadingValue());
+            reading.setReadingTime(item.getReadingTime());
+            reading.setCreateTime(now);
+            reading.setUpdateTime(now);
+            validReadings.add(reading);
+        }
+
+        // 异步模式下整批进入写入缓冲区，由写线程组提交，提交后再做突增检测
+        if (writeBuffer.isEnabled()) {
+            if (!validReadings.isEmpty()) {
+                writeBuffer.offerAll(validReadings);
+            }
+            return new MeterReadingBatchVo(dtoList.size(), validReadings.size(), errors.size(), errors);
+        }
+
+        // 分块多行 INSERT
+        for (int from = 0; from < validReadings.size(); from += INSERT_CHUNK_SIZE) {
+            int to = Math.min(from + INSERT_CHUNK_SIZE, validReadings.size());
+            meterReadingMapper.insertBatch(validReadings.subList(from, to));
+        }
+        rollupService.applyInserted(validReadings);
+        hotSeriesStore.append(validReadings);
+        validReadings.stream()
+                .map(MeterReading::getMeterId)
+                .distinct()
+                .forEach(meterId -> cacheGenerations.bump(CacheGenerations.METER_READINGS, meterId));
+        surgeMonitor.onInserted(validReadings);
+
+        return new MeterReadingBatchVo(dtoList.size(), validReadings.size(), errors.size(), errors);
+    }
+
+    /**
+     * 读数值非负，且按列精度舍入后不超出 reading_value 的范围
+     */
+    private static boolean isValidReadingValue(BigDecimal value) {
+        return value != null && value.signum() >= 0
+                && value.setScale(2, RoundingMode.HALF_UP).compareTo(MAX_READING_VALUE) <= 0;
+    }
+
+    /**
+     * 校验批量提交中的单行读数
+     * @return 校验失败时返回错误信息，通过时返回 null
+     */
+    private MeterReadingBatchVo.RowError validateBatchRow(int index, MeterReadingDto item, Set<Integer> existingMeterIds, Date now) {
+        if (item == null) {
+            return new MeterReadingBatchVo.RowError(index, null, BizExceptionCode.PARAM_VALID_ERROR.getCode(), "读数不能为空");
+        }
+        Integer meterId = item.getMeterId();
+        if (meterId == null) {
+            return new MeterReadingBatchVo.RowError(index, null, BizExceptionCode.INVALID_METER_ID.getCode(), "电表ID不能为空");
+        }
+        if (!existingMeterIds.contains(meterId)) {
+            return new MeterReadingBatchVo.RowError(index, meterId, BizExceptionCode.INVALID_METER_ID.getCode(), "电表ID不存在: " + meterId);
+        }
+        if (!isValidReadingValue(item.getReadingValue())) {
+            return new MeterReadingBatchVo.RowError(index, meterId, BizExceptionCode.INVALID_READING_VALUE.getCode(),
+                    "读数值必须为非负数且不超过 " + MAX_READING_VALUE.toPlainString());
+        }
+        if (item.getReadingTime() == null) {
+            return new MeterReadingBatchVo.RowError(index, meterId, BizExceptionCode.INVALID_READING_TIME.getCode(), "读数时间不能为空");
+        }
+        if (item.getReadingTime().after(now)) {
+            return new MeterReadingBatchVo.RowError(index, meterId, BizExceptionCode.INVALID_READING_TIME.getCode(), "读数时间不能晚于当前时间");
+        }
+        return null;
+    }
+
     /**
      * 更新电表读数记录
      * @param dto 包含更新信息的DTO
@@ -106,15 +361,30 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
      * @throws RuntimeException 当读数记录不存在时抛出
      */
     @Override
-    @CacheEvict(value = "meterReadings", allEntries = true)
+    @Transactional(rollbackFor = Exception.class)
     public MeterReadingVo update(MeterReadingDto dto) {
         MeterReading reading = meterReadingMapper.selectById(dto.getReadingId());
         if (reading == null) {
             throw new RuntimeException("读数不存在");
         }
+        Integer oldMeterId = reading.getMeterId();
+        Date oldReadingTime = reading.getReadingTime();
         BeanUtils.copyProperties(dto, reading);
         reading.setUpdateTime(new java.sql.Timestamp(System.currentTimeMillis()));
         meterReadingMapper.updateById(reading);
+
+        // 修改可能改变桶内首末读数和极值，按天重算受影响的汇总桶
+        rollupService.rebuild(oldMeterId, oldReadingTime, oldReadingTime);
+        if (!oldMeterId.equals(reading.getMeterId())
+                || !RollupGranularity.DAY.floor(oldReadingTime).equals(RollupGranularity.DAY.floor(reading.getReadingTime()))) {
+            rollupService.rebuild(reading.getMeterId(), reading.getReadingTime(), reading.getReadingTime());
+        }
+        cacheGenerations.bump(CacheGenerations.METER_READINGS, oldMeterId);
+        hotSeriesStore.invalidate(oldMeterId);
+        if (!oldMeterId.equals(reading.getMeterId())) {
+            cacheGenerations.bump(CacheGenerations.METER_READINGS, reading.getMeterId());
+            hotSeriesStore.invalidate(reading.getMeterId());
+        }
         MeterReadingVo vo = new MeterReadingVo();
         BeanUtils.copyProperties(reading, vo);
         return vo;
@@ -126,9 +396,17 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
      * @return 删除是否成功
      */
     @Override
-    @CacheEvict(value = "meterReadings", allEntries = true)
+    @Transactional(rollbackFor = Exception.class)
     public boolean deleteById(Integer readingId) {
-        return meterReadingMapper.deleteById(readingId) > 0;
+        MeterReading reading = meterReadingMapper.selectById(readingId);
+        if (reading == null || meterReadingMapper.deleteById(readingId) == 0) {
+            return false;
+        }
+        // 删除后按天重算该读数所在的汇总桶
+        rollupService.rebuild(reading.getMeterId(), reading.getReadingTime(), reading.getReadingTime());
+        cacheGenerations.bump(CacheGenerations.METER_READINGS, reading.getMeterId());
+        hotSeriesStore.invalidate(reading.getMeterId());
+        return true;
     }
 
     /**
@@ -140,15 +418,14 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
      * @throws BizException 当电表ID无效或时间参数无效时抛出
      */
     @Override
-    @Cacheable(value = "meterReadings", key = "#meterId + ':' + #startTime + ':' + #endTime")
+    @Cacheable(value = "meterReadings",
+            key = "#meterId + ':' + @cacheGenerations.tag('meterReadings', #meterId) + ':' + #startTime + ':' + #endTime")
     public List<MeterReadingVo> getReadingsByMeterId(Integer meterId, String startTime, String endTime) {
         // 验证 meterId
         if (meterId == null) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
         }
-        LambdaQueryWrapper<Meter> meterQuery = Wrappers.lambdaQuery(Meter.class)
-                .eq(Meter::getMeterId, meterId);
-        if (meterMapper.selectCount(meterQuery) == 0) {
+        if (!meterIdIndex.contains(meterId)) {
             throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + meterId);
         }
 
@@ -157,6 +434,14 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
             throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
         }
 
+        // 近期范围直接读取内存序列，结束时间包含在内
+        Date start = DateTimeUtil.parse(startTime);
+        Date end = new Date(DateTimeUtil.parse(endTime).getTime() + 1);
+        List<MeterReadingVo> hot = hotSeriesStore.read(meterId, start.getTime(), end.getTime());
+        if (hot != null) {
+            return hot;
+        }
+
         // 查询读数
         LambdaQueryWrapper<MeterReading> queryWrapper = Wrappers.lambdaQuery(MeterReading.class)
                 .eq(MeterReading::getMeterId, meterId)
@@ -174,7 +459,235 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
                 })
                 .collect(Collectors.toList());
 
-        return voList;
+        // 合并已归档月份的读数
+        return readingArchive.merge(meterId, start, end, voList);
+    }
+
+    /**
+     * 按电表ID和时间范围获取降采样后的读数，用于长时间范围的图表展示
+     * 原始读数通过流式查询逐行送入降采样器，不会整体加载到内存；
+     * 指定 bucket 时按固定时间间隔求平均值，否则按 maxPoints 使用 LTTB 选点
+     * @param meterId 电表ID
+     * @param startTime 开始时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param endTime 结束时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param maxPoints 最多返回的点数，使用 bucket 时作为桶数上限
+     * @param bucket 分桶间隔，如 30s、5m、1h、1d
+     * @return 降采样后的读数VO列表
+     * @throws BizException 当电表ID无效、时间参数无效或降采样参数无效时抛出
+     */
+    @Override
+    public List<MeterReadingVo> getDownsampledReadings(Integer meterId, String startTime, String endTime, Integer maxPoints, String bucket) {
+        if (meterId == null) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
+        }
+        if (!meterIdIndex.contains(meterId)) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + meterId);
+        }
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(startTime);
+        Date end = DateTimeUtil.parse(endTime);
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+
+        int limit = maxPoints == null ? MAX_DOWNSAMPLE_POINTS : maxPoints;
+        if (limit < 3 || limit > MAX_DOWNSAMPLE_POINTS) {
+            throw new BizException(BizExceptionCode.INVALID_DOWNSAMPLE_PARAM, "maxPoints 取值范围为 3 ~ " + MAX_DOWNSAMPLE_POINTS);
+        }
+        SeriesDownsampler downsampler;
+        if (bucket != null && !bucket.isEmpty()) {
+            long bucketMillis = parseBucket(bucket);
+            if ((end.getTime() - start.getTime()) / bucketMillis + 1 > limit) {
+                throw new BizException(BizExceptionCode.INVALID_DOWNSAMPLE_PARAM, "分桶过细，桶数超过上限 " + limit);
+            }
+            downsampler = new TimeBucketAggregator(meterId, start.getTime(), bucketMillis);
+        } else {
+            downsampler = new LttbDownsampler(meterId, start.getTime(), end.getTime(), limit);
+        }
+
+        // 结束时间包含在内，流式查询使用左闭右开区间；近期范围直接遍历内存序列
+        boolean hot = hotSeriesStore.scan(meterId, start.getTime(), end.getTime() + 1, (readingId, time, value) -> {
+            downsampler.accept(readingId, time, HotSeriesStore.toDouble(value));
+            return true;
+        });
+        if (hot) {
+            return downsampler.finish();
+        }
+        readingArchive.stream(meterId, start, new Date(end.getTime() + 1), reading -> {
+            downsampler.accept(reading.getReadingId(), reading.getReadingTime().getTime(), reading.getReadingValue().doubleValue());
+        });
+        return downsampler.finish();
+    }
+
+    /**
+     * 导出电表读数（CSV、NDJSON、xlsx 或 Gorilla 编码的二进制分块）
+     * 读数通过流式查询逐行写入响应输出流，已归档月份从归档段读取并与数据库中的读数合并，不构建结果列表也不经过缓存，内存占用与导出条数无关；
+     * 参数校验在写出响应头之前完成，校验失败时仍按统一格式返回错误
+     * @param meterId 电表ID，为空时导出全部电表
+     * @param startTime 开始时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param endTime 结束时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param format 导出格式
+     * @param gzip 是否以 gzip 压缩文件输出
+     * @param response HTTP 响应
+     * @throws BizException 当电表ID无效或时间参数无效时抛出
+     * @throws IOException 写出响应失败时抛出
+     */
+    @Override
+    public void exportReadings(Integer meterId, String startTime, String endTime, ExportFormat format, boolean gzip,
+                               HttpServletResponse response) throws IOException {
+        if (meterId != null) {
+            if (!meterIdIndex.contains(meterId)) {
+                throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + meterId);
+            }
+        }
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(startTime);
+        Date end = DateTimeUtil.parse(endTime);
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+
+        // xlsx 本身是 zip 压缩格式，不再 gzip
+        if (format == ExportFormat.XLSX) {
+            gzip = false;
+        }
+        String filename = "meter_readings." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader("Content-Disposition",
+                "attachment; filename=" + URLEncoder.encode(filename, StandardCharsets.UTF_8.name()));
+
+        long begin = System.currentTimeMillis();
+        long[] rows = new long[1];
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE) : response.getOutputStream();
+        if (format == ExportFormat.GORILLA || format == ExportFormat.XLSX) {
+            if (format == ExportFormat.GORILLA) {
+                exportSeriesBlocks(meterId, start, new Date(end.getTime() + 1), out, rows);
+            } else {
+                exportWorkbook(meterId, start, new Date(end.getTime() + 1), out, rows);
+            }
+            logger.info("导出读数完成，电表: {}，格式: {}，条数: {}，耗时: {}ms",
+                    meterId == null ? "全部" : meterId, format, rows[0], System.currentTimeMillis() - begin);
+            return;
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE)) {
+            if (format == ExportFormat.CSV) {
+                writer.write("reading_id,meter_id,reading_value,reading_time\n");
+            }
+            StringBuilder line = new StringBuilder(128);
+            try {
+                readingArchive.streamAll(meterId, start, new Date(end.getTime() + 1), reading -> {
+                    line.setLength(0);
+                    appendExportLine(line, reading, format);
+                    try {
+                        writer.append(line);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        logger.info("导出读数完成，电表: {}，格式: {}，条数: {}，耗时: {}ms",
+                meterId == null ? "全部" : meterId, format, rows[0], System.currentTimeMillis() - begin);
+    }
+
+    /**
+     * 以 xlsx 工作簿写出读数，读数逐行进入 SXSSF 工作表，内存中只保留最近的若干行
+     */
+    private void exportWorkbook(Integer meterId, Date start, Date endExclusive, OutputStream out, long[] rows) throws IOException {
+        try (XlsxStreamWriter writer = new XlsxStreamWriter("读数", "读数编号", "电表编号", "读数值", "读数时间")) {
+            readingArchive.streamAll(meterId, start, endExclusive, reading -> {
+                writer.startRow()
+                        .addInt(reading.getReadingId())
+                        .addInt(reading.getMeterId())
+                        .addDecimal(reading.getReadingValue())
+                        .addDate(reading.getReadingTime());
+            });
+            rows[0] = writer.getRowCount();
+            try (OutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE)) {
+                writer.write(buffered);
+            }
+        }
+    }
+
+    /**
+     * 以 Gorilla 编码的按电表分块格式写出读数
+     */
+    private void exportSeriesBlocks(Integer meterId, Date start, Date endExclusive, OutputStream out, long[] rows) throws IOException {
+        try (OutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE)) {
+            GorillaBlockWriter blockWriter = new GorillaBlockWriter(buffered);
+            try {
+                readingArchive.streamAll(meterId, start, endExclusive, reading -> {
+                    try {
+                        blockWriter.write(reading.getReadingId(), reading.getMeterId(),
+                                reading.getReadingTime().getTime(), reading.getReadingValue());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            blockWriter.flush();
+        }
+    }
+
+    /**
+     * 将单条读数格式化为一行 CSV 或 NDJSON
+     */
+    private static void appendExportLine(StringBuilder line, MeterReading reading, ExportFormat format) {
+        String time = DateTimeUtil.format(reading.getReadingTime());
+        if (format == ExportFormat.CSV) {
+            line.append(reading.getReadingId()).append(',')
+                    .append(reading.getMeterId()).append(',')
+                    .append(reading.getReadingValue().toPlainString()).append(',')
+                    .append(time).append('\n');
+        } else {
+            line.append("{\"readingId\":").append(reading.getReadingId())
+                    .append(",\"meterId\":").append(reading.getMeterId())
+                    .append(",\"readingValue\":").append(reading.getReadingValue().toPlainString())
+                    .append(",\"readingTime\":\"").append(time).append("\"}\n");
+        }
+    }
+
+    /**
+     * 解析分桶间隔，格式为数字加单位（s/m/h/d），如 15m
+     */
+    private long parseBucket(String bucket) {
+        String value = bucket.trim().toLowerCase();
+        long unit;
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                unit = 1000L;
+                break;
+            case 'm':
+                unit = 60_000L;
+                break;
+            case 'h':
+                unit = 3_600_000L;
+                break;
+            case 'd':
+                unit = 86_400_000L;
+                break;
+            default:
+                throw new BizException(BizExceptionCode.INVALID_DOWNSAMPLE_PARAM, "无效的分桶间隔: " + bucket);
+        }
+        try {
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            if (amount <= 0) {
+                throw new NumberFormatException();
+            }
+            return amount * unit;
+        } catch (NumberFormatException e) {
+            throw new BizException(BizExceptionCode.INVALID_DOWNSAMPLE_PARAM, "无效的分桶间隔: " + bucket);
+        }
     }
 
     /**
@@ -188,41 +701,272 @@ public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingMapper, Met
     @Override
     public byte[] generateReadingReport(Integer meterId, String startTime, String endTime) throws JRException {
         try {
-            // 查询读数数据
-            LambdaQueryWrapper<MeterReading> query = Wrappers.lambdaQuery(MeterReading.class)
-                    .eq(MeterReading::getMeterId, meterId)
-                    .between(MeterReading::getReadingTime, startTime, endTime);
-            List<MeterReading> readings = meterReadingMapper.selectList(query);
-
-            // 加载 JRXML 模板文件
-            String jrxmlPath = getClass().getClassLoader().getResource("reports/meter_reading_report.jrxml").getPath();
-            JasperReport jasperReport = JasperCompileManager.compileReport(jrxmlPath);
-
-            // 创建数据源
-            JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(readings);
-
-            // 格式化时间参数
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            LocalDateTime startDateTime = LocalDateTime.parse(startTime, formatter);
-            LocalDateTime endDateTime = LocalDateTime.parse(endTime, formatter);
-
-            // 转换为 Timestamp
-            Timestamp startTimestamp = Timestamp.valueOf(startDateTime);
-            Timestamp endTimestamp = Timestamp.valueOf(endDateTime);
-
-            // 设置报表参数
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("meterId", meterId);
-            parameters.put("startTime", startTimestamp);
-            parameters.put("endTime", endTimestamp);
-
-            // 填充报表数据
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-
-            // 导出为 PDF
-            return JasperExportManager.exportReportToPdf(jasperPrint);
+            // 获取缓存的编译后模板，避免每次请求重新编译 JRXML
+            JasperReport jasperReport = reportTemplateRegistry.get(READING_REPORT_TEMPLATE);
+            return fillReadingReport(jasperReport, meterId, DateTimeUtil.parse(startTime), DateTimeUtil.parse(endTime));
         } catch (Exception e) {
             throw new JRException("生成报表失败: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 查询读数并填充、导出一份读数报表
+     * @param jasperReport 编译后的报表模板，可在多个线程间共享
+     * @param start 开始时间（包含）
+     * @param end 结束时间（包含）
+     * @return PDF报表的字节数组
+     */
+    private byte[] fillReadingReport(JasperReport jasperReport, Integer meterId, Date start, Date end) throws JRException {
+        // 查询读数数据，已归档月份从归档段读取
+        List<MeterReading> readings = new ArrayList<>();
+        readingArchive.stream(meterId, start, new Date(end.getTime() + 1), readings::add);
+
+        // 创建数据源
+        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(readings);
+
+        // 设置报表参数
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("meterId", meterId);
+        parameters.put("startTime", new Timestamp(start.getTime()));
+        parameters.put("endTime", new Timestamp(end.getTime()));
+
+        // 填充报表数据
+        long begin = System.currentTimeMillis();
+        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+        long filled = System.currentTimeMillis();
+
+        // 导出为 PDF
+        byte[] pdf = JasperExportManager.exportReportToPdf(jasperPrint);
+        logger.debug("生成读数报表，电表: {}，读数: {} 条，填充 {}ms，导出 {}ms",
+                meterId, readings.size(), filled - begin, System.currentTimeMillis() - filled);
+        return pdf;
+    }
+
+    /**
+     * 批量生成一组电表的读数报表，打包为 ZIP 写入响应
+     * 所有电表共用同一个编译后的模板，在有界线程池中并行填充；先完成的报表先写入 ZIP，
+     * 同时在途的报表数不超过并行线程数的两倍，已生成未写出的 PDF 不会在内存中堆积。
+     * 单个电表生成失败只记录日志并跳过，失败列表最后写入 ZIP 中的 errors.txt
+     * @param dto 电表筛选条件和时间范围，结束时间包含在内
+     * @param response HTTP 响应
+     * @throws BizException 未指定筛选条件、电表类型无效、时间范围无效或匹配的电表过多时抛出
+     * @throws BackpressureException 本节点同时进行的批量报表请求已达上限时抛出
+     * @throws IOException 写出响应失败时抛出
+     */
+    @Override
+    public void writeBulkReadingReports(ReadingReportBulkDto dto, HttpServletResponse response) throws IOException {
+        if (dto.getStartTime() == null || dto.getEndTime() == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(dto.getStartTime());
+        Date end = DateTimeUtil.parse(dto.getEndTime());
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+        List<Meter> meters = meterService.selectMeters(dto.getMeterIds(), dto.getLocationPrefix(), dto.getMeterType(),
+                reportProperties.getBulkMaxMeters());
+        JasperReport jasperReport;
+        try {
+            jasperReport = reportTemplateRegistry.get(READING_REPORT_TEMPLATE);
+        } catch (JRException e) {
+            throw new BizException(BizExceptionCode.REPORT_NOT_FOUND, "报表模板加载失败: " + e.getMessage());
+        }
+        if (!bulkReportSlots.tryAcquire()) {
+            throw new BackpressureException(BizExceptionCode.REPORT_QUEUE_FULL, 5);
+        }
+        try {
+            writeBulkZip(meters, jasperReport, start, end, response);
+        } finally {
+            bulkReportSlots.release();
+        }
+    }
+
+    /**
+     * 并行填充各电表的报表并按完成顺序写入 ZIP
+     */
+    private void writeBulkZip(List<Meter> meters, JasperReport jasperReport, Date start, Date end,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=" + URLEncoder.encode("meter_reading_reports.zip", StandardCharsets.UTF_8.name()));
+
+        long begin = System.currentTimeMillis();
+        CompletionService<BulkReportEntry> completion = new ExecutorCompletionService<>(bulkReportExecutor);
+        List<Future<BulkReportEntry>> futures = new ArrayList<>(meters.size());
+        int window = bulkWindow();
+        int submitted = 0;
+        List<BulkReportEntry> failures = new ArrayList<>();
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE))) {
+            while (submitted < meters.size() && submitted < window) {
+                futures.add(completion.submit(bulkReportTask(jasperReport, meters.get(submitted++), start, end)));
+            }
+            for (int done = 0; done < meters.size(); done++) {
+                BulkReportEntry entry = completion.take().get();
+                if (submitted < meters.size()) {
+                    futures.add(completion.submit(bulkReportTask(jasperReport, meters.get(submitted++), start, end)));
+                }
+                if (entry.pdf == null) {
+                    failures.add(entry);
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry("meter_" + entry.meter.getMeterId() + ".pdf"));
+                zip.write(entry.pdf);
+                zip.closeEntry();
+            }
+            if (!failures.isEmpty()) {
+                StringBuilder errors = new StringBuilder();
+                for (BulkReportEntry entry : failures) {
+                    errors.append(entry.meter.getMeterId()).append('\t')
+                            .append(entry.meter.getMeterLocation()).append('\t')
+                            .append(entry.error).append('\n');
+                }
+                zip.putNextEntry(new ZipEntry("errors.txt"));
+                zip.write(errors.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("批量报表生成被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("批量报表生成失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (RejectedExecutionException e) {
+            throw new BackpressureException(BizExceptionCode.REPORT_QUEUE_FULL, 5);
+        } finally {
+            // 客户端断开或出错时取消尚未完成的报表
+            futures.forEach(future -> future.cancel(true));
+        }
+        logger.info("批量生成读数报表完成，电表: {} 个，失败: {} 个，耗时: {}ms",
+                meters.size(), failures.size(), System.currentTimeMillis() - begin);
+    }
+
+    /**
+     * 生成单个电表报表的任务，失败时返回带错误信息的结果，不影响其他电表
+     */
+    private Callable<BulkReportEntry> bulkReportTask(JasperReport jasperReport, Meter meter, Date start, Date end) {
+        return () -> {
+            try {
+                return new BulkReportEntry(meter, fillReadingReport(jasperReport, meter.getMeterId(), start, end), null);
+            } catch (Exception e) {
+                logger.warn("批量报表中电表 {} 生成失败: {}", meter.getMeterId(), e.getMessage(), e);
+                return new BulkReportEntry(meter, null, e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * 大报表模式：生成读数报表并直接写入输出流
+     * 读数通过数据库游标逐行填充，已填充的页面超过配置页数后换出到交换文件，
+     * PDF 边导出边写出，堆内存占用与读数条数无关，适合整年分钟级读数的报表
+     * @param meterId 电表ID
+     * @param startTime 开始时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param endTime 结束时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param out 输出流，由调用方负责关闭
+     * @throws BizException 当电表ID或时间范围无效时抛出
+     * @throws JRException 填充或导出报表失败时抛出
+     * @throws IOException 创建交换文件或写出失败时抛出
+     */
+    @Override
+    public void writeReadingReport(Integer meterId, String startTime, String endTime, OutputStream out)
+            throws JRException, IOException {
+        if (meterId == null) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
+        }
+        if (!meterIdIndex.contains(meterId)) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + meterId);
+        }
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(startTime);
+        Date end = DateTimeUtil.parse(endTime);
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+
+        JasperReport jasperReport = reportTemplateRegistry.get(READING_REPORT_TEMPLATE);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("meterId", meterId);
+        parameters.put("startTime", new Timestamp(start.getTime()));
+        parameters.put("endTime", new Timestamp(end.getTime()));
+
+        Files.createDirectories(Paths.get(reportProperties.getSwapDir()));
+        JRSwapFile swapFile = new JRSwapFile(reportProperties.getSwapDir(), SWAP_BLOCK_SIZE, SWAP_MIN_GROW_COUNT);
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(reportProperties.getVirtualizerMaxPages(), swapFile, true);
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
+        // 游标只能在事务内遍历；填充完成即提交，导出阶段不再占用数据库连接
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        try {
+            long begin = System.currentTimeMillis();
+            long[] rows = new long[1];
+            JasperPrint jasperPrint;
+            try {
+                jasperPrint = readOnlyTx.execute(status -> {
+                    try (ReadingArchive.ReadingCursor cursor = readingArchive.cursor(meterId, start, new Date(end.getTime() + 1))) {
+                        CursorBeanDataSource<MeterReading> dataSource = new CursorBeanDataSource<>(cursor);
+                        JasperPrint print = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+                        rows[0] = dataSource.getCount();
+                        return print;
+                    } catch (JRException e) {
+                        throw new JRRuntimeException(e);
+                    }
+                });
+            } catch (JRRuntimeException e) {
+                throw new JRException("生成报表失败: " + e.getCause().getMessage(), e.getCause());
+            }
+            long filled = System.currentTimeMillis();
+
+            // 填充结束后页面不再变化，换出的页面只读即可
+            virtualizer.setReadOnly(true);
+            JasperExportManager.exportReportToPdfStream(jasperPrint, out);
+            logger.info("生成大报表，电表: {}，读数: {} 条，页数: {}，填充 {}ms，导出 {}ms",
+                    meterId, rows[0], jasperPrint.getPages().size(), filled - begin, System.currentTimeMillis() - filled);
+        } finally {
+            virtualizer.cleanup();
+        }
+    }
+
+    /**
+     * 游标分页查询读数，按读数时间倒序
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页条数，最多 {@link PageCursor#MAX_LIMIT}
+     * @param withTotal 是否返回总条数（读数表的估算值）
+     * @return 分页结果
+     * @throws BizException 游标无效时抛出
+     */
+    @Override
+    public CursorPageVo<MeterReadingVo> listReadings(String cursor, int limit, boolean withTotal) {
+        long[] after = PageCursor.decode(cursor, 2);
+        int size = PageCursor.clampLimit(limit);
+        List<MeterReading> rows = meterReadingMapper.seekPage(after == null ? null : new Date(after[0]),
+                after == null ? null : (int) after[1], size + 1);
+        CursorPageVo<MeterReadingVo> page = PageCursor.page(rows, size,
+                reading -> PageCursor.encode(reading.getReadingTime().getTime(), reading.getReadingId()),
+                reading -> {
+                    MeterReadingVo vo = new MeterReadingVo();
+                    BeanUtils.copyProperties(reading, vo);
+                    return vo;
+                });
+        if (withTotal) {
+            page.setTotal(meterReadingMapper.estimateRowCount());
+            page.setTotalEstimated(true);
+        }
+        return page;
+    }
+
+    /**
+     * 批量报表中单个电表的生成结果，失败时 pdf 为空
+     */
+    private static class BulkReportEntry {
+        private final Meter meter;
+        private final byte[] pdf;
+        private final String error;
+
+        BulkReportEntry(Meter meter, byte[] pdf, String error) {
+            this.meter = meter;
+            this.pdf = pdf;
+            this.error = error;
+        }
+    }
+}
@@ -1,24 +1,25 @@
 package cn.edu.cqrk.energytrack.service.impl;
 
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.cache.DictionaryRegistry;
+import cn.edu.cqrk.energytrack.cache.MeterIdIndex;
 import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.PageCursor;
 import cn.edu.cqrk.energytrack.entity.dto.*;
-import cn.edu.cqrk.energytrack.entity.pojo.DictMeterStatus;
-import cn.edu.cqrk.energytrack.entity.pojo.DictMeterType;
 import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.vo.MeterVo;
-import cn.edu.cqrk.energytrack.mapper.DictMeterStatusMapper;
-import cn.edu.cqrk.energytrack.mapper.DictMeterTypeMapper;
 import cn.edu.cqrk.energytrack.mapper.MeterMapper;
 import cn.edu.cqrk.energytrack.service.MeterService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.BeanUtils;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.util.Date;
 import java.util.List;
@@ -31,19 +32,23 @@ import java.util.stream.Collectors;
 @Service
 public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements MeterService {
 
-    private final DictMeterTypeMapper dictMeterTypeMapper;
-    private final DictMeterStatusMapper dictMeterStatusMapper;
+    private final DictionaryRegistry dictionaryRegistry;
+    private final MeterIdIndex meterIdIndex;
+    private final CacheGenerations cacheGenerations;
 
     /**
      * 构造方法，注入Mapper依赖
      *
-     * @param dictMeterTypeMapper   电表类型Mapper
-     * @param dictMeterStatusMapper 电表状态Mapper
+     * @param dictionaryRegistry 字典注册表，校验电表类型和状态
+     * @param meterIdIndex       电表ID索引，新增和删除电表时同步更新
+     * @param cacheGenerations   缓存代数计数器，电表变更时按电表失效缓存
      */
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
-    public MeterServiceImpl(DictMeterTypeMapper dictMeterTypeMapper, DictMeterStatusMapper dictMeterStatusMapper) {
-        this.dictMeterTypeMapper = dictMeterTypeMapper;
-        this.dictMeterStatusMapper = dictMeterStatusMapper;
+    public MeterServiceImpl(DictionaryRegistry dictionaryRegistry, MeterIdIndex meterIdIndex,
+                            CacheGenerations cacheGenerations) {
+        this.dictionaryRegistry = dictionaryRegistry;
+        this.meterIdIndex = meterIdIndex;
+        this.cacheGenerations = cacheGenerations;
     }
 
     /**
@@ -54,19 +59,14 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
      * @throws BizException 如果电表类型或状态无效
      */
     @Override
-    @CacheEvict(value = "meters", allEntries = true) // 清除所有 meters 分页缓存
     public MeterVo add(MeterAddDto dto) {
         // 验证电表类型是否存在
-        LambdaQueryWrapper<DictMeterType> typeQuery = Wrappers.lambdaQuery(DictMeterType.class)
-                .eq(DictMeterType::getTypeCode, dto.getMeterType());
-        if (dictMeterTypeMapper.selectCount(typeQuery) == 0) {
+        if (!dictionaryRegistry.isValidMeterType(dto.getMeterType())) {
             throw new BizException(BizExceptionCode.INVALID_METER_TYPE, "无效的电表类型: " + dto.getMeterType());
         }
 
         // 验证电表状态是否存在
-        LambdaQueryWrapper<DictMeterStatus> statusQuery = Wrappers.lambdaQuery(DictMeterStatus.class)
-                .eq(DictMeterStatus::getStatusCode, dto.getMeterStatus());
-        if (dictMeterStatusMapper.selectCount(statusQuery) == 0) {
+        if (!dictionaryRegistry.isValidMeterStatus(dto.getMeterStatus())) {
             throw new BizException(BizExceptionCode.INVALID_METER_STATUS, "无效的电表状态: " + dto.getMeterStatus());
         }
 
@@ -76,6 +76,8 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
         meter.setCreateTime(new Date());
         meter.setUpdateTime(new Date());
         this.save(meter);
+        meterIdIndex.add(meter.getMeterId());
+        cacheGenerations.bump(CacheGenerations.METERS, CacheGenerations.ALL); // 新电表只影响分页和搜索缓存
 
         // 返回VO
         MeterVo vo = new MeterVo();
@@ -91,9 +93,14 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
      * @return {@code true} 如果删除成功，{@code false} 否则
      */
     @Override
-    @CacheEvict(value = "meters", allEntries = true) // 清除所有 meters 分页缓存
     public boolean deleteById(Integer meterId) {
-        return this.removeById(meterId);
+        boolean removed = this.removeById(meterId);
+        if (removed) {
+            meterIdIndex.remove(meterId);
+        }
+        cacheGenerations.bump(CacheGenerations.METERS, meterId); // 只使该电表的单条缓存失效
+        cacheGenerations.bump(CacheGenerations.METERS, CacheGenerations.ALL); // 以及分页和搜索缓存
+        return removed;
     }
 
     /**
@@ -104,7 +111,6 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
      * @throws BizException 如果电表不存在
      */
     @Override
-    @CacheEvict(value = "meters", allEntries = true) // 清除所有 meters 分页缓存
     public MeterVo update(MeterUpdateDto dto) throws BizException {
         Meter meter = this.getById(dto.getMeterId());
         if (meter == null) {
@@ -113,6 +119,8 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
         BeanUtils.copyProperties(dto, meter);
         meter.setUpdateTime(new Date());
         this.updateById(meter);
+        cacheGenerations.bump(CacheGenerations.METERS, meter.getMeterId()); // 只使该电表的单条缓存失效
+        cacheGenerations.bump(CacheGenerations.METERS, CacheGenerations.ALL); // 以及分页和搜索缓存
 
         MeterVo vo = new MeterVo();
         BeanUtils.copyProperties(meter, vo);
@@ -127,22 +135,18 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
      * @throws BizException 如果电表类型或状态无效，或者未找到匹配的电表记录
      */
     @Override
-    @Cacheable(value = "meters_search", key = "#dto.toString()") // 缓存查询结果
+    @Cacheable(value = "meters_search", key = "@cacheGenerations.tag('meters', 'all') + ':' + #dto.toString()") // 缓存查询结果，电表变更后代数递增自动失效
     public List<MeterVo> search(MeterSearchDto dto) {
         // 验证 meterType
         if (dto.getMeterType() != null && !dto.getMeterType().isEmpty()) {
-            LambdaQueryWrapper<DictMeterType> typeQuery = Wrappers.lambdaQuery(DictMeterType.class)
-                    .eq(DictMeterType::getTypeCode, dto.getMeterType());
-            if (dictMeterTypeMapper.selectCount(typeQuery) == 0) {
+            if (!dictionaryRegistry.isValidMeterType(dto.getMeterType())) {
                 throw new BizException(BizExceptionCode.INVALID_METER_TYPE, "无效的电表类型: " + dto.getMeterType());
             }
         }
 
         // 验证 meterStatus
         if (dto.getMeterStatus() != null && !dto.getMeterStatus().isEmpty()) {
-            LambdaQueryWrapper<DictMeterStatus> statusQuery = Wrappers.lambdaQuery(DictMeterStatus.class)
-                    .eq(DictMeterStatus::getStatusCode, dto.getMeterStatus());
-            if (dictMeterStatusMapper.selectCount(statusQuery) == 0) {
+            if (!dictionaryRegistry.isValidMeterStatus(dto.getMeterStatus())) {
                 throw new BizException(BizExceptionCode.INVALID_METER_STATUS, "无效的电表状态: " + dto.getMeterStatus());
             }
         }
@@ -180,11 +184,74 @@ public class MeterServiceImpl extends ServiceImpl<MeterMapper, Meter> implements
      * @return {@code true} 如果存在，{@code false} 否则
      */
     @Override
-    @Cacheable(value = "meters", key = "#meterId") // 检查是否存在时缓存单条记录
     public boolean checkMeterId(Integer meterId) {
-        // 复用 getById 检查电表是否存在
-        Meter meter = this.getById(meterId);
-        return meter != null; // 如果 meter 不为 null，则存在
+        return meterIdIndex.contains(meterId);
+    }
+
+    /**
+     * 游标分页查询电表，按电表ID升序
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页条数，最多 {@link PageCursor#MAX_LIMIT}
+     * @param withTotal 是否返回总条数
+     * @return 分页结果
+     * @throws BizException 游标无效时抛出
+     */
+    @Override
+    public CursorPageVo<MeterVo> listMeters(String cursor, int limit, boolean withTotal) {
+        long[] after = PageCursor.decode(cursor, 1);
+        int size = PageCursor.clampLimit(limit);
+        LambdaQueryWrapper<Meter> query = Wrappers.lambdaQuery(Meter.class)
+                .gt(after != null, Meter::getMeterId, after == null ? null : after[0])
+                .orderByAsc(Meter::getMeterId)
+                .last("LIMIT " + (size + 1));
+        CursorPageVo<MeterVo> page = PageCursor.page(this.list(query), size,
+                meter -> PageCursor.encode(meter.getMeterId()),
+                meter -> {
+                    MeterVo vo = new MeterVo();
+                    BeanUtils.copyProperties(meter, vo);
+                    return vo;
+                });
+        if (withTotal) {
+            page.setTotal(this.count());
+            page.setTotalEstimated(false);
+        }
+        return page;
     }
 
-}
\ No newline at end of file
+    /**
+     * 按电表ID列表、安装位置前缀、电表类型选择一组电表（条件同时生效），用于多电表汇总和批量报表
+     * 只查询电表ID和安装位置，按电表ID升序
+     * @param meterIds 电表ID列表
+     * @param locationPrefix 安装位置前缀
+     * @param meterType 电表类型
+     * @param maxMeters 最多选择的电表数
+     * @return 匹配的电表
+     * @throws BizException 未指定任何条件、电表类型无效或匹配的电表超过上限时抛出
+     */
+    @Override
+    public List<Meter> selectMeters(List<Integer> meterIds, String locationPrefix, String meterType, int maxMeters) {
+        boolean byIds = meterIds != null && !meterIds.isEmpty();
+        boolean byLocation = StringUtils.hasText(locationPrefix);
+        boolean byType = StringUtils.hasText(meterType);
+        if (!byIds && !byLocation && !byType) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "请指定电表ID、安装位置前缀或电表类型");
+        }
+        if (byType && !dictionaryRegistry.isValidMeterType(meterType)) {
+            throw new BizException(BizExceptionCode.INVALID_METER_TYPE, "无效的电表类型: " + meterType);
+        }
+        if (byIds && meterIds.size() > maxMeters) {
+            throw new BizException(BizExceptionCode.TOO_MANY_METERS, "一次最多选择 " + maxMeters + " 个电表");
+        }
+        List<Meter> meters = this.list(Wrappers.lambdaQuery(Meter.class)
+                .select(Meter::getMeterId, Meter::getMeterLocation)
+                .in(byIds, Meter::getMeterId, meterIds)
+                .likeRight(byLocation, Meter::getMeterLocation, locationPrefix)
+                .eq(byType, Meter::getMeterType, meterType)
+                .orderByAsc(Meter::getMeterId)
+                .last("LIMIT " + (maxMeters + 1)));
+        if (meters.size() > maxMeters) {
+            throw new BizException(BizExceptionCode.TOO_MANY_METERS, "匹配的电表超过 " + maxMeters + " 个，请缩小范围");
+        }
+        return meters;
+    }
+}
@@ -0,0 +1,264 @@
+package cn.edu.cqrk.energytrack.service.impl;
+
+import cn.edu.cqrk.energytrack.cache.MeterIdIndex;
+import cn.edu.cqrk.energytrack.common.BackpressureException;
+import cn.edu.cqrk.energytrack.common.BizException;
+import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.DateTimeUtil;
+import cn.edu.cqrk.energytrack.config.ReportProperties;
+import cn.edu.cqrk.energytrack.entity.vo.ReportJobVo;
+import cn.edu.cqrk.energytrack.service.MeterReadingService;
+import cn.edu.cqrk.energytrack.service.ReportJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 异步报表任务服务实现类
+ * 报表在有界线程池中生成，结果落盘到本地目录，按 TTL 定期清理；
+ * 相同电表和时间范围的重复提交会合并到同一个未完成的任务上
+ */
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+
+    private final ReportProperties properties;
+    private final MeterReadingService meterReadingService;
+    private final MeterIdIndex meterIdIndex;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> inFlight = new ConcurrentHashMap<>(); // 去重键 -> 未完成任务
+    private ThreadPoolExecutor executor;
+    private Path spoolDir;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ReportJobServiceImpl(ReportProperties properties, MeterReadingService meterReadingService, MeterIdIndex meterIdIndex) {
+        this.properties = properties;
+        this.meterReadingService = meterReadingService;
+        this.meterIdIndex = meterIdIndex;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        spoolDir = Paths.get(properties.getSpoolDir());
+        Files.createDirectories(spoolDir);
+        // 任务状态只保存在内存中，重启后遗留的结果文件无法再下载，直接清理
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".pdf"))
+                    .forEach(ReportJobServiceImpl::deleteQuietly);
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getJobWorkers(), properties.getJobWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getJobQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交报表生成任务
+     * 同一电表、同一时间范围已有未完成任务时直接返回该任务
+     * @param meterId 电表ID
+     * @param startTime 开始时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param endTime 结束时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @return 任务信息
+     * @throws BizException 当电表ID或时间范围无效时抛出
+     * @throws BackpressureException 排队任务已满时抛出
+     */
+    @Override
+    public ReportJobVo submit(Integer meterId, String startTime, String endTime) {
+        if (meterId == null) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不能为空");
+        }
+        if (!meterIdIndex.contains(meterId)) {
+            throw new BizException(BizExceptionCode.INVALID_METER_ID, "电表ID不存在: " + meterId);
+        }
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        // 统一格式，保证同一时间范围的不同写法去重到同一任务
+        String start = DateTimeUtil.format(DateTimeUtil.parse(startTime));
+        String end = DateTimeUtil.format(DateTimeUtil.parse(endTime));
+        if (start.compareTo(end) > 0) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+
+        String key = meterId + "|" + start + "|" + end;
+        boolean[] created = new boolean[1];
+        ReportJob job = inFlight.computeIfAbsent(key, k -> {
+            created[0] = true;
+            ReportJob newJob = new ReportJob(UUID.randomUUID().toString().replace("-", ""), k, meterId, start, end);
+            jobs.put(newJob.jobId, newJob);
+            return newJob;
+        });
+        if (created[0]) {
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, job);
+                jobs.remove(job.jobId);
+                throw new BackpressureException(BizExceptionCode.REPORT_QUEUE_FULL, 5);
+            }
+        }
+        return job.toVo();
+    }
+
+    /**
+     * 查询任务状态
+     * @param jobId 任务编号
+     * @return 任务信息
+     * @throws BizException 任务不存在或已过期时抛出
+     */
+    @Override
+    public ReportJobVo getJob(String jobId) {
+        return findJob(jobId).toVo();
+    }
+
+    /**
+     * 获取已完成任务的结果文件
+     * @param jobId 任务编号
+     * @return PDF 文件
+     * @throws BizException 任务不存在、已过期或尚未完成时抛出
+     */
+    @Override
+    public File getResultFile(String jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.status != JobStatus.SUCCESS) {
+            throw new BizException(BizExceptionCode.REPORT_JOB_NOT_READY, "报表任务状态: " + job.status);
+        }
+        File file = job.file.toFile();
+        if (!file.exists()) {
+            throw new BizException(BizExceptionCode.REPORT_JOB_NOT_FOUND);
+        }
+        return file;
+    }
+
+    /**
+     * 定期清理过期的任务和结果文件
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void cleanExpired() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(properties.getResultTtlMinutes());
+        Iterator<ReportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ReportJob job = iterator.next();
+            if (job.finishTime != null && job.finishTime.getTime() < expireBefore) {
+                iterator.remove();
+                if (job.file != null) {
+                    deleteQuietly(job.file);
+                }
+                logger.debug("清理过期报表任务 {}", job.jobId);
+            }
+        }
+    }
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job = jobId == null ? null : jobs.get(jobId);
+        if (job == null) {
+            throw new BizException(BizExceptionCode.REPORT_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    /**
+     * 执行报表任务：以大报表模式边生成边写入临时文件，完成后原子移动，避免下载到不完整的文件
+     */
+    private void run(ReportJob job) {
+        job.status = JobStatus.RUNNING;
+        long begin = System.currentTimeMillis();
+        Path target = spoolDir.resolve(job.jobId + ".pdf");
+        Path temp = spoolDir.resolve(job.jobId + ".pdf.tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                meterReadingService.writeReadingReport(job.meterId, job.startTime, job.endTime, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = target;
+            job.fileSize = Files.size(target);
+            job.status = JobStatus.SUCCESS;
+            logger.info("报表任务 {} 完成，电表: {}，耗时 {}ms", job.jobId, job.meterId, System.currentTimeMillis() - begin);
+        } catch (Exception e) {
+            deleteQuietly(temp);
+            job.errorMessage = e.getMessage();
+            job.status = JobStatus.FAILED;
+            logger.error("报表任务 {} 失败: {}", job.jobId, e.getMessage(), e);
+        } finally {
+            job.finishTime = new Date();
+            inFlight.remove(job.key, job);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除报表文件 {} 失败: {}", file, e.getMessage());
+        }
+    }
+
+    private enum JobStatus {
+        PENDING, RUNNING, SUCCESS, FAILED
+    }
+
+    /**
+     * 报表任务状态
+     */
+    private static class ReportJob {
+        private final String jobId;
+        private final String key;
+        private final Integer meterId;
+        private final String startTime;
+        private final String endTime;
+        private final Date createTime = new Date();
+        private volatile JobStatus status = JobStatus.PENDING;
+        private volatile String errorMessage;
+        private volatile Path file;
+        private volatile Long fileSize;
+        private volatile Date finishTime;
+
+        ReportJob(String jobId, String key, Integer meterId, String startTime, String endTime) {
+            this.jobId = jobId;
+            this.key = key;
+            this.meterId = meterId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        ReportJobVo toVo() {
+            return new ReportJobVo(jobId, meterId, startTime, endTime, status.name(), errorMessage, fileSize, createTime, finishTime);
+        }
+    }
+}
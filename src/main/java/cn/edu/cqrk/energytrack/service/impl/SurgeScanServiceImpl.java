@@ -0,0 +1,239 @@
+package cn.edu.cqrk.energytrack.service.impl;
+
+import cn.edu.cqrk.energytrack.archive.ReadingArchive;
+import cn.edu.cqrk.energytrack.common.BizException;
+import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.DateTimeUtil;
+import cn.edu.cqrk.energytrack.config.SurgeProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.SurgeMeterVo;
+import cn.edu.cqrk.energytrack.entity.vo.SurgeScanVo;
+import cn.edu.cqrk.energytrack.mapper.MeterMapper;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import cn.edu.cqrk.energytrack.series.HotSeriesStore;
+import cn.edu.cqrk.energytrack.service.SurgeScanService;
+import cn.edu.cqrk.energytrack.surge.SurgeDetector;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 全量用电突增扫描服务实现类
+ * 电表按固定大小分区后在独立的 ForkJoin 线程池中并行扫描，
+ * 近期范围的电表直接遍历内存序列，有归档段的电表逐个从归档读取，其余电表每个分区只执行一次范围查询并流式读取，
+ * 逐电表维护检测状态，不在内存中保存读数列表
+ */
+@Service
+public class SurgeScanServiceImpl implements SurgeScanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurgeScanServiceImpl.class);
+
+    private final SurgeProperties properties;
+    private final MeterMapper meterMapper;
+    private final MeterReadingMapper meterReadingMapper;
+    private final HotSeriesStore hotSeriesStore;
+    private final ReadingArchive readingArchive;
+    private final ForkJoinPool pool;
+
+    private volatile SurgeScanVo latest; // 最近一次定时扫描结果
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public SurgeScanServiceImpl(SurgeProperties properties, MeterMapper meterMapper, MeterReadingMapper meterReadingMapper,
+                                HotSeriesStore hotSeriesStore, ReadingArchive readingArchive) {
+        this.properties = properties;
+        this.meterMapper = meterMapper;
+        this.meterReadingMapper = meterReadingMapper;
+        this.hotSeriesStore = hotSeriesStore;
+        this.readingArchive = readingArchive;
+        this.pool = new ForkJoinPool(properties.getScanParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 扫描全部电表在时间段内的用电突增
+     * @param startTime 开始时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @param endTime 结束时间字符串(yyyy-MM-dd HH:mm:ss)
+     * @return 扫描结果，存在突增的电表按突增次数、最大幅度降序排列
+     * @throws BizException 当时间范围无效时抛出
+     */
+    @Override
+    public SurgeScanVo scan(String startTime, String endTime) {
+        if (startTime == null || endTime == null) {
+            throw new BizException(BizExceptionCode.INVALID_PARAM, "时间范围不能为空");
+        }
+        Date start = DateTimeUtil.parse(startTime);
+        Date end = DateTimeUtil.parse(endTime);
+        if (start.after(end)) {
+            throw new BizException(BizExceptionCode.INVALID_TIME_RANGE, "开始时间不能晚于结束时间");
+        }
+        return scan(start, end);
+    }
+
+    /**
+     * 获取最近一次定时扫描的结果
+     * @return 扫描结果，尚未执行过定时扫描时返回 null
+     */
+    @Override
+    public SurgeScanVo getLatest() {
+        return latest;
+    }
+
+    /**
+     * 定时扫描最近一段时间内的用电突增，结果保存在内存中供查询
+     */
+    @Scheduled(cron = "${energytrack.surge.scan-cron:-}")
+    public void scheduledScan() {
+        Date end = new Date();
+        Date start = new Date(end.getTime() - TimeUnit.HOURS.toMillis(properties.getScanLookbackHours()));
+        try {
+            SurgeScanVo result = scan(start, end);
+            latest = result;
+            if (!result.getMeters().isEmpty()) {
+                logger.warn("定时突增扫描发现 {} 个电表存在用电突增", result.getMeters().size());
+            }
+        } catch (Exception e) {
+            logger.error("定时突增扫描失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private SurgeScanVo scan(Date start, Date end) {
+        long begin = System.currentTimeMillis();
+        List<Integer> meterIds = meterMapper.selectList(Wrappers.lambdaQuery(Meter.class)
+                        .select(Meter::getMeterId)
+                        .orderByAsc(Meter::getMeterId))
+                .stream()
+                .map(Meter::getMeterId)
+                .collect(Collectors.toList());
+
+        int partitionSize = Math.max(1, properties.getPartitionSize());
+        Date endExclusive = new Date(end.getTime() + 1);
+        List<CompletableFuture<PartitionResult>> futures = new ArrayList<>();
+        for (int from = 0; from < meterIds.size(); from += partitionSize) {
+            List<Integer> partition = meterIds.subList(from, Math.min(from + partitionSize, meterIds.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> scanPartition(partition, start, endExclusive), pool));
+        }
+
+        List<SurgeMeterVo> surging = new ArrayList<>();
+        long readingCount = 0;
+        try {
+            for (CompletableFuture<PartitionResult> future : futures) {
+                PartitionResult result = future.join();
+                surging.addAll(result.meters);
+                readingCount += result.readingCount;
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        surging.sort(Comparator.comparing(SurgeMeterVo::getSurgeCount)
+                .thenComparing(SurgeMeterVo::getPeakIncrease)
+                .reversed());
+
+        long elapsed = System.currentTimeMillis() - begin;
+        logger.info("全量突增扫描完成，电表: {}，分区: {}，读数: {} 条，突增电表: {}，耗时: {}ms",
+                meterIds.size(), futures.size(), readingCount, surging.size(), elapsed);
+        return new SurgeScanVo(start, end, meterIds.size(), readingCount, futures.size(), elapsed, new Date(), surging);
+    }
+
+    /**
+     * 扫描一个分区：近期范围内的电表直接遍历内存序列，范围内有归档月份的电表逐个合并归档段与数据库读数，
+     * 其余电表一次范围查询按电表、时间顺序流式读取，电表切换时重置检测器
+     */
+    private PartitionResult scanPartition(List<Integer> meterIds, Date start, Date endExclusive) {
+        PartitionResult result = new PartitionResult();
+        List<Integer> coldMeterIds = new ArrayList<>();
+        for (Integer meterId : meterIds) {
+            MeterScan scan = new MeterScan(meterId);
+            boolean hot = hotSeriesStore.scan(meterId, start.getTime(), endExclusive.getTime(), (readingId, time, value) -> {
+                scan.accept(time, HotSeriesStore.toDouble(value));
+                return true;
+            });
+            if (hot) {
+                result.collect(scan);
+            } else if (readingArchive.hasSegments(meterId, start, endExclusive)) {
+                readingArchive.stream(meterId, start, endExclusive,
+                        reading -> scan.accept(reading.getReadingTime().getTime(), reading.getReadingValue().doubleValue()));
+                result.collect(scan);
+            } else {
+                coldMeterIds.add(meterId);
+            }
+        }
+        if (coldMeterIds.isEmpty()) {
+            return result;
+        }
+
+        MeterScan[] current = new MeterScan[1];
+        meterReadingMapper.streamByMeters(coldMeterIds, start, endExclusive, context -> {
+            MeterReading reading = context.getResultObject();
+            if (current[0] == null || !current[0].meter.getMeterId().equals(reading.getMeterId())) {
+                result.collect(current[0]);
+                current[0] = new MeterScan(reading.getMeterId());
+            }
+            current[0].accept(reading.getReadingTime().getTime(), reading.getReadingValue().doubleValue());
+        });
+        result.collect(current[0]);
+        return result;
+    }
+
+    /**
+     * 单个电表的检测状态
+     */
+    private class MeterScan {
+        private final SurgeDetector detector = new SurgeDetector(TimeUnit.MINUTES.toMillis(properties.getWindowMinutes()),
+                properties.getRatio());
+        private final SurgeMeterVo meter;
+        private long readingCount;
+
+        MeterScan(Integer meterId) {
+            this.meter = new SurgeMeterVo(meterId, 0, 0D, null, new ArrayList<>());
+        }
+
+        void accept(long time, double value) {
+            readingCount++;
+            if (!detector.accept(time, value)) {
+                return;
+            }
+            meter.setSurgeCount(meter.getSurgeCount() + 1);
+            if (meter.getSurgeTimes().size() < properties.getMaxSurgeTimes()) {
+                meter.getSurgeTimes().add(new Date(time));
+            }
+            if (meter.getPeakTime() == null || detector.getLastIncrease() > meter.getPeakIncrease()) {
+                meter.setPeakIncrease(detector.getLastIncrease());
+                meter.setPeakTime(new Date(time));
+            }
+        }
+    }
+
+    private static class PartitionResult {
+        private final List<SurgeMeterVo> meters = new ArrayList<>();
+        private long readingCount;
+
+        void collect(MeterScan scan) {
+            if (scan == null) {
+                return;
+            }
+            readingCount += scan.readingCount;
+            if (scan.meter.getSurgeCount() > 0) {
+                meters.add(scan.meter);
+            }
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package cn.edu.cqrk.energytrack.service.impl;
 
+import cn.edu.cqrk.energytrack.cache.DictionaryRegistry;
 import cn.edu.cqrk.energytrack.common.BizException;
 import cn.edu.cqrk.energytrack.common.BizExceptionCode;
+import cn.edu.cqrk.energytrack.common.PageCursor;
 import cn.edu.cqrk.energytrack.entity.dto.*;
-import cn.edu.cqrk.energytrack.entity.pojo.DictUserRole;
-import cn.edu.cqrk.energytrack.entity.pojo.DictUserStatus;
 import cn.edu.cqrk.energytrack.entity.pojo.SysUser;
+import cn.edu.cqrk.energytrack.entity.vo.CursorPageVo;
 import cn.edu.cqrk.energytrack.entity.vo.SysUserVo;
-import cn.edu.cqrk.energytrack.mapper.DictUserRoleMapper;
-import cn.edu.cqrk.energytrack.mapper.DictUserStatusMapper;
+import cn.edu.cqrk.energytrack.filter.PrincipalCache;
 import cn.edu.cqrk.energytrack.mapper.SysUserMapper;
 import cn.edu.cqrk.energytrack.service.SysUserService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
@@ -36,8 +36,8 @@ import java.util.stream.Collectors;
 public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> implements SysUserService {
 
     private final PasswordEncoder passwordEncoder;
-    private final DictUserRoleMapper dictUserRoleMapper;
-    private final DictUserStatusMapper dictUserStatusMapper;
+    private final DictionaryRegistry dictionaryRegistry;
+    private final PrincipalCache principalCache;
     private static final Logger logger = LoggerFactory.getLogger(SysUserServiceImpl.class);
 
 
@@ -45,16 +45,16 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
      * 构造方法，注入所需的依赖
      *
      * @param passwordEncoder      密码编码器
-     * @param dictUserRoleMapper   用户角色字典Mapper
-     * @param dictUserStatusMapper 用户状态字典Mapper
+     * @param dictionaryRegistry   字典注册表，校验用户角色和状态
+     * @param principalCache       认证用户缓存，用户变更后需要失效
      */
     @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
     public SysUserServiceImpl(PasswordEncoder passwordEncoder,
-                              DictUserRoleMapper dictUserRoleMapper,
-                              DictUserStatusMapper dictUserStatusMapper) {
+                              DictionaryRegistry dictionaryRegistry,
+                              PrincipalCache principalCache) {
         this.passwordEncoder = passwordEncoder;
-        this.dictUserRoleMapper = dictUserRoleMapper;
-        this.dictUserStatusMapper = dictUserStatusMapper;
+        this.dictionaryRegistry = dictionaryRegistry;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -75,18 +75,14 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
 
         // 验证角色是否存在
         if (dto.getRole() != null) {
-            LambdaQueryWrapper<DictUserRole> roleQuery = Wrappers.lambdaQuery(DictUserRole.class)
-                    .eq(DictUserRole::getRoleCode, dto.getRole());
-            if (dictUserRoleMapper.selectCount(roleQuery) == 0) {
+            if (!dictionaryRegistry.isValidUserRole(dto.getRole())) {
                 throw new BizException(BizExceptionCode.INVALID_ROLE, "无效的角色: " + dto.getRole());
             }
         }
 
         // 验证状态是否存在
         if (dto.getStatus() != null) {
-            LambdaQueryWrapper<DictUserStatus> statusQuery = Wrappers.lambdaQuery(DictUserStatus.class)
-                    .eq(DictUserStatus::getStatusCode, dto.getStatus());
-            if (dictUserStatusMapper.selectCount(statusQuery) == 0) {
+            if (!dictionaryRegistry.isValidUserStatus(dto.getStatus())) {
                 throw new BizException(BizExceptionCode.INVALID_STATUS, "无效的状态: " + dto.getStatus());
             }
         }
@@ -159,29 +155,30 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
 
         // 验证角色是否存在
         if (dto.getRole() != null) {
-            LambdaQueryWrapper<DictUserRole> roleQuery = Wrappers.lambdaQuery(DictUserRole.class)
-                    .eq(DictUserRole::getRoleCode, dto.getRole());
-            if (dictUserRoleMapper.selectCount(roleQuery) == 0) {
+            if (!dictionaryRegistry.isValidUserRole(dto.getRole())) {
                 throw new BizException(BizExceptionCode.INVALID_ROLE, "无效的角色: " + dto.getRole());
             }
         }
 
         // 验证状态是否存在
         if (dto.getStatus() != null) {
-            LambdaQueryWrapper<DictUserStatus> statusQuery = Wrappers.lambdaQuery(DictUserStatus.class)
-                    .eq(DictUserStatus::getStatusCode, dto.getStatus());
-            if (dictUserStatusMapper.selectCount(statusQuery) == 0) {
+            if (!dictionaryRegistry.isValidUserStatus(dto.getStatus())) {
                 throw new BizException(BizExceptionCode.INVALID_STATUS, "无效的状态: " + dto.getStatus());
             }
         }
 
         // 更新用户
+        String oldUsername = user.getUsername();
         BeanUtils.copyProperties(dto, user, "password");
         if (dto.getPassword() != null && !dto.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(dto.getPassword()));
         }
         user.setUpdateTime(new Date());
         updateById(user);
+        principalCache.invalidate(oldUsername);
+        if (!oldUsername.equals(user.getUsername())) {
+            principalCache.invalidate(user.getUsername());
+        }
 
         SysUserVo vo = new SysUserVo();
         BeanUtils.copyProperties(user, vo);
@@ -204,7 +201,9 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         if (user == null) {
             throw new BizException(BizExceptionCode.USER_NOT_FOUND, "用户不存在: " + id);
         }
-        return removeById(id);
+        boolean removed = removeById(id);
+        principalCache.invalidate(user.getUsername());
+        return removed;
     }
 
     /**
@@ -250,10 +249,17 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
      */
     @Override
     public boolean updateUserInfo(SysUser user) {
+        SysUser existing = sysUserMapper.selectById(user.getId());
         int result = sysUserMapper.updateById(user);
         if (result <= 0) {
             throw new BizException(BizExceptionCode.SYSTEM_ERROR, "用户信息更新失败");
         }
+        if (existing != null) {
+            principalCache.invalidate(existing.getUsername());
+        }
+        if (user.getUsername() != null && (existing == null || !user.getUsername().equals(existing.getUsername()))) {
+            principalCache.invalidate(user.getUsername());
+        }
         return true;
     }
 
@@ -284,6 +290,7 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         if (result <= 0) {
             throw new BizException(BizExceptionCode.SYSTEM_ERROR, "新密码修改失败");
         }
+        principalCache.invalidate(currentUser.getUsername());
         return true; // 返回 true 表示密码修改成功
     }
 
@@ -297,4 +304,35 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     public SysUser findUserByUsername(String username) {
         return sysUserMapper.selectByUsername(username);
     }
-}
\ No newline at end of file
+
+    /**
+     * 游标分页查询用户，按用户ID升序
+     *
+     * @param cursor    上一页返回的游标，为空表示第一页
+     * @param limit     每页条数，最多 {@link PageCursor#MAX_LIMIT}
+     * @param withTotal 是否返回总条数
+     * @return 分页结果
+     * @throws BizException 游标无效时抛出
+     */
+    @Override
+    public CursorPageVo<SysUserVo> listUsers(String cursor, int limit, boolean withTotal) {
+        long[] after = PageCursor.decode(cursor, 1);
+        int size = PageCursor.clampLimit(limit);
+        LambdaQueryWrapper<SysUser> query = Wrappers.lambdaQuery(SysUser.class)
+                .gt(after != null, SysUser::getId, after == null ? null : after[0])
+                .orderByAsc(SysUser::getId)
+                .last("LIMIT " + (size + 1));
+        CursorPageVo<SysUserVo> page = PageCursor.page(baseMapper.selectList(query), size,
+                user -> PageCursor.encode(user.getId()),
+                user -> {
+                    SysUserVo vo = new SysUserVo();
+                    BeanUtils.copyProperties(user, vo);
+                    return vo;
+                });
+        if (withTotal) {
+            page.setTotal(this.count());
+            page.setTotalEstimated(false);
+        }
+        return page;
+    }
+}
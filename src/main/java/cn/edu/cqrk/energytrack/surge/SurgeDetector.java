@@ -0,0 +1,132 @@
+package cn.edu.cqrk.energytrack.surge;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个电表的流式突增检测器
+ * 读数须按时间升序逐条传入。检测基于相邻读数之间的区间用电速率（每小时用电量），而非累计读数本身：
+ * 当前区间速率超过比较窗口内最小正速率的指定倍数时判定为突增。
+ * 窗口最小值用单调递增队列维护，队列存放在原始类型环形数组中，每条读数均摊 O(1)，不产生装箱对象。
+ * 非线程安全，多线程共享时由调用方加锁
+ */
+public class SurgeDetector {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long windowMillis;
+    private final double ratio;
+
+    private boolean started;
+    private long lastTime;
+    private double lastValue;
+
+    // 单调队列：区间结束时间和对应速率，速率自队头到队尾严格递增，队头即窗口内最小正速率
+    private long[] times = new long[INITIAL_CAPACITY];
+    private double[] rates = new double[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    private double lastRate;
+    private double lastBaseline;
+
+    public SurgeDetector(long windowMillis, double ratio) {
+        this.windowMillis = windowMillis;
+        this.ratio = ratio;
+    }
+
+    /**
+     * 输入一条读数
+     * @param time 读数时间戳（毫秒）
+     * @param value 累计读数值
+     * @return 以该读数结束的区间是否判定为突增
+     */
+    public boolean accept(long time, double value) {
+        if (!started) {
+            started = true;
+            lastTime = time;
+            lastValue = value;
+            return false;
+        }
+        // 乱序或同一时刻的重复读数无法计算区间速率，直接忽略
+        if (time <= lastTime) {
+            return false;
+        }
+        double delta = value - lastValue;
+        long elapsed = time - lastTime;
+        lastTime = time;
+        lastValue = value;
+        // 读数回退说明电表被更换或清零，之前的窗口不再可比
+        if (delta < 0) {
+            size = 0;
+            return false;
+        }
+        double rate = delta * HOUR_MILLIS / elapsed;
+
+        // 移出已超出窗口的区间
+        long windowStart = time - windowMillis;
+        while (size > 0 && times[head] <= windowStart) {
+            head = (head + 1) % times.length;
+            size--;
+        }
+
+        boolean surge = size > 0 && rate > ratio * rates[head];
+        if (surge) {
+            lastRate = rate;
+            lastBaseline = rates[head];
+        }
+
+        // 零速率（空闲区间）不作为基准，否则空闲后任何用电都会被判定为突增
+        if (rate > 0) {
+            while (size > 0 && rates[tailIndex()] >= rate) {
+                size--;
+            }
+            if (size == times.length) {
+                grow();
+            }
+            int index = (head + size) % times.length;
+            times[index] = time;
+            rates[index] = rate;
+            size++;
+        }
+        return surge;
+    }
+
+    /**
+     * @return 最近一次突增区间的用电速率（每小时）
+     */
+    public double getLastRate() {
+        return lastRate;
+    }
+
+    /**
+     * @return 最近一次突增时窗口内的基准速率（每小时）
+     */
+    public double getLastBaseline() {
+        return lastBaseline;
+    }
+
+    /**
+     * @return 最近一次突增相对基准速率的增量（每小时）
+     */
+    public double getLastIncrease() {
+        return lastRate - lastBaseline;
+    }
+
+    private int tailIndex() {
+        return (head + size - 1) % times.length;
+    }
+
+    private void grow() {
+        long[] newTimes = new long[times.length * 2];
+        double[] newRates = new double[rates.length * 2];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % times.length;
+            newTimes[i] = times[index];
+            newRates[i] = rates[index];
+        }
+        times = newTimes;
+        rates = newRates;
+        head = 0;
+    }
+}
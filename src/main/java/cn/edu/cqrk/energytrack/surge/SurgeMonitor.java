@@ -0,0 +1,110 @@
+package cn.edu.cqrk.energytrack.surge;
+
+import cn.edu.cqrk.energytrack.config.SurgeProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.SurgeEventVo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入时实时突增检测
+ * 在内存中为每个电表保留滑动窗口状态，新读数写入时直接在已有状态上检测，不再回查历史读数。
+ * 只检测已提交的读数，回滚或仍在写入缓冲区中的读数不会产生突增事件。
+ * 状态随应用重启清空，重启后每个电表从第一条新读数重新开始积累窗口
+ */
+@Component
+public class SurgeMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurgeMonitor.class);
+
+    private final SurgeProperties properties;
+    private final ConcurrentMap<Integer, SurgeDetector> detectors = new ConcurrentHashMap<>();
+    private final Deque<SurgeEventVo> recentEvents = new ArrayDeque<>();
+
+    public SurgeMonitor(SurgeProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 检测一批已写入的读数，按时间顺序检测，批内乱序的读数也能被正确检测；在事务中调用时推迟到提交之后
+     */
+    public void onInserted(List<MeterReading> readings) {
+        if (!properties.isLiveEnabled() || readings.isEmpty()) {
+            return;
+        }
+        List<MeterReading> sorted = new ArrayList<>(readings);
+        sorted.sort(Comparator.comparing(MeterReading::getReadingTime));
+        runAfterCommit(() -> {
+            for (MeterReading reading : sorted) {
+                onReading(reading.getMeterId(), reading.getReadingTime(), reading.getReadingValue());
+            }
+        });
+    }
+
+    /**
+     * 检测一条新写入的读数
+     * @param meterId 电表ID
+     * @param readingTime 读数时间
+     * @param readingValue 累计读数值
+     */
+    public void onReading(Integer meterId, Date readingTime, BigDecimal readingValue) {
+        if (!properties.isLiveEnabled() || meterId == null || readingTime == null || readingValue == null) {
+            return;
+        }
+        SurgeDetector detector = detectors.computeIfAbsent(meterId,
+                id -> new SurgeDetector(TimeUnit.MINUTES.toMillis(properties.getWindowMinutes()), properties.getRatio()));
+        SurgeEventVo event = null;
+        synchronized (detector) {
+            if (detector.accept(readingTime.getTime(), readingValue.doubleValue())) {
+                event = new SurgeEventVo(meterId, readingTime, detector.getLastRate(), detector.getLastBaseline());
+            }
+        }
+        if (event != null) {
+            logger.warn("检测到用电突增，电表: {}，时间: {}，速率: {}/h，基准: {}/h",
+                    meterId, readingTime, event.getRate(), event.getBaseline());
+            synchronized (recentEvents) {
+                recentEvents.addFirst(event);
+                while (recentEvents.size() > properties.getRecentEvents()) {
+                    recentEvents.pollLast();
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取最近的实时突增事件
+     * @return 突增事件列表，最新的在前
+     */
+    public List<SurgeEventVo> recentEvents() {
+        synchronized (recentEvents) {
+            return new ArrayList<>(recentEvents);
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
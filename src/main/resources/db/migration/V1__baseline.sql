@@ -0,0 +1,97 @@
+-- 基线结构：与实体类对应，已存在的表保持不变
+CREATE TABLE IF NOT EXISTS dict_meter_type (
+    type_code        VARCHAR(32)  NOT NULL,
+    type_name        VARCHAR(64)  NOT NULL,
+    type_description VARCHAR(255) NULL,
+    is_enabled       TINYINT(1)   NOT NULL DEFAULT 1,
+    PRIMARY KEY (type_code)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS dict_meter_status (
+    status_code        VARCHAR(32)  NOT NULL,
+    status_name        VARCHAR(64)  NOT NULL,
+    status_description VARCHAR(255) NULL,
+    is_enabled         TINYINT(1)   NOT NULL DEFAULT 1,
+    PRIMARY KEY (status_code)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS dict_user_role (
+    role_code        VARCHAR(32)  NOT NULL,
+    role_name        VARCHAR(64)  NOT NULL,
+    role_description VARCHAR(255) NULL,
+    is_enabled       TINYINT(1)   NOT NULL DEFAULT 1,
+    PRIMARY KEY (role_code)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS dict_user_status (
+    status_code        VARCHAR(32)  NOT NULL,
+    status_name        VARCHAR(64)  NOT NULL,
+    status_description VARCHAR(255) NULL,
+    is_enabled         TINYINT(1)   NOT NULL DEFAULT 1,
+    PRIMARY KEY (status_code)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS user (
+    user_id       INT          NOT NULL AUTO_INCREMENT,
+    user_name     VARCHAR(64)  NOT NULL,
+    user_password VARCHAR(128) NOT NULL,
+    user_role     VARCHAR(32)  NULL,
+    user_email    VARCHAR(128) NULL,
+    user_phone    VARCHAR(32)  NULL,
+    user_status   VARCHAR(32)  NULL,
+    create_time   DATETIME     NULL,
+    update_time   DATETIME     NULL,
+    PRIMARY KEY (user_id),
+    UNIQUE KEY uk_user_name (user_name)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS meter (
+    meter_id       INT          NOT NULL AUTO_INCREMENT,
+    meter_location VARCHAR(255) NULL,
+    meter_type     VARCHAR(32)  NULL,
+    meter_status   VARCHAR(32)  NULL,
+    create_time    DATETIME     NULL,
+    update_time    DATETIME     NULL,
+    PRIMARY KEY (meter_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 读数表不建外键：分区表不支持外键，电表存在性由应用校验
+CREATE TABLE IF NOT EXISTS meter_reading (
+    reading_id    INT            NOT NULL AUTO_INCREMENT,
+    meter_id      INT            NOT NULL,
+    reading_value DECIMAL(12, 2) NOT NULL,
+    reading_time  DATETIME       NOT NULL,
+    create_time   DATETIME       NULL,
+    update_time   DATETIME       NULL,
+    PRIMARY KEY (reading_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS electricity_report (
+    report_id         INT            NOT NULL AUTO_INCREMENT,
+    meter_id          INT            NOT NULL,
+    start_time        DATETIME       NOT NULL,
+    end_time          DATETIME       NOT NULL,
+    total_consumption DECIMAL(12, 2) NULL,
+    create_time       DATETIME       NULL,
+    update_time       DATETIME       NULL,
+    PRIMARY KEY (report_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 读数汇总表：按电表、粒度（HOUR/DAY）和桶起始时间保存首末读数、极值、条数和桶内增量
+CREATE TABLE IF NOT EXISTS meter_reading_rollup (
+    rollup_id     BIGINT         NOT NULL AUTO_INCREMENT,
+    meter_id      INT            NOT NULL,
+    bucket_type   VARCHAR(8)     NOT NULL,
+    bucket_start  DATETIME       NOT NULL,
+    first_time    DATETIME       NOT NULL,
+    first_value   DECIMAL(12, 2) NOT NULL,
+    last_time     DATETIME       NOT NULL,
+    last_value    DECIMAL(12, 2) NOT NULL,
+    min_value     DECIMAL(12, 2) NOT NULL,
+    max_value     DECIMAL(12, 2) NOT NULL,
+    reading_count INT            NOT NULL,
+    delta_value   DECIMAL(12, 2) NOT NULL,
+    update_time   DATETIME       NOT NULL,
+    PRIMARY KEY (rollup_id),
+    UNIQUE KEY uk_meter_bucket (meter_id, bucket_type, bucket_start)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
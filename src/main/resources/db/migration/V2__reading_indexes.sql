@@ -0,0 +1,9 @@
+-- 热点查询都是“某电表 + 读数时间范围”：(meter_id, reading_time, reading_value) 覆盖区间读取、导出、报表和突增检测，
+-- InnoDB 二级索引自带主键 reading_id，查询无需回表
+CREATE INDEX idx_meter_time_value ON meter_reading (meter_id, reading_time, reading_value);
+
+-- 游标分页按 (reading_time, reading_id) 倒序定位，全表导出按时间范围扫描
+CREATE INDEX idx_reading_time ON meter_reading (reading_time);
+
+-- 报表按电表查询、按时间范围检索
+CREATE INDEX idx_report_meter_time ON electricity_report (meter_id, start_time);
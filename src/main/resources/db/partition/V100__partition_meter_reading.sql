@@ -0,0 +1,8 @@
+-- 读数表按 reading_time 做 RANGE COLUMNS 分区，先只建一个 MAXVALUE 分区，
+-- 按月的分区由 ReadingPartitionManager 从 p_future 中拆分出来，超期分区整体 DROP 而不是 DELETE。
+-- 分区表的主键必须包含分区列，且不支持外键；会重建整张表，请在低峰期启用
+ALTER TABLE meter_reading DROP PRIMARY KEY, ADD PRIMARY KEY (reading_id, reading_time);
+
+ALTER TABLE meter_reading PARTITION BY RANGE COLUMNS (reading_time) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,106 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import cn.edu.cqrk.energytrack.config.TwoLevelCacheProperties;
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读数缓存序列化基准：CompactCacheSerializer（压缩阈值取默认配置）与 GenericJackson2JsonRedisSerializer
+ * 对同一段读数序列的序列化、反序列化耗时，每组参数的字节数在预热前打印
+ * 运行：mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     -Dexec.args="-cp %classpath cn.edu.cqrk.energytrack.cache.CacheSerializerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    // 96 条约一天的 15 分钟读数，1440 条约一天的分钟读数
+    @Param({"96", "1440"})
+    public int readings;
+
+    @Param({"compact", "json"})
+    public String format;
+
+    private RedisSerializer<Object> serializer;
+    private List<MeterReadingVo> series;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        if ("compact".equals(format)) {
+            serializer = new CompactCacheSerializer(Collections.singletonList(
+                    new ReadingSeriesCodec(new TwoLevelCacheProperties().getCompressThreshold())),
+                    new JdkSerializationRedisSerializer());
+        } else {
+            serializer = new GenericJackson2JsonRedisSerializer();
+        }
+        series = series(readings);
+        bytes = serializer.serialize(series);
+        System.out.printf("%s, %d readings: %d bytes%n", format, readings, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(series);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    /**
+     * 一块电表的累计读数：每分钟一条，采集时间有秒级抖动，读数递增量随机
+     */
+    static List<MeterReadingVo> series(int count) {
+        Random random = new Random(42);
+        long time = 1700000000000L;
+        long cents = 1_234_567L;
+        List<MeterReadingVo> series = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Date readingTime = new Date(time + random.nextInt(3000));
+            Date createTime = new Date(readingTime.getTime() + 100 + random.nextInt(400));
+            series.add(new MeterReadingVo(500_000 + i, 42, BigDecimal.valueOf(cents, 2), readingTime,
+                    createTime, createTime));
+            time += 60_000L;
+            cents += random.nextInt(80);
+        }
+        return series;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CacheSerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,157 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ReadingSeriesCodec 与 CompactCacheSerializer 往返测试
+ */
+class CompactCacheSerializerTest {
+
+    private static final long BASE_TIME = 1700000000000L;
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(
+            Collections.singletonList(new ReadingSeriesCodec(256)), jdkSerializer);
+
+    @Test
+    void roundTripRegularSeries() {
+        List<MeterReadingVo> readings = series(2000);
+        byte[] bytes = serializer.serialize(readings);
+
+        // 使用紧凑编码而不是后备格式，且明显小于 JDK 序列化
+        assertEquals(1, bytes[0]);
+        assertTrue(bytes.length * 10 < jdkSerializer.serialize(readings).length);
+        assertEquals(readings, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void smallerThanJsonSerializer() {
+        // 与 CacheSerializerBenchmark 相同的一天分钟读数，压缩阈值取默认配置
+        List<MeterReadingVo> readings = CacheSerializerBenchmark.series(1440);
+        CompactCacheSerializer compact = new CompactCacheSerializer(
+                Collections.singletonList(new ReadingSeriesCodec(4096)), jdkSerializer);
+        byte[] bytes = compact.serialize(readings);
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(readings);
+
+        assertTrue(bytes.length * 20 < json.length, bytes.length + " / " + json.length);
+        assertEquals(readings, compact.deserialize(bytes));
+    }
+
+    @Test
+    void roundTripUncompressed() {
+        ReadingSeriesCodec codec = new ReadingSeriesCodec(0);
+        List<MeterReadingVo> readings = series(50);
+        assertEquals(readings, codec.decode(codec.encode(readings), 0));
+    }
+
+    @Test
+    void roundTripNullFields() {
+        List<MeterReadingVo> readings = series(20);
+        readings.get(0).setReadingId(null);
+        readings.get(3).setMeterId(null);
+        readings.get(5).setReadingValue(null);
+        readings.get(8).setReadingTime(null);
+        readings.get(9).setCreateTime(null);
+        readings.get(19).setUpdateTime(null);
+        readings.add(new MeterReadingVo());
+
+        // 有空的读数时间或读数值时退回两列差分编码
+        assertEquals(readings, serializer.deserialize(serializer.serialize(readings)));
+    }
+
+    @Test
+    void roundTripIrregularValues() {
+        List<MeterReadingVo> readings = new ArrayList<>();
+        readings.add(reading(1, 7, "-12.50", BASE_TIME));
+        readings.add(reading(2, 7, "0.00", BASE_TIME));
+        readings.add(reading(3, 7, "99999999.99", BASE_TIME - 60_000L));
+        readings.add(reading(1_000_000, 3, "-99999999.99", BASE_TIME + 86_400_000L));
+        assertEquals(readings, serializer.deserialize(serializer.serialize(readings)));
+    }
+
+    @Test
+    void mixedScaleFallsBackToJdkSerialization() {
+        List<MeterReadingVo> readings = Arrays.asList(
+                reading(1, 1, "1.5", BASE_TIME),
+                reading(2, 1, "1.50", BASE_TIME + 60_000L));
+        byte[] bytes = serializer.serialize(readings);
+
+        assertEquals(0, bytes[0]);
+        List<?> decoded = (List<?>) serializer.deserialize(bytes);
+        // 小数位必须保持原样，不能被统一
+        assertEquals(new BigDecimal("1.5"), ((MeterReadingVo) decoded.get(0)).getReadingValue());
+        assertEquals(new BigDecimal("1.50"), ((MeterReadingVo) decoded.get(1)).getReadingValue());
+    }
+
+    @Test
+    void unsupportedValuesUseFallback() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("total", new BigDecimal("12.34"));
+        byte[] bytes = serializer.serialize(map);
+
+        assertEquals(0, bytes[0]);
+        assertEquals(map, serializer.deserialize(bytes));
+        assertEquals(Collections.emptyList(), serializer.deserialize(serializer.serialize(Collections.emptyList())));
+    }
+
+    @Test
+    void readsLegacyJdkSerializedEntries() {
+        List<MeterReadingVo> readings = series(10);
+        // 启用紧凑序列化器之前写入 Redis 的条目没有编码标识字节
+        byte[] legacy = jdkSerializer.serialize(new ArrayList<>(readings));
+
+        assertEquals(readings, serializer.deserialize(legacy));
+    }
+
+    @Test
+    void nullAndEmpty() {
+        assertNull(serializer.serialize(null));
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void unknownCodecIdIsRejected() {
+        assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[]{42, 0}));
+    }
+
+    @Test
+    void duplicateCodecIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CompactCacheSerializer(
+                Arrays.asList(new ReadingSeriesCodec(0), new ReadingSeriesCodec(0)), jdkSerializer));
+    }
+
+    private static List<MeterReadingVo> series(int count) {
+        List<MeterReadingVo> readings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long time = BASE_TIME + i * 60_000L + (i % 7 == 0 ? 1500 : 0);
+            MeterReadingVo reading = reading(1000 + i, 42, BigDecimal.valueOf(10_000 + i * 37L, 2).toPlainString(), time);
+            reading.setCreateTime(new Date(time + 200));
+            reading.setUpdateTime(new Date(time + 200));
+            readings.add(reading);
+        }
+        return readings;
+    }
+
+    private static MeterReadingVo reading(int readingId, int meterId, String value, long time) {
+        return new MeterReadingVo(readingId, meterId, new BigDecimal(value), new Date(time), null, null);
+    }
+}
@@ -0,0 +1,60 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import cn.edu.cqrk.energytrack.entity.pojo.Meter;
+import cn.edu.cqrk.energytrack.mapper.MeterMapper;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MeterIdIndex 测试：重建期间的删除不会被重建结果覆盖
+ */
+class MeterIdIndexTest {
+
+    private final MeterMapper meterMapper = mock(MeterMapper.class);
+    private final MeterIdIndex index = new MeterIdIndex(meterMapper, mock(CacheInvalidationBus.class));
+
+    @BeforeAll
+    static void initTableInfo() {
+        // Lambda 条件构造需要实体的列信息，测试中没有 MyBatis-Plus 自动配置
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Meter.class);
+    }
+
+    @Test
+    void removalDuringRebuildIsKept() {
+        // 查询返回的是删除前的快照，删除在查询之后、发布新索引之前到达
+        when(meterMapper.selectObjs(any())).thenAnswer(invocation -> {
+            index.remove(2);
+            return Arrays.<Object>asList(1, 2, 3);
+        });
+        when(meterMapper.selectCount(any())).thenReturn(0L);
+
+        index.rebuild();
+
+        assertTrue(index.contains(1));
+        assertTrue(index.contains(3));
+        assertFalse(index.contains(2));
+    }
+
+    @Test
+    void removalAfterRebuildIsApplied() {
+        when(meterMapper.selectObjs(any())).thenReturn(Arrays.<Object>asList(1, 2, 3));
+        when(meterMapper.selectCount(any())).thenReturn(0L);
+
+        index.rebuild();
+        index.remove(3);
+
+        assertTrue(index.contains(2));
+        assertFalse(index.contains(3));
+    }
+}
@@ -0,0 +1,38 @@
+package cn.edu.cqrk.energytrack.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * TwoLevelCache 测试：回填写入不广播失效，删除和清空广播
+ */
+class TwoLevelCacheTest {
+
+    private final CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+    private final TwoLevelCache cache = new TwoLevelCache("readings", new ConcurrentMapCache("readings"),
+            new LocalLruCache(1024 * 1024, 60_000), bus);
+
+    @Test
+    void putDoesNotInvalidateOtherNodes() {
+        cache.put("1:g1", "value");
+        cache.get("1:g1", () -> "loaded");
+
+        assertEquals("value", cache.get("1:g1", String.class));
+        verifyNoInteractions(bus);
+    }
+
+    @Test
+    void evictAndClearInvalidateOtherNodes() {
+        cache.put("1:g1", "value");
+        cache.evict("1:g1");
+        cache.clear();
+
+        verify(bus).publish(CacheInvalidationBus.TYPE_ENTRY, "readings", "1:g1");
+        verify(bus).publish(CacheInvalidationBus.TYPE_ENTRY, "readings", CacheInvalidationBus.ALL_KEYS);
+    }
+}
@@ -0,0 +1,118 @@
+package cn.edu.cqrk.energytrack.common;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import cn.edu.cqrk.energytrack.config.JwtProperties;
+import cn.edu.cqrk.energytrack.config.PrincipalCacheProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.SysUser;
+import cn.edu.cqrk.energytrack.entity.vo.SysUserVo;
+import cn.edu.cqrk.energytrack.filter.JwtAuthenticationFilter;
+import cn.edu.cqrk.energytrack.filter.PrincipalCache;
+import cn.edu.cqrk.energytrack.mapper.SysUserMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * JWT 验证耗时基准：关闭（verifiedCacheSize = 0）与开启已验证令牌缓存时，
+ * 分别测量 JwtUtil.parseToken 和经过 JwtAuthenticationFilter 的完整认证路径（认证用户缓存已预热，不查询数据库）
+ * 运行：mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     -Dexec.args="-cp %classpath cn.edu.cqrk.energytrack.common.JwtParseBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "energytrack-benchmark-secret-0123456789-abcdefghij";
+    private static final String FILTERED_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".FILTERED";
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    @Param({"0", "1024"})
+    public int verifiedCacheSize;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(3600L);
+        properties.setVerifiedCacheSize(verifiedCacheSize);
+        jwtUtil = new JwtUtil(properties);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600L);
+
+        SysUserVo vo = new SysUserVo();
+        vo.setId(42);
+        vo.setUsername("alice");
+        vo.setRole("ADMIN");
+        token = jwtUtil.generateToken(vo);
+
+        SysUser user = new SysUser();
+        user.setId(42);
+        user.setUsername("alice");
+        PrincipalCache principalCache = new PrincipalCache(new PrincipalCacheProperties(), mock(ObjectProvider.class));
+        Date issuedAt = jwtUtil.parseToken(token).getIssuedAt();
+        principalCache.put("alice", issuedAt.getTime(), user);
+        filter = new JwtAuthenticationFilter(jwtUtil, new ObjectMapper(), mock(SysUserMapper.class), principalCache);
+
+        request = new MockHttpServletRequest("GET", "/meterReading/list");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Object filter() throws ServletException, IOException {
+        // OncePerRequestFilter 用请求属性标记已执行，复用请求前清除标记
+        request.removeAttribute(FILTERED_ATTRIBUTE);
+        filter.doFilter(request, response, CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtParseBenchmark.class.getSimpleName()).build()).run();
+    }
+}
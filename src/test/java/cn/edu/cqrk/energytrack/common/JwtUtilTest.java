@@ -0,0 +1,108 @@
+package cn.edu.cqrk.energytrack.common;
+
+import cn.edu.cqrk.energytrack.config.JwtProperties;
+import cn.edu.cqrk.energytrack.entity.vo.SysUserVo;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JwtUtil 签发与验证测试，包括已验证令牌缓存
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "energytrack-test-secret-0123456789-abcdefghij";
+
+    @Test
+    void parsesGeneratedToken() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 3600, 16);
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(user()));
+
+        assertEquals("alice", claims.getSubject());
+        assertEquals(42, claims.get("userId", Integer.class).intValue());
+        assertEquals("ADMIN", claims.get("roles", String.class));
+    }
+
+    @Test
+    void cachesVerifiedTokens() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 3600, 16);
+        String token = jwtUtil.generateToken(user());
+
+        assertSame(jwtUtil.parseToken(token), jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void cacheCanBeDisabled() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 3600, 0);
+        String token = jwtUtil.generateToken(user());
+
+        assertNotSame(jwtUtil.parseToken(token), jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTokens() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 3600, 1);
+        String first = jwtUtil.generateToken(user());
+        SysUserVo other = user();
+        other.setUsername("bob");
+        String second = jwtUtil.generateToken(other);
+
+        Claims claims = jwtUtil.parseToken(first);
+        jwtUtil.parseToken(second);
+        assertNotSame(claims, jwtUtil.parseToken(first));
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 3600, 16);
+        String token = jwtUtil.generateToken(user());
+        jwtUtil.parseToken(token);
+
+        // 已缓存令牌的任意改动都不能命中缓存，必须重新校验签名
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(token + "x"));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String token = jwtUtil(SECRET.replace('0', '9'), 3600, 16).generateToken(user());
+
+        assertThrows(JwtException.class, () -> jwtUtil(SECRET, 3600, 16).parseToken(token));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, -1, 16);
+        String token = jwtUtil.generateToken(user());
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+        // 过期令牌不会进入缓存
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+    }
+
+    private static JwtUtil jwtUtil(String secret, long expirationSeconds, int cacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(secret);
+        properties.setExpiration(expirationSeconds);
+        properties.setVerifiedCacheSize(cacheSize);
+        JwtUtil jwtUtil = new JwtUtil(properties);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expirationSeconds);
+        return jwtUtil;
+    }
+
+    private static SysUserVo user() {
+        SysUserVo user = new SysUserVo();
+        user.setId(42);
+        user.setUsername("alice");
+        user.setRole("ADMIN");
+        return user;
+    }
+}
@@ -0,0 +1,192 @@
+package cn.edu.cqrk.energytrack.ingest;
+
+import cn.edu.cqrk.energytrack.cache.CacheGenerations;
+import cn.edu.cqrk.energytrack.config.IngestProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import cn.edu.cqrk.energytrack.entity.vo.IngestStatsVo;
+import cn.edu.cqrk.energytrack.mapper.MeterReadingMapper;
+import cn.edu.cqrk.energytrack.series.HotSeriesStore;
+import cn.edu.cqrk.energytrack.service.MeterReadingRollupService;
+import cn.edu.cqrk.energytrack.surge.SurgeMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * MeterReadingWriteBuffer 死信重放测试：无效读数逐条隔离、坏文件不阻塞后续文件、中断后重放不重复写入
+ */
+class MeterReadingWriteBufferTest {
+
+    // reading_value 列为 DECIMAL(12,2)
+    private static final BigDecimal MAX_VALUE = new BigDecimal("9999999999.99");
+
+    @TempDir
+    Path deadLetterDir;
+
+    private MeterReadingMapper mapper;
+    private MeterReadingRollupService rollupService;
+    private HotSeriesStore hotSeriesStore;
+    private SurgeMonitor surgeMonitor;
+    private MeterReadingWriteBuffer buffer;
+    // 模拟的 meter_reading 表
+    private final List<MeterReading> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        IngestProperties properties = new IngestProperties();
+        properties.setAsyncEnabled(false);
+        properties.setDeadLetterDir(deadLetterDir.toString());
+        mapper = mock(MeterReadingMapper.class);
+        rollupService = mock(MeterReadingRollupService.class);
+        hotSeriesStore = mock(HotSeriesStore.class);
+        surgeMonitor = mock(SurgeMonitor.class);
+        when(mapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<MeterReading> rows = invocation.getArgument(0);
+            // 多行 INSERT 是原子的，任一行超出列范围整条语句失败
+            if (rows.stream().anyMatch(row -> row.getReadingValue().compareTo(MAX_VALUE) > 0)) {
+                throw new DataIntegrityViolationException("Out of range value for column 'reading_value'");
+            }
+            for (MeterReading row : rows) {
+                table.add(reading(row.getMeterId(), row.getReadingValue().setScale(2, RoundingMode.HALF_UP).toPlainString(),
+                        row.getReadingTime().getTime() / 1000 * 1000));
+            }
+            return rows.size();
+        });
+        when(mapper.selectExisting(anyList())).thenAnswer(invocation -> {
+            List<MeterReading> rows = invocation.getArgument(0);
+            return table.stream().filter(stored -> rows.stream().anyMatch(row -> sameReading(stored, row)))
+                    .collect(Collectors.toList());
+        });
+        buffer = new MeterReadingWriteBuffer(properties, mapper, mock(CacheGenerations.class), rollupService, hotSeriesStore,
+                surgeMonitor);
+    }
+
+    @Test
+    void quarantinesOnlyRowsThatCannotBeInserted() throws IOException {
+        writeFile("readings-1-1.dlq", "1,10.5,1000,,", "1,12345678901.00,2000,,", "2,20,3000,,");
+        writeFile("readings-1-2.dlq", "3,30,4000,,");
+        // 死信计数在启动时从文件统计
+        buffer.start();
+
+        buffer.replayDeadLetters();
+
+        assertEquals(Arrays.asList(1, 2, 3), table.stream().map(MeterReading::getMeterId).collect(Collectors.toList()));
+        // 同一文件中的其他读数正常写入，只有超出范围的一条隔离
+        List<String> files = fileNames();
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).endsWith(".failed"));
+        assertEquals(Collections.singletonList("1,12345678901.00,2000,,"), lines(files.get(0)));
+        IngestStatsVo stats = buffer.stats();
+        assertEquals(3L, stats.getCommittedCount());
+        assertEquals(0L, stats.getDeadLetterCount());
+        assertEquals(1L, stats.getQuarantinedCount());
+    }
+
+    @Test
+    void unparsableFileDoesNotBlockLaterFiles() throws IOException {
+        writeFile("readings-1-1.dlq", "not a reading");
+        writeFile("readings-1-2.dlq", "3,30,4000,,");
+        // 死信计数在启动时从文件统计
+        buffer.start();
+
+        buffer.replayDeadLetters();
+
+        assertEquals(1, table.size());
+        assertEquals(Collections.singletonList("readings-1-1.dlq.failed"), fileNames());
+        assertEquals(1L, buffer.stats().getQuarantinedCount());
+        assertEquals(0L, buffer.stats().getDeadLetterCount());
+    }
+
+    @Test
+    void interruptedReplaySkipsRowsAlreadyInserted() throws IOException {
+        // 上次重放写入了第一行后进程退出，文件停留在 .replaying；表中的时间已去掉毫秒、读数值已舍入
+        table.add(reading(1, "10.01", 1000));
+        writeFile("readings-1-1.dlq.replaying", "1,10.005,1700,,", "2,20,3000,,");
+        // 死信计数在启动时从文件统计
+        buffer.start();
+
+        buffer.replayDeadLetters();
+
+        assertEquals(2, table.size());
+        assertEquals(Collections.emptyList(), fileNames());
+        // 已存在的读数重建汇总而不是再次增量合并
+        verify(rollupService).rebuild(eq(1), eq(new Date(1700)), eq(new Date(1700)));
+        verify(rollupService).applyInserted(Collections.singletonList(reading(2, "20", 3000)));
+        // 只有本次写入的读数交给突增检测，已存在的读数不再重复检测
+        verify(surgeMonitor).onInserted(Collections.singletonList(reading(2, "20", 3000)));
+        verify(hotSeriesStore).invalidate(1);
+    }
+
+    @Test
+    void databaseFailureKeepsFileForNextRound() throws IOException {
+        writeFile("readings-1-1.dlq", "1,10.5,1000,,");
+        writeFile("readings-1-2.dlq", "2,20,3000,,");
+        // 死信计数在启动时从文件统计
+        buffer.start();
+        when(mapper.insertBatch(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        buffer.replayDeadLetters();
+
+        assertEquals(Arrays.asList("readings-1-1.dlq.replaying", "readings-1-2.dlq"), fileNames());
+        assertEquals(2L, buffer.stats().getDeadLetterCount());
+        verify(rollupService, never()).applyInserted(any());
+        verify(surgeMonitor, never()).onInserted(any());
+    }
+
+    private void writeFile(String name, String... lines) throws IOException {
+        Files.write(deadLetterDir.resolve(name), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private List<String> lines(String name) throws IOException {
+        return Files.readAllLines(deadLetterDir.resolve(name), StandardCharsets.UTF_8);
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(deadLetterDir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static MeterReading reading(int meterId, String value, long time) {
+        MeterReading reading = new MeterReading();
+        reading.setMeterId(meterId);
+        reading.setReadingValue(new BigDecimal(value));
+        reading.setReadingTime(new Date(time));
+        return reading;
+    }
+
+    /**
+     * 与 selectExisting 一致：参数先转换为列类型再比较，时间按秒截断（MariaDB 的行为），读数值保留两位小数
+     */
+    private static boolean sameReading(MeterReading stored, MeterReading row) {
+        return stored.getMeterId().equals(row.getMeterId())
+                && stored.getReadingTime().getTime() / 1000 == row.getReadingTime().getTime() / 1000
+                && stored.getReadingValue().compareTo(row.getReadingValue().setScale(2, RoundingMode.HALF_UP)) == 0;
+    }
+}
@@ -0,0 +1,119 @@
+package cn.edu.cqrk.energytrack.report;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import cn.edu.cqrk.energytrack.config.ReportProperties;
+import cn.edu.cqrk.energytrack.entity.pojo.MeterReading;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读数报表生成耗时基准：每次请求编译 JRXML（改动前）与从 ReportTemplateRegistry 取缓存模板（改动后）对比，
+ * 分别测量只取模板和取模板后填充、导出一份 PDF 的耗时。
+ * 字体文件 fonts/simsun.ttf 不在仓库中时改用默认字体导出，不影响两种方式的对比
+ * 运行：mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     -Dexec.args="-cp %classpath cn.edu.cqrk.energytrack.report.ReportTemplateBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportTemplateBenchmark {
+
+    private static final String TEMPLATE = "meter_reading_report";
+    // 一份报表的读数条数，约一天的 15 分钟读数
+    private static final int READINGS = 96;
+
+    private Resource source;
+    private ReportTemplateRegistry registry;
+    private List<MeterReading> readings;
+
+    @Setup
+    public void setUp() throws JRException {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        DefaultJasperReportsContext.getInstance().setProperty("net.sf.jasperreports.awt.ignore.missing.font", "true");
+        DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+        source = resourceLoader.getResource("classpath:reports/" + TEMPLATE + ".jrxml");
+        registry = new ReportTemplateRegistry(new ReportProperties(), resourceLoader);
+        registry.get(TEMPLATE);
+        readings = new ArrayList<>(READINGS);
+        long start = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        for (int i = 0; i < READINGS; i++) {
+            MeterReading reading = new MeterReading();
+            reading.setMeterId(1);
+            reading.setReadingValue(BigDecimal.valueOf(1000 + i * 0.25));
+            reading.setReadingTime(new Date(start + TimeUnit.MINUTES.toMillis(15) * i));
+            readings.add(reading);
+        }
+    }
+
+    @Benchmark
+    public JasperReport compilePerRequest() throws JRException, IOException {
+        try (InputStream in = source.getInputStream()) {
+            return JasperCompileManager.compileReport(in);
+        }
+    }
+
+    @Benchmark
+    public JasperReport cachedTemplate() throws JRException {
+        return registry.get(TEMPLATE);
+    }
+
+    @Benchmark
+    public byte[] pdfCompilePerRequest() throws JRException, IOException {
+        return export(compilePerRequest());
+    }
+
+    @Benchmark
+    public byte[] pdfCachedTemplate() throws JRException {
+        return export(registry.get(TEMPLATE));
+    }
+
+    private byte[] export(JasperReport report) throws JRException {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("meterId", 1);
+        parameters.put("startTime", new Timestamp(readings.get(0).getReadingTime().getTime()));
+        parameters.put("endTime", new Timestamp(readings.get(READINGS - 1).getReadingTime().getTime()));
+        JasperPrint print = JasperFillManager.fillReport(report, parameters, new JRBeanCollectionDataSource(readings));
+        return JasperExportManager.exportReportToPdf(print);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReportTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
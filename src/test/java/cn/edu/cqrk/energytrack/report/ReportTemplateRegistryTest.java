@@ -0,0 +1,128 @@
+package cn.edu.cqrk.energytrack.report;
+
+import cn.edu.cqrk.energytrack.config.ReportProperties;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRSaver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ReportTemplateRegistry 测试：编译缓存、从 jar 内加载、预编译模板优先、热加载
+ */
+class ReportTemplateRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compilesClasspathTemplateOnce() throws JRException {
+        ReportTemplateRegistry registry = new ReportTemplateRegistry(new ReportProperties(), new DefaultResourceLoader());
+
+        JasperReport report = registry.get("meter_reading_report");
+        assertEquals("meter_reading_report", report.getName());
+        assertSame(report, registry.get("meter_reading_report"));
+    }
+
+    @Test
+    void missingTemplateIsRejected() {
+        ReportTemplateRegistry registry = new ReportTemplateRegistry(new ReportProperties(), new DefaultResourceLoader());
+
+        assertThrows(JRException.class, () -> registry.get("no_such_report"));
+    }
+
+    @Test
+    void loadsTemplatesFromJar() throws Exception {
+        Path jar = tempDir.resolve("app.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            putEntry(out, "reports/source_only.jrxml", jrxml("source_only").getBytes(StandardCharsets.UTF_8));
+            putEntry(out, "reports/precompiled.jrxml", jrxml("from_source").getBytes(StandardCharsets.UTF_8));
+            putEntry(out, "reports/precompiled.jasper", compiled("from_jasper"));
+        }
+        ReportProperties properties = new ReportProperties();
+        // jar 内的模板没有对应文件，开启热加载也不会重新编译
+        properties.setHotReload(true);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            ReportTemplateRegistry registry = new ReportTemplateRegistry(properties, new DefaultResourceLoader(classLoader));
+
+            JasperReport sourceOnly = registry.get("source_only");
+            assertEquals("source_only", sourceOnly.getName());
+            assertSame(sourceOnly, registry.get("source_only"));
+            // 同时存在时优先加载预编译的 .jasper
+            assertEquals("from_jasper", registry.get("precompiled").getName());
+        }
+    }
+
+    @Test
+    void reloadsModifiedTemplateOnlyWhenHotReloadEnabled() throws Exception {
+        Path template = tempDir.resolve("reports").resolve("editable.jrxml");
+        Files.createDirectories(template.getParent());
+        Files.write(template, jrxml("version_1").getBytes(StandardCharsets.UTF_8));
+
+        ReportProperties properties = new ReportProperties();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, null)) {
+            ReportTemplateRegistry registry = new ReportTemplateRegistry(properties, new DefaultResourceLoader(classLoader));
+            JasperReport first = registry.get("editable");
+            assertEquals("version_1", first.getName());
+
+            Files.write(template, jrxml("version_2").getBytes(StandardCharsets.UTF_8));
+            template.toFile().setLastModified(template.toFile().lastModified() + 2000);
+            assertSame(first, registry.get("editable"));
+
+            properties.setHotReload(true);
+            JasperReport reloaded = registry.get("editable");
+            assertNotSame(first, reloaded);
+            assertEquals("version_2", reloaded.getName());
+            assertSame(reloaded, registry.get("editable"));
+        }
+    }
+
+    private static void putEntry(JarOutputStream out, String name, byte[] content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private static byte[] compiled(String name) throws JRException {
+        JasperReport report = JasperCompileManager.compileReport(
+                new ByteArrayInputStream(jrxml(name).getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JRSaver.saveObject(report, (OutputStream) bytes);
+        return bytes.toByteArray();
+    }
+
+    private static String jrxml(String name) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+                + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                + " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports"
+                + " http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+                + " name=\"" + name + "\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\""
+                + " leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n"
+                + "  <field name=\"meterId\" class=\"java.lang.Integer\"/>\n"
+                + "  <detail><band height=\"20\"><textField>"
+                + "<reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+                + "<textFieldExpression><![CDATA[$F{meterId}]]></textFieldExpression>"
+                + "</textField></band></detail>\n"
+                + "</jasperReport>\n";
+    }
+}
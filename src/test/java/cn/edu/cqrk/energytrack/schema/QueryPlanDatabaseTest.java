@@ -0,0 +1,102 @@
+package cn.edu.cqrk.energytrack.schema;
+
+import cn.edu.cqrk.energytrack.config.SchemaProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 在真实 MySQL 上执行迁移脚本，检查热点查询的 EXPLAIN 使用了迁移创建的索引
+ * 连接 energytrack.test.mysql.host（默认 localhost:3306），用户名、密码取 energytrack.test.mysql.username / password，
+ * 在其中新建临时库 energytrack_plan_test，测试结束后删除；连接不上时跳过
+ */
+class QueryPlanDatabaseTest {
+
+    private static final String DATABASE = "energytrack_plan_test";
+    private static final String PARAMS = "?characterEncoding=UTF-8&serverTimezone=Asia/Shanghai"
+            + "&connectTimeout=2000&rewriteBatchedStatements=true";
+    private static final int METERS = 200;
+    private static final int READINGS_PER_METER = 100;
+    private static final int REPORTS_PER_METER = 20;
+
+    private static JdbcTemplate server;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createDatabase() {
+        String host = System.getProperty("energytrack.test.mysql.host", "localhost:3306");
+        String username = System.getProperty("energytrack.test.mysql.username", "root");
+        String password = System.getProperty("energytrack.test.mysql.password", "");
+        server = new JdbcTemplate(new DriverManagerDataSource("jdbc:mysql://" + host + "/" + PARAMS, username, password));
+        try {
+            server.execute("DROP DATABASE IF EXISTS " + DATABASE);
+        } catch (Exception e) {
+            server = null;
+            assumeTrue(false, "MySQL 不可用（" + host + "），跳过: " + e.getMessage());
+        }
+        server.execute("CREATE DATABASE " + DATABASE + " DEFAULT CHARSET utf8mb4");
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:mysql://" + host + "/" + DATABASE + PARAMS,
+                username, password));
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (server != null) {
+            server.execute("DROP DATABASE IF EXISTS " + DATABASE);
+        }
+    }
+
+    @Test
+    void hotQueriesUseMigrationIndexes() throws IOException {
+        SchemaProperties properties = new SchemaProperties();
+        SchemaMigrator migrator = new SchemaMigrator(jdbcTemplate, properties);
+        migrator.migrate();
+        // 再次执行不会重复应用
+        migrator.migrate();
+        assertEquals(Arrays.asList(1, 2),
+                jdbcTemplate.queryForList("SELECT version FROM schema_version ORDER BY version", Integer.class));
+
+        seed();
+
+        Map<String, String> keys = new QueryPlanVerifier(jdbcTemplate, properties).verify();
+        assertEquals("idx_meter_time_value", keys.get("readingRange"));
+        assertEquals("idx_reading_time", keys.get("readingSeek"));
+        assertEquals("idx_report_meter_time", keys.get("reportByMeter"));
+    }
+
+    /**
+     * 写入足够多的读数和报表，避免优化器因数据太少选择全表扫描
+     */
+    private static void seed() {
+        long now = System.currentTimeMillis();
+        long step = TimeUnit.DAYS.toMillis(2) / READINGS_PER_METER;
+        List<Object[]> readings = new ArrayList<>();
+        List<Object[]> reports = new ArrayList<>();
+        for (int meterId = 1; meterId <= METERS; meterId++) {
+            for (int i = 0; i < READINGS_PER_METER; i++) {
+                Timestamp time = new Timestamp(now - (READINGS_PER_METER - i) * step);
+                readings.add(new Object[]{meterId, i * 1.5, time});
+            }
+            for (int i = 0; i < REPORTS_PER_METER; i++) {
+                Timestamp start = new Timestamp(now - TimeUnit.DAYS.toMillis(REPORTS_PER_METER - i));
+                reports.add(new Object[]{meterId, start, new Timestamp(start.getTime() + TimeUnit.DAYS.toMillis(1))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO meter_reading (meter_id, reading_value, reading_time) VALUES (?, ?, ?)", readings);
+        jdbcTemplate.batchUpdate("INSERT INTO electricity_report (meter_id, start_time, end_time) VALUES (?, ?, ?)", reports);
+        jdbcTemplate.execute("ANALYZE TABLE meter_reading, electricity_report");
+    }
+}
@@ -0,0 +1,85 @@
+package cn.edu.cqrk.energytrack.schema;
+
+import cn.edu.cqrk.energytrack.config.SchemaProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * QueryPlanVerifier 测试：默认不在启动时执行，按 EXPLAIN 结果返回实际使用的索引
+ */
+class QueryPlanVerifierTest {
+
+    @Test
+    void disabledByDefault() {
+        SchemaProperties properties = new SchemaProperties();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        assertFalse(properties.isVerifyPlans());
+        new QueryPlanVerifier(jdbcTemplate, properties).onReady();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void runsOnStartupWhenEnabled() {
+        SchemaProperties properties = new SchemaProperties();
+        properties.setVerifyPlans(true);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(Collections.emptyList());
+
+        new QueryPlanVerifier(jdbcTemplate, properties).onReady();
+        verify(jdbcTemplate, times(3)).queryForList(anyString());
+    }
+
+    @Test
+    void reportsIndexUsedByEachQuery() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("meter_reading"))).thenReturn(1_000_000L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("electricity_report"))).thenReturn(null);
+        when(jdbcTemplate.queryForList(contains("reading_time >= NOW()"))).thenReturn(plan("idx_meter_time_value"));
+        when(jdbcTemplate.queryForList(contains("ORDER BY reading_time DESC"))).thenReturn(plan(null));
+        when(jdbcTemplate.queryForList(contains("electricity_report"))).thenReturn(Collections.emptyList());
+
+        Map<String, String> result = new QueryPlanVerifier(jdbcTemplate, new SchemaProperties()).verify();
+
+        assertEquals(3, result.size());
+        assertEquals("idx_meter_time_value", result.get("readingRange"));
+        assertTrue(result.containsKey("readingSeek"));
+        assertNull(result.get("readingSeek"));
+        assertNull(result.get("reportByMeter"));
+    }
+
+    @Test
+    void databaseErrorsAreNotPropagated() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("meter_reading")))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertTrue(new QueryPlanVerifier(jdbcTemplate, new SchemaProperties()).verify().isEmpty());
+    }
+
+    private static List<Map<String, Object>> plan(String key) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1);
+        row.put("key", key);
+        return Collections.singletonList(row);
+    }
+}
@@ -0,0 +1,63 @@
+package cn.edu.cqrk.energytrack.schema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SchemaMigrator 迁移脚本拆分测试
+ */
+class SchemaMigratorTest {
+
+    @Test
+    void splitsStatementsAndStripsComments() {
+        List<String> statements = SchemaMigrator.split("-- header; not a statement\n"
+                + "CREATE TABLE a (id INT); /* block; comment */\n"
+                + "CREATE INDEX idx_a ON a (id) -- trailing; comment\n"
+                + ";\n\n;  \n"
+                + "DROP TABLE b");
+
+        assertEquals(Arrays.asList("CREATE TABLE a (id INT)", "CREATE INDEX idx_a ON a (id)", "DROP TABLE b"), statements);
+    }
+
+    @Test
+    void keepsSeparatorsAndCommentMarkersInsideQuotes() {
+        List<String> statements = SchemaMigrator.split("INSERT INTO t VALUES ('a;b', 'it''s -- fine', 'x\\'; y');\n"
+                + "CREATE TABLE `odd;name` (c VARCHAR(10) COMMENT \"/* not a comment */\");");
+
+        assertEquals(2, statements.size());
+        assertEquals("INSERT INTO t VALUES ('a;b', 'it''s -- fine', 'x\\'; y')", statements.get(0));
+        assertEquals("CREATE TABLE `odd;name` (c VARCHAR(10) COMMENT \"/* not a comment */\")", statements.get(1));
+    }
+
+    @Test
+    void emptyScript() {
+        assertTrue(SchemaMigrator.split("").isEmpty());
+        assertTrue(SchemaMigrator.split("-- only a comment\n/* and a block */\n").isEmpty());
+    }
+
+    @Test
+    void splitsBundledMigrations() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:db/*/*.sql");
+        assertTrue(resources.length > 0);
+        for (Resource resource : resources) {
+            String script = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            List<String> statements = SchemaMigrator.split(script);
+            assertFalse(statements.isEmpty(), resource.getFilename());
+            for (String sql : statements) {
+                assertFalse(sql.startsWith("--") || sql.contains("\n--"), resource.getFilename() + ": " + sql);
+                assertFalse(sql.isEmpty(), resource.getFilename());
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package cn.edu.cqrk.energytrack.series;
+
+import cn.edu.cqrk.energytrack.entity.vo.MeterReadingVo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LttbDownsampler 与 TimeBucketAggregator 测试
+ */
+class DownsamplerTest {
+
+    private static final int METER_ID = 7;
+    private static final long START = 1700000000000L;
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void lttbReturnsAllPointsWhenMaxPointsCoversSeries() {
+        for (int maxPoints : new int[]{100, 101, 500}) {
+            LttbDownsampler downsampler = new LttbDownsampler(METER_ID, START, START + 99 * MINUTE, maxPoints);
+            for (int i = 0; i < 100; i++) {
+                downsampler.accept(i, START + i * MINUTE, i * 1.5);
+            }
+            List<MeterReadingVo> result = downsampler.finish();
+
+            assertEquals(100, result.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(Integer.valueOf(i), result.get(i).getReadingId());
+                assertEquals(START + i * MINUTE, result.get(i).getReadingTime().getTime());
+                assertEquals(0, BigDecimal.valueOf(i * 1.5).compareTo(result.get(i).getReadingValue()));
+                assertEquals(Integer.valueOf(METER_ID), result.get(i).getMeterId());
+            }
+        }
+    }
+
+    @Test
+    void lttbKeepsClusteredPointsWhenMaxPointsCoversSeries() {
+        // 读数集中在范围开头，多个读数落在同一个时间桶里，条数未超过 maxPoints 时也不能丢点
+        long[] minutes = {0, 1, 2, 3, 4, 100};
+        LttbDownsampler downsampler = new LttbDownsampler(METER_ID, START, START + 100 * MINUTE, minutes.length);
+        for (int i = 0; i < minutes.length; i++) {
+            downsampler.accept(i, START + minutes[i] * MINUTE, i);
+        }
+        List<MeterReadingVo> result = downsampler.finish();
+
+        assertEquals(minutes.length, result.size());
+        assertStrictlyIncreasingIds(result);
+    }
+
+    @Test
+    void lttbDownsamplesLongSeries() {
+        int count = 10_000;
+        int maxPoints = 200;
+        long end = START + (count - 1) * MINUTE;
+        LttbDownsampler downsampler = new LttbDownsampler(METER_ID, START, end, maxPoints);
+        for (int i = 0; i < count; i++) {
+            // 中间有一个尖峰，降采样后必须保留
+            downsampler.accept(i, START + i * MINUTE, i == 5_000 ? 1_000_000 : Math.sin(i / 100.0));
+        }
+        List<MeterReadingVo> result = downsampler.finish();
+
+        assertTrue(result.size() <= maxPoints, "size " + result.size());
+        assertTrue(result.size() > maxPoints / 2, "size " + result.size());
+        assertEquals(Integer.valueOf(0), result.get(0).getReadingId());
+        assertEquals(Integer.valueOf(count - 1), result.get(result.size() - 1).getReadingId());
+        assertTrue(result.stream().anyMatch(reading -> Integer.valueOf(5_000).equals(reading.getReadingId())));
+        assertStrictlyIncreasingIds(result);
+    }
+
+    @Test
+    void lttbRejectsMaxPointsBelowThree() {
+        for (int maxPoints : new int[]{-1, 0, 1, 2}) {
+            assertThrows(IllegalArgumentException.class, () -> new LttbDownsampler(METER_ID, START, START + MINUTE, maxPoints));
+        }
+        LttbDownsampler downsampler = new LttbDownsampler(METER_ID, START, START + 9 * MINUTE, 3);
+        for (int i = 0; i < 10; i++) {
+            downsampler.accept(i, START + i * MINUTE, i);
+        }
+        List<MeterReadingVo> result = downsampler.finish();
+        assertEquals(3, result.size());
+        assertEquals(Integer.valueOf(0), result.get(0).getReadingId());
+        assertEquals(Integer.valueOf(9), result.get(2).getReadingId());
+    }
+
+    @Test
+    void lttbHandlesDuplicateTimestamps() {
+        int maxPoints = 10;
+        LttbDownsampler downsampler = new LttbDownsampler(METER_ID, START, START + 4 * MINUTE, maxPoints);
+        int id = 0;
+        for (int minute = 0; minute < 5; minute++) {
+            for (int j = 0; j < 20; j++) {
+                downsampler.accept(id++, START + minute * MINUTE, minute * 10 + j % 3);
+            }
+        }
+        List<MeterReadingVo> result = downsampler.finish();
+
+        assertTrue(result.size() <= maxPoints, "size " + result.size());
+        assertEquals(Integer.valueOf(0), result.get(0).getReadingId());
+        assertEquals(Integer.valueOf(id - 1), result.get(result.size() - 1).getReadingId());
+        assertStrictlyIncreasingIds(result);
+
+        // 全部读数时间相同
+        downsampler = new LttbDownsampler(METER_ID, START, START, maxPoints);
+        for (int i = 0; i < 50; i++) {
+            downsampler.accept(i, START, i % 4);
+        }
+        result = downsampler.finish();
+        assertTrue(result.size() <= maxPoints && result.size() >= 2, "size " + result.size());
+        assertStrictlyIncreasingIds(result);
+    }
+
+    @Test
+    void lttbEmptyAndSinglePoint() {
+        assertTrue(new LttbDownsampler(METER_ID, START, START + MINUTE, 3).finish().isEmpty());
+
+        LttbDownsampler downsampler = new LttbDownsampler(METER_ID, START, START + MINUTE, 3);
+        downsampler.accept(null, START, 1.25);
+        List<MeterReadingVo> result = downsampler.finish();
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getReadingId());
+    }
+
+    @Test
+    void bucketAggregatorAveragesEachBucket() {
+        long bucket = 5 * MINUTE;
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(METER_ID, START, bucket);
+        for (int i = 0; i < 10; i++) {
+            aggregator.accept(i, START + i * MINUTE, i);
+        }
+        // 跳过一个空桶
+        aggregator.accept(10, START + 15 * MINUTE, 100);
+        List<MeterReadingVo> result = aggregator.finish();
+
+        assertEquals(3, result.size());
+        assertEquals(new BigDecimal("2.00"), result.get(0).getReadingValue());
+        assertEquals(new BigDecimal("7.00"), result.get(1).getReadingValue());
+        assertEquals(new BigDecimal("100.00"), result.get(2).getReadingValue());
+        assertEquals(START, result.get(0).getReadingTime().getTime());
+        assertEquals(START + bucket, result.get(1).getReadingTime().getTime());
+        assertEquals(START + 3 * bucket, result.get(2).getReadingTime().getTime());
+        assertNull(result.get(0).getReadingId());
+        assertEquals(Integer.valueOf(METER_ID), result.get(0).getMeterId());
+    }
+
+    @Test
+    void bucketAggregatorHandlesDuplicateTimestamps() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(METER_ID, START, MINUTE);
+        aggregator.accept(1, START, 1);
+        aggregator.accept(2, START, 2);
+        aggregator.accept(3, START + MINUTE, 3);
+        aggregator.accept(4, START + MINUTE, 3);
+        List<MeterReadingVo> result = aggregator.finish();
+
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("1.50"), result.get(0).getReadingValue());
+        assertEquals(new BigDecimal("3.00"), result.get(1).getReadingValue());
+    }
+
+    @Test
+    void bucketAggregatorEmpty() {
+        assertTrue(new TimeBucketAggregator(METER_ID, START, MINUTE).finish().isEmpty());
+    }
+
+    private static void assertStrictlyIncreasingIds(List<MeterReadingVo> readings) {
+        Set<Integer> seen = new HashSet<>();
+        int previous = -1;
+        for (MeterReadingVo reading : readings) {
+            assertTrue(seen.add(reading.getReadingId()), "duplicate reading " + reading.getReadingId());
+            assertTrue(reading.getReadingId() > previous, "out of order at " + reading.getReadingId());
+            previous = reading.getReadingId();
+        }
+    }
+}
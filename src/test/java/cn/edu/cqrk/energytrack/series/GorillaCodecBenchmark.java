@@ -0,0 +1,93 @@
+package cn.edu.cqrk.energytrack.series;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gorilla 编解码吞吐基准：一块电表一周的分钟读数（{@link #POINTS} 个点）整段编码、整段解码，
+ * 结果按点计（points/ms），编码结果字节数在预热前打印
+ * 运行：mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     -Dexec.args="-cp %classpath cn.edu.cqrk.energytrack.series.GorillaCodecBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GorillaCodecBenchmark {
+
+    static final int POINTS = 7 * 1440;
+
+    private long[] times;
+    private long[] values;
+    private GorillaEncoder encoder;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setUp() {
+        times = new long[POINTS];
+        values = new long[POINTS];
+        fill(times, values);
+        encoder = new GorillaEncoder(POINTS);
+        encoded = ByteBuffer.wrap(encode());
+        System.out.printf("%d points: %d bytes, raw %d bytes%n", POINTS, encoded.capacity(), POINTS * 16);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public byte[] encode() {
+        encoder.reset();
+        for (int i = 0; i < POINTS; i++) {
+            encoder.append(times[i], values[i]);
+        }
+        return encoder.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public long decode() {
+        GorillaDecoder decoder = new GorillaDecoder(encoded, POINTS);
+        long sum = 0;
+        while (decoder.next()) {
+            sum += decoder.time() ^ decoder.value();
+        }
+        return sum;
+    }
+
+    /**
+     * 一块电表的分钟读数：大部分准点采集，约五分之一晚到 1 秒以内，
+     * 值是以分为单位的累计读数，每分钟随机增加 0 ~ 0.79
+     */
+    static void fill(long[] times, long[] values) {
+        Random random = new Random(42);
+        long time = 1700000000000L;
+        long cents = 1_234_567L;
+        for (int i = 0; i < times.length; i++) {
+            times[i] = random.nextInt(5) == 0 ? time + random.nextInt(1000) : time;
+            values[i] = cents;
+            time += 60_000L;
+            cents += random.nextInt(80);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GorillaCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
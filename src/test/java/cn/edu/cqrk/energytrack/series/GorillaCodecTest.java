@@ -0,0 +1,197 @@
+package cn.edu.cqrk.energytrack.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GorillaEncoder / GorillaDecoder 往返测试
+ */
+class GorillaCodecTest {
+
+    private static final long BASE_TIME = 1700000000000L;
+
+    @Test
+    void roundTripRegularSeries() {
+        long[] times = new long[1000];
+        long[] values = new long[1000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = BASE_TIME + i * 60_000L;
+            values[i] = 123_456L + i * 25L;
+        }
+        byte[] encoded = assertRoundTrip(times, values);
+        // 规整间隔、匀速增长时每点只占时间和值各 1 位
+        assertTrue(encoded.length < 16 + 16 + times.length / 4 + 1);
+    }
+
+    @Test
+    void compressesRealisticSeries() {
+        // 与 GorillaCodecBenchmark 相同的一周分钟读数，原始格式每点 16 字节
+        long[] times = new long[GorillaCodecBenchmark.POINTS];
+        long[] values = new long[GorillaCodecBenchmark.POINTS];
+        GorillaCodecBenchmark.fill(times, values);
+        byte[] encoded = assertRoundTrip(times, values);
+
+        double ratio = times.length * 16.0 / encoded.length;
+        assertTrue(ratio >= 6, "compression ratio " + ratio);
+    }
+
+    @Test
+    void roundTripRandomSeries() {
+        Random random = new Random(42);
+        long[] times = new long[5000];
+        long[] values = new long[5000];
+        long time = BASE_TIME;
+        long value = 0;
+        for (int i = 0; i < times.length; i++) {
+            // 覆盖所有前缀区间，包括 64 位的差分
+            switch (random.nextInt(5)) {
+                case 0:
+                    time += 60_000L;
+                    value += random.nextInt(100);
+                    break;
+                case 1:
+                    time += 60_000L + random.nextInt(2000) - 1000;
+                    value += random.nextInt(5000);
+                    break;
+                case 2:
+                    time += random.nextInt(Integer.MAX_VALUE);
+                    value -= random.nextInt(Integer.MAX_VALUE);
+                    break;
+                case 3:
+                    value = random.nextLong();
+                    break;
+                default:
+                    time = random.nextLong();
+                    break;
+            }
+            times[i] = time;
+            values[i] = value;
+        }
+        assertRoundTrip(times, values);
+    }
+
+    @Test
+    void emptySeries() {
+        GorillaEncoder encoder = new GorillaEncoder(0);
+        assertEquals(0, encoder.count());
+        assertEquals(0, encoder.byteLength());
+        assertEquals(0, encoder.toByteArray().length);
+
+        GorillaDecoder decoder = new GorillaDecoder(ByteBuffer.wrap(new byte[0]), 0);
+        assertFalse(decoder.next());
+        assertEquals(0, decoder.bytesRead());
+    }
+
+    @Test
+    void singlePoint() {
+        byte[] encoded = assertRoundTrip(new long[]{BASE_TIME}, new long[]{-987_654_321L});
+        assertEquals(16, encoded.length);
+    }
+
+    @Test
+    void equalTimestamps() {
+        long[] times = {BASE_TIME, BASE_TIME, BASE_TIME, BASE_TIME + 1, BASE_TIME + 1, BASE_TIME + 1};
+        long[] values = {10, 10, 11, 11, 12, 12};
+        assertRoundTrip(times, values);
+    }
+
+    @Test
+    void negativeDeltas() {
+        long[] times = {BASE_TIME, BASE_TIME - 1, BASE_TIME - 60_000L, BASE_TIME + 5, 0L, Long.MIN_VALUE, Long.MAX_VALUE};
+        long[] values = {0L, -1L, -100L, -100_000L, Long.MIN_VALUE, Long.MAX_VALUE, -5L};
+        assertRoundTrip(times, values);
+    }
+
+    @Test
+    void specialDoubleBitPatterns() {
+        // 值按 64 位整数编码：NaN、正负零等浮点位模式也必须逐位还原
+        long[] values = {
+                Double.doubleToRawLongBits(0.0),
+                Double.doubleToRawLongBits(-0.0),
+                Double.doubleToRawLongBits(Double.NaN),
+                Double.doubleToRawLongBits(1.5),
+                Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY),
+                Double.doubleToRawLongBits(-0.0),
+                Double.doubleToRawLongBits(Double.longBitsToDouble(0x7ff8000000000001L))
+        };
+        long[] times = new long[values.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = BASE_TIME + i * 1000L;
+        }
+        GorillaDecoder decoder = new GorillaDecoder(ByteBuffer.wrap(encode(times, values)), values.length);
+        for (long expected : values) {
+            assertTrue(decoder.next());
+            assertEquals(expected, decoder.value());
+        }
+        assertFalse(decoder.next());
+
+        decoder = new GorillaDecoder(ByteBuffer.wrap(encode(times, values)), values.length);
+        decoder.next();
+        assertEquals(0, Double.compare(0.0, Double.longBitsToDouble(decoder.value())));
+        decoder.next();
+        assertEquals(0, Double.compare(-0.0, Double.longBitsToDouble(decoder.value())));
+        decoder.next();
+        assertTrue(Double.isNaN(Double.longBitsToDouble(decoder.value())));
+    }
+
+    @Test
+    void decodeFromBufferPosition() {
+        long[] times = {BASE_TIME, BASE_TIME + 1000, BASE_TIME + 2000};
+        long[] values = {1, 2, 4};
+        byte[] encoded = encode(times, values);
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 7);
+        buffer.position(7);
+        buffer.put(encoded);
+        buffer.position(7);
+
+        GorillaDecoder decoder = new GorillaDecoder(buffer, times.length);
+        for (int i = 0; i < times.length; i++) {
+            assertTrue(decoder.next());
+            assertEquals(times[i], decoder.time());
+            assertEquals(values[i], decoder.value());
+        }
+        assertEquals(encoded.length, decoder.bytesRead());
+        // 解码不移动缓冲区的 position
+        assertEquals(7, buffer.position());
+    }
+
+    @Test
+    void resetReusesEncoder() {
+        GorillaEncoder encoder = new GorillaEncoder(4);
+        encoder.append(BASE_TIME, 100);
+        encoder.append(BASE_TIME + 1000, Long.MAX_VALUE);
+        encoder.reset();
+        encoder.append(BASE_TIME, 5);
+        encoder.append(BASE_TIME + 1000, 6);
+
+        assertArrayEquals(encode(new long[]{BASE_TIME, BASE_TIME + 1000}, new long[]{5, 6}), encoder.toByteArray());
+    }
+
+    private static byte[] encode(long[] times, long[] values) {
+        GorillaEncoder encoder = new GorillaEncoder(times.length);
+        for (int i = 0; i < times.length; i++) {
+            encoder.append(times[i], values[i]);
+        }
+        return encoder.toByteArray();
+    }
+
+    private static byte[] assertRoundTrip(long[] times, long[] values) {
+        byte[] encoded = encode(times, values);
+        GorillaDecoder decoder = new GorillaDecoder(ByteBuffer.wrap(encoded), times.length);
+        for (int i = 0; i < times.length; i++) {
+            assertTrue(decoder.next(), "point " + i);
+            assertEquals(times[i], decoder.time(), "time " + i);
+            assertEquals(values[i], decoder.value(), "value " + i);
+        }
+        assertFalse(decoder.next());
+        assertEquals(encoded.length, decoder.bytesRead());
+        return encoded;
+    }
+}